@@ -0,0 +1,85 @@
+package io.vertx.starter.benchmarks;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.starter.database.models.Page;
+import io.vertx.starter.models.Currency;
+import io.vertx.starter.models.Rates;
+import io.vertx.starter.models.codecs.PageMessageCodec;
+import io.vertx.starter.models.codecs.RateMessageCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event-bus codecs, plus the JSON form of a page that the generated proxy code sends, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+  private final RateMessageCodec rateCodec = new RateMessageCodec();
+  private final PageMessageCodec pageCodec = new PageMessageCodec();
+  private Rates rates;
+  private Buffer encodedRates;
+  private Page page;
+  private Buffer encodedPage;
+
+  @Setup
+  public void setUp() {
+    double[] values = new double[Currency.count()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = 1.0 / (i + 1);
+    }
+    rates = new Rates(Currency.BGN, LocalDate.of(2019, 12, 13), values);
+    encodedRates = Buffer.buffer();
+    rateCodec.encodeToWire(encodedRates, rates);
+
+    String markdown = SamplePages.markdown(SamplePages.MEDIUM);
+    page = new Page().setId(42).setName("Benchmark").setMarkdown(markdown).setHtml(markdown).setVersion(3).setUpdated(1576195200000L);
+    encodedPage = Buffer.buffer();
+    pageCodec.encodeToWire(encodedPage, page);
+  }
+
+  @Benchmark
+  public Buffer encodeRates() {
+    Buffer buffer = Buffer.buffer(512);
+    rateCodec.encodeToWire(buffer, rates);
+    return buffer;
+  }
+
+  @Benchmark
+  public Rates decodeRates() {
+    return rateCodec.decodeFromWire(0, encodedRates);
+  }
+
+  @Benchmark
+  public Buffer encodePage() {
+    Buffer buffer = Buffer.buffer();
+    pageCodec.encodeToWire(buffer, page);
+    return buffer;
+  }
+
+  @Benchmark
+  public Page decodePage() {
+    return pageCodec.decodeFromWire(0, encodedPage);
+  }
+
+  @Benchmark
+  public Page pageJsonRoundTrip() {
+    return new Page(new JsonObject(page.toJson().encode()));
+  }
+}
@@ -0,0 +1,133 @@
+package io.vertx.starter.benchmarks;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.starter.database.PageNameIndex;
+import io.vertx.starter.database.models.Page;
+import io.vertx.starter.database.services.WikiDatabaseService;
+import io.vertx.starter.database.services.WikiDatabaseServiceImpl;
+import io.vertx.starter.database.services.WikiDatabaseServiceVertxEBProxy;
+import io.vertx.starter.verticles.WikiDatabaseVerticle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static io.vertx.starter.common.Constants.DB_SERVICE_ADDRESS;
+
+/**
+ * The database service on an in-memory HSQLDB: proxy round trips through the event bus, and the
+ * JSON conversions done on each call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatabaseServiceBenchmark {
+  private static final int PAGES = 1000;
+
+  private Vertx vertx;
+  private WikiDatabaseService proxy;
+  private WikiDatabaseService jsonProxy;
+  private PageNameIndex pageNameIndex;
+  private JsonArray row;
+
+  @Setup
+  public void setUp() throws IOException {
+    vertx = Vertx.vertx();
+    JsonObject config = new JsonObject()
+      .put("wikidb.jdbc.url", "jdbc:hsqldb:mem:benchmark")
+      .put("wikidb.search.directory", Files.createTempDirectory("wiki-search").toString());
+    this.<String>await(handler -> vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions().setConfig(config), handler));
+    proxy = WikiDatabaseService.createProxy(vertx, DB_SERVICE_ADDRESS);
+    jsonProxy = new WikiDatabaseServiceVertxEBProxy(vertx, DB_SERVICE_ADDRESS);
+
+    JsonArray pages = new JsonArray();
+    for (int i = 0; i < PAGES; i++) {
+      pages.add(new JsonObject().put("title", "Page " + i).put("markdown", SamplePages.markdown(SamplePages.MEDIUM)));
+    }
+    this.<JsonArray>await(handler -> proxy.savePages(new JsonObject().put("pages", pages), handler));
+
+    pageNameIndex = new PageNameIndex();
+    for (int i = 0; i < PAGES; i++) {
+      pageNameIndex.put("Page " + i, i);
+    }
+    String markdown = SamplePages.markdown(SamplePages.MEDIUM);
+    row = new JsonArray().add(42).add(markdown).add(markdown).add(3).add(Instant.now());
+  }
+
+  @TearDown
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Benchmark
+  public Page fetchPage() {
+    return await(handler -> proxy.fetchPage("Page 500", handler));
+  }
+
+  @Benchmark
+  public Page fetchPageAsJson() {
+    return await(handler -> jsonProxy.fetchPage("Page 500", handler));
+  }
+
+  @Benchmark
+  public Page fetchPageVersion() {
+    return await(handler -> proxy.fetchPageVersion("Page 500", handler));
+  }
+
+  @Benchmark
+  public JsonObject listPages() {
+    return await(handler -> proxy.listPages(new JsonObject().put("after", "Page 500").put("limit", 100), handler));
+  }
+
+  @Benchmark
+  public Page pageFromRow() {
+    return WikiDatabaseServiceImpl.pageFromRow("Page 500", row);
+  }
+
+  /**
+   * Listing as built by the name index and converted to maps for the index template.
+   */
+  @Benchmark
+  public List<Map<String, Object>> listingForTemplate() {
+    return pageNameIndex.list("Page 500", 100).getJsonArray("pages").stream()
+      .map(page -> ((JsonObject) page).getMap())
+      .collect(Collectors.toList());
+  }
+
+  private <T> T await(Consumer<Handler<AsyncResult<T>>> call) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    call.accept(ar -> {
+      if (ar.succeeded()) {
+        result.complete(ar.result());
+      } else {
+        result.completeExceptionally(ar.cause());
+      }
+    });
+    return result.join();
+  }
+}
@@ -0,0 +1,59 @@
+package io.vertx.starter.benchmarks;
+
+import com.github.rjeschke.txtmark.Processor;
+import io.vertx.starter.database.MarkdownBlockRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * txtmark rendering, as done when a page is saved or rendered without stored HTML, and block rendering of a page saved
+ * again with one heading edited.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkdownBenchmark {
+  @Param({SamplePages.SMALL, SamplePages.MEDIUM, SamplePages.HUGE})
+  public String size;
+
+  private String markdown;
+  private MarkdownBlockRenderer renderer;
+  private String beforeEdit;
+  private String afterEdit;
+  private int edits;
+
+  @Setup
+  public void setUp() {
+    markdown = SamplePages.markdown(size);
+    renderer = new MarkdownBlockRenderer(64L * 1024 * 1024);
+    renderer.render(markdown);
+    // the heading of the middle section, edited differently on each save
+    int heading = markdown.indexOf('\n', markdown.lastIndexOf("## Section", markdown.length() / 2));
+    beforeEdit = markdown.substring(0, heading);
+    afterEdit = markdown.substring(heading);
+  }
+
+  @Benchmark
+  public String render() {
+    return Processor.process(markdown);
+  }
+
+  @Benchmark
+  public String renderEdited() {
+    return renderer.render(beforeEdit + " edit " + edits++ + afterEdit);
+  }
+}
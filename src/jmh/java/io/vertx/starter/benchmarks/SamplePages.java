@@ -0,0 +1,38 @@
+package io.vertx.starter.benchmarks;
+
+/**
+ * Markdown of representative wiki pages: headings, paragraphs with inline markup, lists and code blocks.
+ */
+final class SamplePages {
+  static final String SMALL = "small";
+  static final String MEDIUM = "medium";
+  static final String HUGE = "huge";
+
+  private SamplePages() {
+  }
+
+  static String markdown(String size) {
+    switch (size) {
+      case SMALL:
+        return markdown(1);
+      case MEDIUM:
+        return markdown(20);
+      case HUGE:
+        return markdown(2000);
+      default:
+        throw new IllegalArgumentException(size);
+    }
+  }
+
+  static String markdown(int sections) {
+    StringBuilder markdown = new StringBuilder();
+    for (int i = 0; i < sections; i++) {
+      markdown.append("## Section ").append(i).append("\n\n")
+        .append("Some *emphasized* and **strong** text with a [link](http://example.com/").append(i).append(") and `code`. ")
+        .append("Vert.x is a tool-kit for building reactive applications on the JVM.\n\n")
+        .append("* first item\n* second item\n* third item\n\n")
+        .append("    int answer = ").append(i).append(";\n\n");
+    }
+    return markdown.toString();
+  }
+}
@@ -0,0 +1,98 @@
+package io.vertx.starter.benchmarks;
+
+import com.github.rjeschke.txtmark.Processor;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.templ.freemarker.FreeMarkerTemplateEngine;
+import io.vertx.starter.models.Rates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FreeMarker rendering of the page and index templates with the data the HTTP verticle puts in the context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+  private Vertx vertx;
+  private FreeMarkerTemplateEngine engine;
+  private Map<String, Object> pageData;
+  private Map<String, Object> indexData;
+
+  @Setup
+  public void setUp() {
+    vertx = Vertx.vertx();
+    engine = FreeMarkerTemplateEngine.create(vertx);
+
+    String markdown = SamplePages.markdown(SamplePages.MEDIUM);
+    pageData = new HashMap<>();
+    pageData.put("title", "Benchmark");
+    pageData.put("id", 42);
+    pageData.put("newPage", "false");
+    pageData.put("rawContent", markdown);
+    pageData.put("content", Processor.process(markdown));
+    pageData.put("timestamp", new Date().toString());
+
+    List<Map<String, Object>> pages = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      pages.add(new JsonObject().put("id", i).put("name", "Page " + i).getMap());
+    }
+    indexData = new HashMap<>();
+    indexData.put("title", "Wiki home");
+    indexData.put("pages", pages);
+    indexData.put("next", "Page 99");
+    indexData.put("rates", Rates.fromJson(new JsonObject()
+      .put("base", "BGN")
+      .put("date", "2019-12-13")
+      .put("rates", new JsonObject().put("EUR", 0.5113).put("USD", 0.5678).put("GBP", 0.4251))));
+  }
+
+  @TearDown
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Benchmark
+  public Buffer page() {
+    return render(pageData, "templates/page.ftl");
+  }
+
+  @Benchmark
+  public Buffer index() {
+    return render(indexData, "templates/index.ftl");
+  }
+
+  private Buffer render(Map<String, Object> data, String template) {
+    CompletableFuture<Buffer> result = new CompletableFuture<>();
+    engine.render(data, template, ar -> {
+      if (ar.succeeded()) {
+        result.complete(ar.result());
+      } else {
+        result.completeExceptionally(ar.cause());
+      }
+    });
+    return result.join();
+  }
+}
@@ -0,0 +1,309 @@
+package io.vertx.starter.loadtest;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.starter.MainVerticle;
+import io.vertx.starter.metrics.WikiMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Starts the whole application on an in-memory HSQLDB with a local stub of the exchange rate API, then drives a
+ * weighted mix of requests with a fixed number of requests in flight and reports throughput and latency per route.
+ *
+ * Arguments are {@code key=value} pairs, see {@link #DEFAULTS}. Arguments starting with {@code config.} are passed
+ * to the application configuration, e.g. {@code config.http.server.instances=4}.
+ * Deleted pages are recreated right away, outside of the measurements, so that the data set stays the same.
+ * Metrics are enabled as when the application is started by {@code WikiLauncher}.
+ */
+public class LoadTest {
+  private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+  static {
+    DEFAULTS.put("duration", "60");
+    DEFAULTS.put("warmup", "10");
+    DEFAULTS.put("concurrency", "64");
+    DEFAULTS.put("pages", "1000");
+    DEFAULTS.put("mix", "home:10,page:80,save:8,delete:2");
+    DEFAULTS.put("port", "8090");
+    DEFAULTS.put("seed", "42");
+    DEFAULTS.put("output", "target/loadtest-result.json");
+  }
+
+  private static final String RATES = "{\"base\":\"BGN\",\"date\":\"2019-12-13\",\"rates\":{\"EUR\":0.5113,\"USD\":0.5678,\"GBP\":0.4251}}";
+
+  private final Vertx vertx = Vertx.vertx(new VertxOptions().setMetricsOptions(WikiMetrics.options()));
+  private final Map<String, String> options;
+  private final JsonObject config = new JsonObject();
+  private final Map<String, RouteStats> stats = new LinkedHashMap<>();
+  private final List<String> routes = new ArrayList<>();
+  private final List<Integer> weights = new ArrayList<>();
+  private final Random random;
+  private WebClient client;
+  private String[] names;
+  private int[] ids;
+  private boolean[] deleting;
+  private boolean running;
+  private int activeLoops;
+  private long measureStart;
+
+  private LoadTest(Map<String, String> options) {
+    this.options = options;
+    this.random = new Random(Long.parseLong(options.get("seed")));
+    for (String entry : options.get("mix").split(",")) {
+      String[] parts = entry.split(":");
+      routes.add(parts[0].trim());
+      weights.add(Integer.parseInt(parts[1].trim()));
+      stats.put(parts[0].trim(), new RouteStats(parts[0].trim()));
+    }
+  }
+
+  public static void main(String[] args) {
+    Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        System.err.println("Expected key=value, got " + arg);
+        System.exit(2);
+      }
+      options.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+    new LoadTest(options).run();
+  }
+
+  private void run() {
+    startRatesStub()
+      .compose(this::deployApplication)
+      .compose(v -> seedPages())
+      .setHandler(ready -> {
+        if (ready.failed()) {
+          ready.cause().printStackTrace();
+          vertx.close(v -> System.exit(1));
+          return;
+        }
+        int warmup = Integer.parseInt(options.get("warmup"));
+        int duration = Integer.parseInt(options.get("duration"));
+        System.out.printf("Seeded %d pages, warming up for %ds then measuring for %ds%n", names.length, warmup, duration);
+        running = true;
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        for (int i = 0; i < concurrency; i++) {
+          activeLoops++;
+          next();
+        }
+        vertx.setTimer(Math.max(1, warmup * 1000L), id -> {
+          stats.values().forEach(RouteStats::reset);
+          measureStart = System.nanoTime();
+        });
+        vertx.setTimer(warmup * 1000L + duration * 1000L, id -> running = false);
+      });
+  }
+
+  private Future<Integer> startRatesStub() {
+    Promise<Integer> promise = Promise.promise();
+    vertx.createHttpServer()
+      .requestHandler(request -> request.response().putHeader("Content-Type", "application/json").end(RATES))
+      .listen(0, listen -> {
+        if (listen.succeeded()) {
+          promise.complete(listen.result().actualPort());
+        } else {
+          promise.fail(listen.cause());
+        }
+      });
+    return promise.future();
+  }
+
+  private Future<String> deployApplication(int ratesPort) {
+    try {
+      String directory = Files.createTempDirectory("wiki-loadtest").toString();
+      config
+        .put("wikidb.jdbc.url", "jdbc:hsqldb:mem:loadtest")
+        .put("wikidb.search.directory", directory + "/search")
+        .put("exchange_rate.snapshot_file", directory + "/exchange-rates.json")
+        .put("exchange_rate.history_file", directory + "/exchange-rate-history.bin")
+        .put("exchange_rate.url", "http://localhost:" + ratesPort + "/latest")
+        .put("http.server.port", Integer.parseInt(options.get("port")));
+    } catch (IOException e) {
+      return Future.failedFuture(e);
+    }
+    options.forEach((key, value) -> {
+      if (key.startsWith("config.")) {
+        config.put(key.substring("config.".length()), value.matches("-?\\d+") ? (Object) Integer.valueOf(value) : value);
+      }
+    });
+    client = WebClient.create(vertx, new WebClientOptions()
+      .setDefaultHost("localhost")
+      .setDefaultPort(config.getInteger("http.server.port"))
+      .setFollowRedirects(false)
+      .setKeepAlive(true)
+      .setMaxPoolSize(Integer.parseInt(options.get("concurrency"))));
+
+    Promise<String> promise = Promise.promise();
+    vertx.deployVerticle(new MainVerticle(), new DeploymentOptions().setConfig(config), promise);
+    return promise.future();
+  }
+
+  private Future<Void> seedPages() {
+    int pages = Integer.parseInt(options.get("pages"));
+    names = new String[pages];
+    ids = new int[pages];
+    deleting = new boolean[pages];
+    Buffer body = Buffer.buffer();
+    for (int i = 0; i < pages; i++) {
+      names[i] = String.format("LoadTest-%06d", i);
+      body.appendString(new JsonObject().put("title", names[i]).put("markdown", markdown(i)).encode()).appendString("\n");
+    }
+
+    Promise<Void> promise = Promise.promise();
+    client.post("/api/pages/bulk").sendBuffer(body, ar -> {
+      if (ar.failed()) {
+        promise.fail(ar.cause());
+        return;
+      }
+      JsonArray results = parseResults(ar.result().bodyAsString());
+      for (int i = 0; i < pages; i++) {
+        JsonObject result = results.getJsonObject(i);
+        if (!result.containsKey("id")) {
+          promise.fail("Page " + names[i] + " was not created: " + result.encode());
+          return;
+        }
+        ids[i] = result.getInteger("id");
+      }
+      promise.complete();
+    });
+    return promise.future();
+  }
+
+  private void next() {
+    if (!running) {
+      if (--activeLoops == 0) {
+        report();
+      }
+      return;
+    }
+    String route = pickRoute();
+    long start = System.nanoTime();
+    Handler<AsyncResult<HttpResponse<Buffer>>> done = ar -> {
+      stats.get(route).record(System.nanoTime() - start, ar.succeeded() && ar.result().statusCode() < 400);
+      next();
+    };
+    int page = random.nextInt(names.length);
+    switch (route) {
+      case "home":
+        client.get("/").send(done);
+        break;
+      case "page":
+        client.get("/wiki/" + names[page]).send(done);
+        break;
+      case "save":
+        client.post("/save").sendForm(MultiMap.caseInsensitiveMultiMap()
+          .add("id", String.valueOf(ids[page]))
+          .add("title", names[page])
+          .add("markdown", markdown(random.nextInt()))
+          .add("newPage", "false"), done);
+        break;
+      case "delete":
+        if (deleting[page]) {
+          // the page is already being deleted by another loop
+          vertx.runOnContext(v -> next());
+          break;
+        }
+        deleting[page] = true;
+        client.post("/delete").sendForm(MultiMap.caseInsensitiveMultiMap()
+          .add("id", String.valueOf(ids[page]))
+          .add("title", names[page]), ar -> {
+          stats.get(route).record(System.nanoTime() - start, ar.succeeded() && ar.result().statusCode() < 400);
+          recreate(page);
+        });
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown route " + route);
+    }
+  }
+
+  private void recreate(int page) {
+    Buffer line = Buffer.buffer(new JsonObject().put("title", names[page]).put("markdown", markdown(page)).encode());
+    client.post("/api/pages/bulk").sendBuffer(line, ar -> {
+      if (ar.succeeded()) {
+        JsonObject result = parseResults(ar.result().bodyAsString()).getJsonObject(0);
+        if (result.containsKey("id")) {
+          ids[page] = result.getInteger("id");
+        }
+      }
+      deleting[page] = false;
+      next();
+    });
+  }
+
+  private String pickRoute() {
+    int total = weights.stream().mapToInt(Integer::intValue).sum();
+    int pick = random.nextInt(total);
+    for (int i = 0; i < routes.size(); i++) {
+      pick -= weights.get(i);
+      if (pick < 0) {
+        return routes.get(i);
+      }
+    }
+    return routes.get(routes.size() - 1);
+  }
+
+  private void report() {
+    double seconds = (System.nanoTime() - measureStart) / 1e9;
+    JsonArray routeResults = new JsonArray();
+    long requests = 0;
+    System.out.println(RouteStats.header());
+    for (RouteStats route : stats.values()) {
+      System.out.println(route.format(seconds));
+      routeResults.add(route.toJson(seconds));
+      requests += route.count();
+    }
+    System.out.printf("total    %9d %18.1f req/s over %.1fs%n", requests, requests / seconds, seconds);
+
+    JsonObject result = new JsonObject()
+      .put("options", new JsonObject(new LinkedHashMap<>(options)))
+      .put("seconds", seconds)
+      .put("throughput", requests / seconds)
+      .put("routes", routeResults);
+    String output = options.get("output");
+    vertx.fileSystem().mkdirsBlocking(new File(output).getAbsoluteFile().getParent());
+    vertx.fileSystem().writeFileBlocking(output, Buffer.buffer(result.encodePrettily()));
+    System.out.println("Results written to " + output);
+    vertx.close(v -> System.exit(0));
+  }
+
+  private static JsonArray parseResults(String ndjson) {
+    JsonArray results = new JsonArray();
+    for (String line : ndjson.split("\n")) {
+      if (!line.trim().isEmpty()) {
+        results.add(new JsonObject(line));
+      }
+    }
+    return results;
+  }
+
+  private static String markdown(int seed) {
+    StringBuilder markdown = new StringBuilder("# Load test page ").append(seed).append("\n\n");
+    for (int i = 0; i < 20; i++) {
+      markdown.append("Paragraph ").append(i).append(" with *some* **markup** and a [link](http://example.com/").append(i).append(").\n\n");
+    }
+    return markdown.toString();
+  }
+}
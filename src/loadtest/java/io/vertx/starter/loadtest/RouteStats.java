@@ -0,0 +1,63 @@
+package io.vertx.starter.loadtest;
+
+import io.vertx.core.json.JsonObject;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies and outcomes of the requests sent to one route. Only used from the load generator event loop.
+ */
+class RouteStats {
+  private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final String route;
+  private final Histogram latencies = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+  private long errors;
+
+  RouteStats(String route) {
+    this.route = route;
+  }
+
+  void record(long latencyNanos, boolean success) {
+    latencies.recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+    if (!success) {
+      errors++;
+    }
+  }
+
+  void reset() {
+    latencies.reset();
+    errors = 0;
+  }
+
+  long count() {
+    return latencies.getTotalCount();
+  }
+
+  JsonObject toJson(double seconds) {
+    return new JsonObject()
+      .put("route", route)
+      .put("requests", count())
+      .put("errors", errors)
+      .put("throughput", count() / seconds)
+      .put("p50", millis(latencies.getValueAtPercentile(50)))
+      .put("p99", millis(latencies.getValueAtPercentile(99)))
+      .put("p999", millis(latencies.getValueAtPercentile(99.9)))
+      .put("max", millis(latencies.getMaxValue()));
+  }
+
+  String format(double seconds) {
+    return String.format("%-8s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f", route, count(), errors, count() / seconds,
+      millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(99)),
+      millis(latencies.getValueAtPercentile(99.9)), millis(latencies.getMaxValue()));
+  }
+
+  static String header() {
+    return String.format("%-8s %9s %7s %10s %9s %9s %9s %9s", "route", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+}
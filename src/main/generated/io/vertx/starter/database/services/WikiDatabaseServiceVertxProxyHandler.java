@@ -43,6 +43,7 @@ import io.vertx.serviceproxy.HelperUtils;
 
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.starter.database.models.Page;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 /*
@@ -119,21 +120,116 @@ public class WikiDatabaseServiceVertxProxyHandler extends ProxyHandler {
           service.fetchAllPages(HelperUtils.createHandler(msg));
           break;
         }
+        case "listPages": {
+          service.listPages((io.vertx.core.json.JsonObject)json.getValue("request"),
+                        HelperUtils.createHandler(msg));
+          break;
+        }
+        case "suggestPages": {
+          service.suggestPages((io.vertx.core.json.JsonObject)json.getValue("request"),
+                        HelperUtils.createHandler(msg));
+          break;
+        }
+        case "search": {
+          service.search((io.vertx.core.json.JsonObject)json.getValue("request"),
+                        HelperUtils.createHandler(msg));
+          break;
+        }
         case "fetchPage": {
-          service.fetchPage((io.vertx.core.json.JsonObject)json.getValue("request"),
+          service.fetchPage((java.lang.String)json.getValue("name"),
+                        res -> {
+                        if (res.failed()) {
+                          if (res.cause() instanceof ServiceException) {
+                            msg.reply(res.cause());
+                          } else {
+                            msg.reply(new ServiceException(-1, res.cause().getMessage()));
+                          }
+                        } else {
+                          msg.reply(res.result() == null ? null : res.result().toJson());
+                        }
+                     });
+          break;
+        }
+        case "fetchPageVersion": {
+          service.fetchPageVersion((java.lang.String)json.getValue("name"),
+                        res -> {
+                        if (res.failed()) {
+                          if (res.cause() instanceof ServiceException) {
+                            msg.reply(res.cause());
+                          } else {
+                            msg.reply(new ServiceException(-1, res.cause().getMessage()));
+                          }
+                        } else {
+                          msg.reply(res.result() == null ? null : res.result().toJson());
+                        }
+                     });
+          break;
+        }
+        case "fetchPageFields": {
+          service.fetchPageFields((io.vertx.core.json.JsonObject)json.getValue("request"),
                         HelperUtils.createHandler(msg));
           break;
         }
-        case "savePage": {
-          service.savePage((io.vertx.core.json.JsonObject)json.getValue("request"),
+        case "fetchPageChunk": {
+          service.fetchPageChunk((io.vertx.core.json.JsonObject)json.getValue("request"),
                         HelperUtils.createHandler(msg));
           break;
         }
+        case "savePage": {
+          service.savePage(json.getJsonObject("page") == null ? null : new io.vertx.starter.database.models.Page(json.getJsonObject("page")),
+                        res -> {
+                        if (res.failed()) {
+                          if (res.cause() instanceof ServiceException) {
+                            msg.reply(res.cause());
+                          } else {
+                            msg.reply(new ServiceException(-1, res.cause().getMessage()));
+                          }
+                        } else {
+                          msg.reply(res.result() == null ? null : res.result().toJson());
+                        }
+                     });
+          break;
+        }
         case "deletePage": {
           service.deletePage((io.vertx.core.json.JsonObject)json.getValue("request"),
                         HelperUtils.createHandler(msg));
           break;
         }
+        case "savePages": {
+          service.savePages((io.vertx.core.json.JsonObject)json.getValue("request"),
+                        HelperUtils.createHandler(msg));
+          break;
+        }
+        case "deletePages": {
+          service.deletePages((io.vertx.core.json.JsonObject)json.getValue("request"),
+                        HelperUtils.createHandler(msg));
+          break;
+        }
+        case "fetchPageHistory": {
+          service.fetchPageHistory((io.vertx.core.json.JsonObject)json.getValue("request"),
+                        HelperUtils.createHandler(msg));
+          break;
+        }
+        case "fetchPageRevision": {
+          service.fetchPageRevision((io.vertx.core.json.JsonObject)json.getValue("request"),
+                        res -> {
+                        if (res.failed()) {
+                          if (res.cause() instanceof ServiceException) {
+                            msg.reply(res.cause());
+                          } else {
+                            msg.reply(new ServiceException(-1, res.cause().getMessage()));
+                          }
+                        } else {
+                          msg.reply(res.result() == null ? null : res.result().toJson());
+                        }
+                     });
+          break;
+        }
+        case "diffPageRevisions": {
+          service.diffPageRevisions((io.vertx.core.json.JsonObject)json.getValue("request"),
+                        HelperUtils.createHandler(msg));
+          break;
+        }
         default: throw new IllegalStateException("Invalid action: " + action);
       }
     } catch (Throwable t) {
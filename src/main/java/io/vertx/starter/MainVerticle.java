@@ -1,41 +1,40 @@
 package io.vertx.starter;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
-import io.vertx.ext.web.client.WebClient;
-import io.vertx.ext.web.client.WebClientOptions;
+import io.vertx.core.shareddata.LocalMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
+
+import static io.vertx.starter.common.Constants.READINESS_MAP;
+
 /**
- * Each phase can fail (e.g., the HTTP server TCP port is already being used),
- * and they should not run in parallel as the web application code first needs the database access to work.
+ * Deploys the database, HTTP server and exchange rate verticles in parallel: none of them calls another while starting.
+ * Each one warms up before reporting itself deployed. The HTTP server starts answering before the database is up, so
+ * {@code /health/ready} reports it ready only once all deployments are complete.
+ * Each deployment can fail (e.g., the HTTP server TCP port is already being used), failing the whole.
  */
 public class MainVerticle extends AbstractVerticle {
   private static final Logger log = LogManager.getLogger(MainVerticle.class);
   private static final String BASE_VERTICLE_DIRECTORY = "io.vertx.starter.verticles.";
+  private static final String CONFIG_HTTP_SERVER_INSTANCES = "http.server.instances";
 
   @Override
   public void start(Promise<Void> promise) {
-    Promise<String> dbVerticleDeployment = Promise.promise();
-    vertx.deployVerticle(BASE_VERTICLE_DIRECTORY + "WikiDatabaseVerticle", dbVerticleDeployment);
+    int instances = config().getInteger(CONFIG_HTTP_SERVER_INSTANCES, Runtime.getRuntime().availableProcessors());
+    LocalMap<String, Boolean> readiness = vertx.sharedData().getLocalMap(READINESS_MAP);
+    Future<String> database = deploy(readiness, "database", "WikiDatabaseVerticle", new DeploymentOptions());
+    Future<String> http = deploy(readiness, "http", "HttpServerVerticle", new DeploymentOptions().setInstances(instances));
+    Future<String> exchangeRates = deploy(readiness, "exchange_rates", "ExchangeRateVerticle", new DeploymentOptions());
 
-    dbVerticleDeployment.future().compose(id -> {
-      Promise<String> httpVerticleDeployment = Promise.promise();
-      vertx.deployVerticle(BASE_VERTICLE_DIRECTORY + "HttpServerVerticle", httpVerticleDeployment);
-      return httpVerticleDeployment.future();
-    }).compose(id -> {
-      Promise<String> backupVerticleDeployment = Promise.promise();
-      vertx.deployVerticle(BASE_VERTICLE_DIRECTORY + "ExchangeRateVerticle", backupVerticleDeployment);
-      return backupVerticleDeployment.future();
-    }).setHandler(result -> {
+    CompositeFuture.all(Arrays.asList(database, http, exchangeRates)).setHandler(result -> {
       if (result.succeeded()) {
         log.info("~~~~~~~~~~All verticles deployed~~~~~~~~~");
-        WebClientOptions options = new WebClientOptions()
-          .setKeepAlive(true)
-          .setPipelining(false);
-        WebClient client = WebClient.create(vertx, options);
         promise.complete();
       } else {
         log.error("~~~~~~~~~~Deployment failed~~~~~~~~~", result.cause());
@@ -43,4 +42,17 @@ public class MainVerticle extends AbstractVerticle {
       }
     });
   }
+
+  private Future<String> deploy(LocalMap<String, Boolean> readiness, String component, String verticle,
+                                DeploymentOptions options) {
+    readiness.put(component, false);
+    Promise<String> deployment = Promise.promise();
+    long start = System.currentTimeMillis();
+    vertx.deployVerticle(BASE_VERTICLE_DIRECTORY + verticle, options.setConfig(config()), deployment);
+    return deployment.future().map(id -> {
+      log.info("{} deployed in {} ms", verticle, System.currentTimeMillis() - start);
+      readiness.put(component, true);
+      return id;
+    });
+  }
 }
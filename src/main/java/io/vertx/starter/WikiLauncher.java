@@ -0,0 +1,20 @@
+package io.vertx.starter;
+
+import io.vertx.core.Launcher;
+import io.vertx.core.VertxOptions;
+import io.vertx.starter.metrics.WikiMetrics;
+
+/**
+ * Vert.x launcher enabling the metrics, which have to be set on the {@code VertxOptions} before Vert.x starts.
+ */
+public class WikiLauncher extends Launcher {
+
+  public static void main(String[] args) {
+    new WikiLauncher().dispatch(args);
+  }
+
+  @Override
+  public void beforeStartingVertx(VertxOptions options) {
+    options.setMetricsOptions(WikiMetrics.options());
+  }
+}
@@ -0,0 +1,161 @@
+package io.vertx.starter.cache;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded LRU cache of fully rendered wiki pages, keyed by page name, optionally with a gzipped copy of each body.
+ * Entries expire after a TTL and are evicted least-recently-used first once either
+ * the entry count or the total body size goes over its limit.
+ *
+ * Not thread safe: every HttpServerVerticle instance owns its own cache and only touches it
+ * from its event loop. The configured limits are shared out between the instances.
+ */
+public class RenderedPageCache {
+  private final long maxBytes;
+  private final int maxEntries;
+  private final long ttlMillis;
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long currentBytes;
+  private long epoch;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long invalidations;
+
+  public RenderedPageCache(long maxBytes, int maxEntries, long ttlMillis) {
+    this.maxBytes = maxBytes;
+    this.maxEntries = maxEntries;
+    this.ttlMillis = ttlMillis;
+  }
+
+  public Entry get(String page) {
+    Entry entry = entries.get(page);
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    if (System.currentTimeMillis() - entry.createdAt > ttlMillis) {
+      remove(page);
+      misses++;
+      return null;
+    }
+    hits++;
+    return entry;
+  }
+
+  /**
+   * Invalidation counter, to be read before loading a page and handed back to {@link #put}.
+   * A put whose epoch is outdated is dropped, as the page may have changed while it was being rendered.
+   */
+  public long epoch() {
+    return epoch;
+  }
+
+  /**
+   * @param gzipBody precompressed copy of the body, or null when the body is too small to be worth compressing
+   * @return the new entry, even when it could not be stored
+   */
+  public Entry put(String page, int id, String etag, long lastModified, Buffer body, Buffer gzipBody, long loadEpoch) {
+    Entry entry = new Entry(page, id, etag, lastModified, body, gzipBody);
+    if (loadEpoch != epoch || entry.size() > maxBytes) {
+      return entry;
+    }
+    remove(page);
+    entries.put(page, entry);
+    currentBytes += entry.size();
+
+    Iterator<Entry> eldest = entries.values().iterator();
+    while ((currentBytes > maxBytes || entries.size() > maxEntries) && eldest.hasNext()) {
+      currentBytes -= eldest.next().size();
+      eldest.remove();
+      evictions++;
+    }
+    return entry;
+  }
+
+  /**
+   * Drops the page by name, or by id when the name is unknown (e.g. a deletion only carrying the id).
+   */
+  public void invalidate(String page, Integer id) {
+    epoch++;
+    invalidations++;
+    if (page != null) {
+      remove(page);
+    } else if (id != null) {
+      entries.values().stream()
+        .filter(entry -> entry.id == id)
+        .map(entry -> entry.page)
+        .findFirst()
+        .ifPresent(this::remove);
+    }
+  }
+
+  public JsonObject stats() {
+    return new JsonObject()
+      .put("entries", entries.size())
+      .put("bytes", currentBytes)
+      .put("hits", hits)
+      .put("misses", misses)
+      .put("evictions", evictions)
+      .put("invalidations", invalidations);
+  }
+
+  private void remove(String page) {
+    Entry removed = entries.remove(page);
+    if (removed != null) {
+      currentBytes -= removed.size();
+    }
+  }
+
+  public static class Entry {
+    private final String page;
+    private final int id;
+    private final String etag;
+    private final long lastModified;
+    private final Buffer body;
+    private final Buffer gzipBody;
+    private final long createdAt = System.currentTimeMillis();
+
+    private Entry(String page, int id, String etag, long lastModified, Buffer body, Buffer gzipBody) {
+      this.page = page;
+      this.id = id;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.body = body;
+      this.gzipBody = gzipBody;
+    }
+
+    private int size() {
+      return body.length() + (gzipBody == null ? 0 : gzipBody.length());
+    }
+
+    public String getPage() {
+      return page;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public String getEtag() {
+      return etag;
+    }
+
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    public Buffer getBody() {
+      return body;
+    }
+
+    public Buffer getGzipBody() {
+      return gzipBody;
+    }
+  }
+}
@@ -5,4 +5,11 @@ public interface Constants {
 
   String DB_SERVICE_ADDRESS = "database-service-address";
   String EXCHANGE_RATE_ADDRESS = "exchange-rate-address";
+  String EXCHANGE_RATE_MAP = "exchange-rates";
+  String EXCHANGE_RATE_LATEST_KEY = "latest";
+  String PAGE_INVALIDATION_ADDRESS = "page-invalidation-address";
+  /**
+   * Whether each verticle is deployed and warmed up, by name, as reported on {@code /health/ready}.
+   */
+  String READINESS_MAP = "readiness";
 }
@@ -0,0 +1,124 @@
+package io.vertx.starter.database;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+import com.mchange.v2.c3p0.PooledDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.vertx.core.json.JsonObject;
+import io.vertx.starter.metrics.WikiMetrics;
+
+import javax.sql.DataSource;
+import java.beans.PropertyVetoException;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled data sources for the wiki database, built from:
+ * <ul>
+ *   <li>{@code provider}: {@value #C3P0}, the default as it caches prepared statements, or {@value #HIKARI}</li>
+ *   <li>{@code url}, {@code driver_class}, {@code max_pool_size} and {@code min_idle}</li>
+ *   <li>{@code connection_timeout}: milliseconds to wait for a connection before failing</li>
+ *   <li>{@code leak_detection_threshold}: milliseconds a connection may stay checked out before it is reported
+ *   (HikariCP) or destroyed (c3p0), 0 to disable</li>
+ *   <li>{@code c3p0_statement_cache_size}: prepared statements c3p0 caches per connection. c3p0 only: HikariCP
+ *   leaves statement caching to the driver, and the HSQLDB driver has none to configure (the database keeps the
+ *   statements it compiled itself)</li>
+ *   <li>{@code datasource_properties}: JDBC driver properties</li>
+ * </ul>
+ *
+ * Both report their busy, idle and pending connections in the {@code wiki.db.pool} gauges.
+ */
+public final class ConnectionPools {
+  public static final String HIKARI = "hikari";
+  public static final String C3P0 = "c3p0";
+
+  private ConnectionPools() {
+  }
+
+  public static DataSource create(JsonObject config) {
+    String provider = config.getString("provider", C3P0);
+    switch (provider) {
+      case HIKARI:
+        return hikari(config);
+      case C3P0:
+        return c3p0(config);
+      default:
+        throw new IllegalArgumentException("Unknown connection pool provider " + provider);
+    }
+  }
+
+  public static void close(DataSource dataSource) throws SQLException {
+    if (dataSource instanceof HikariDataSource) {
+      ((HikariDataSource) dataSource).close();
+    } else if (dataSource instanceof PooledDataSource) {
+      ((PooledDataSource) dataSource).close();
+    }
+  }
+
+  private static DataSource hikari(JsonObject config) {
+    HikariConfig hikari = new HikariConfig();
+    hikari.setPoolName("wikidb");
+    hikari.setJdbcUrl(config.getString("url"));
+    hikari.setDriverClassName(config.getString("driver_class"));
+    hikari.setMaximumPoolSize(config.getInteger("max_pool_size"));
+    hikari.setMinimumIdle(config.getInteger("min_idle"));
+    hikari.setConnectionTimeout(config.getLong("connection_timeout"));
+    hikari.setLeakDetectionThreshold(config.getLong("leak_detection_threshold"));
+    config.getJsonObject("datasource_properties", new JsonObject())
+      .forEach(property -> hikari.addDataSourceProperty(property.getKey(), String.valueOf(property.getValue())));
+
+    HikariDataSource dataSource = new HikariDataSource(hikari);
+    HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+    WikiMetrics.registerPoolGauges(HIKARI, pool, HikariPoolMXBean::getActiveConnections,
+      HikariPoolMXBean::getIdleConnections, HikariPoolMXBean::getThreadsAwaitingConnection, hikari.getMaximumPoolSize());
+    return dataSource;
+  }
+
+  private static DataSource c3p0(JsonObject config) {
+    ComboPooledDataSource dataSource = new ComboPooledDataSource();
+    try {
+      dataSource.setDriverClass(config.getString("driver_class"));
+    } catch (PropertyVetoException e) {
+      throw new IllegalArgumentException(e);
+    }
+    dataSource.setJdbcUrl(config.getString("url"));
+    dataSource.setMaxPoolSize(config.getInteger("max_pool_size"));
+    dataSource.setMinPoolSize(config.getInteger("min_idle"));
+    dataSource.setInitialPoolSize(config.getInteger("min_idle"));
+    dataSource.setCheckoutTimeout(config.getInteger("connection_timeout"));
+    dataSource.setMaxStatementsPerConnection(config.getInteger("c3p0_statement_cache_size"));
+    long leakDetectionThreshold = config.getLong("leak_detection_threshold");
+    if (leakDetectionThreshold > 0) {
+      dataSource.setUnreturnedConnectionTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(leakDetectionThreshold)));
+      dataSource.setDebugUnreturnedConnectionStackTraces(true);
+    }
+    JsonObject properties = config.getJsonObject("datasource_properties", new JsonObject());
+    if (!properties.isEmpty()) {
+      Properties driverProperties = new Properties();
+      properties.forEach(property -> driverProperties.setProperty(property.getKey(), String.valueOf(property.getValue())));
+      dataSource.setProperties(driverProperties);
+    }
+
+    WikiMetrics.registerPoolGauges(C3P0, dataSource,
+      pool -> count(pool::getNumBusyConnectionsDefaultUser),
+      pool -> count(pool::getNumIdleConnectionsDefaultUser),
+      pool -> count(pool::getNumThreadsAwaitingCheckoutDefaultUser),
+      dataSource.getMaxPoolSize());
+    return dataSource;
+  }
+
+  private static double count(SqlIntSupplier supplier) {
+    try {
+      return supplier.get();
+    } catch (SQLException e) {
+      return Double.NaN;
+    }
+  }
+
+  @FunctionalInterface
+  private interface SqlIntSupplier {
+    int get() throws SQLException;
+  }
+}
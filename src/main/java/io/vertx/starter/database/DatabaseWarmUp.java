@@ -0,0 +1,114 @@
+package io.vertx.starter.database;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.starter.database.enums.SqlQuery;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Work done before the database verticle reports itself deployed, so that the first requests do not pay for it: the
+ * pool connections are checked out together, every query is prepared on each of them (which fills the statement cache
+ * of the default c3p0 pool; HikariCP has none) and pages are rendered until the Markdown rendering code is compiled.
+ *
+ * Best effort: a step that fails is logged and skipped.
+ */
+public class DatabaseWarmUp {
+  private static final Logger log = LogManager.getLogger(DatabaseWarmUp.class);
+  private static final int SAMPLE_SECTIONS = 50;
+
+  private final Vertx vertx;
+  private final DataSource dataSource;
+  private final Map<SqlQuery, String> sqlQueries;
+  private final int connections;
+  private final int markdownRenders;
+
+  /**
+   * @param connections     pool connections to open and prepare the queries on, usually the minimum kept idle
+   * @param markdownRenders renders of a sample page, each with one section edited
+   */
+  public DatabaseWarmUp(Vertx vertx, DataSource dataSource, Map<SqlQuery, String> sqlQueries, int connections,
+                        int markdownRenders) {
+    this.vertx = vertx;
+    this.dataSource = dataSource;
+    this.sqlQueries = sqlQueries;
+    this.connections = connections;
+    this.markdownRenders = markdownRenders;
+  }
+
+  public void run(Handler<AsyncResult<Void>> handler) {
+    vertx.<Void>executeBlocking(promise -> {
+      long start = System.currentTimeMillis();
+      int prepared = prepareStatements();
+      renderMarkdown();
+      log.info("Warm-up done in {} ms: {} statements prepared, {} pages rendered", System.currentTimeMillis() - start,
+        prepared, markdownRenders);
+      promise.complete();
+    }, false, done -> {
+      if (done.failed()) {
+        log.warn("Warm-up cut short", done.cause());
+      }
+      handler.handle(Future.succeededFuture());
+    });
+  }
+
+  private int prepareStatements() {
+    List<Connection> opened = new ArrayList<>();
+    int prepared = 0;
+    try {
+      // held together, so that each is a different pool connection
+      for (int i = 0; i < connections; i++) {
+        opened.add(dataSource.getConnection());
+      }
+      for (Connection connection : opened) {
+        for (Map.Entry<SqlQuery, String> query : sqlQueries.entrySet()) {
+          try {
+            connection.prepareStatement(query.getValue()).close();
+            prepared++;
+          } catch (SQLException e) {
+            // e.g. a migration whose column already exists
+            log.debug("Could not prepare {}: {}", query.getKey(), e.getMessage());
+          }
+        }
+      }
+    } catch (SQLException e) {
+      log.warn("Warm-up opened {} of {} connections: {}", opened.size(), connections, e.getMessage());
+    } finally {
+      for (Connection connection : opened) {
+        try {
+          connection.close();
+        } catch (SQLException e) {
+          log.warn("Could not return a warm-up connection", e);
+        }
+      }
+    }
+    return prepared;
+  }
+
+  private void renderMarkdown() {
+    // a renderer of its own, so that the sample does not take room in the page cache
+    MarkdownBlockRenderer renderer = new MarkdownBlockRenderer(1024 * 1024);
+    StringBuilder sample = new StringBuilder();
+    for (int i = 0; i < SAMPLE_SECTIONS; i++) {
+      sample.append("## Section ").append(i).append("\n\n")
+        .append("Some *emphasized* and **strong** text with a [link](http://example.com/").append(i)
+        .append(") and `code`.\n\n")
+        .append("* first item\n* second item\n\n")
+        .append("> quoted\n\n")
+        .append("    int answer = ").append(i).append(";\n\n");
+    }
+    String markdown = sample.toString();
+    for (int i = 0; i < markdownRenders; i++) {
+      renderer.render(markdown.replace("## Section " + i % SAMPLE_SECTIONS + "\n", "## Section " + i + " edited\n"));
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package io.vertx.starter.database;
+
+import com.github.rjeschke.txtmark.Processor;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.jdbc.JDBCClient;
+import io.vertx.starter.database.enums.SqlQuery;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Renders the Markdown of pages stored before the Html column existed.
+ * Works through them in small batches so that it never holds the pool or the event loop for long,
+ * and stops once no page without HTML is left.
+ */
+public class HtmlBackfillJob {
+  private static final Logger log = LogManager.getLogger(HtmlBackfillJob.class);
+  private static final int BATCH_SIZE = 100;
+
+  private final Vertx vertx;
+  private final JDBCClient dbClient;
+  private final Map<SqlQuery, String> sqlQueries;
+  private int backfilled;
+
+  public HtmlBackfillJob(Vertx vertx, JDBCClient dbClient, Map<SqlQuery, String> sqlQueries) {
+    this.vertx = vertx;
+    this.dbClient = dbClient;
+    this.sqlQueries = sqlQueries;
+  }
+
+  public void start() {
+    nextBatch();
+  }
+
+  private void nextBatch() {
+    dbClient.queryWithParams(sqlQueries.get(SqlQuery.PAGES_WITHOUT_HTML), new JsonArray().add(BATCH_SIZE), res -> {
+      if (res.failed()) {
+        log.error("HTML backfill stopped", res.cause());
+        return;
+      }
+      List<JsonArray> rows = res.result().getResults();
+      if (rows.isEmpty()) {
+        if (backfilled > 0) {
+          log.info("HTML backfill finished, {} pages rendered", backfilled);
+        }
+        return;
+      }
+
+      vertx.<List<JsonArray>>executeBlocking(promise -> promise.complete(rows.stream()
+        .map(row -> new JsonArray()
+          .add(Processor.process(row.getString(1) == null ? "" : row.getString(1)))
+          .add(row.getInteger(0)))
+        .collect(Collectors.toList())), false, rendered -> {
+        if (rendered.failed()) {
+          log.error("HTML backfill stopped", rendered.cause());
+          return;
+        }
+        updateNext(rendered.result(), 0);
+      });
+    });
+  }
+
+  private void updateNext(List<JsonArray> updates, int index) {
+    if (index == updates.size()) {
+      nextBatch();
+      return;
+    }
+    dbClient.updateWithParams(sqlQueries.get(SqlQuery.BACKFILL_PAGE_HTML), updates.get(index), res -> {
+      if (res.failed()) {
+        log.error("HTML backfill stopped", res.cause());
+        return;
+      }
+      backfilled += res.result().getUpdated();
+      updateNext(updates, index + 1);
+    });
+  }
+}
@@ -0,0 +1,274 @@
+package io.vertx.starter.database;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Line-based diff of page revisions, using Myers' O(ND) algorithm on the lines left once the common prefix and suffix
+ * are cut off, so its cost follows the size of the edit rather than of the page.
+ *
+ * A delta is a string of operations applied in order to the lines of the base text: {@code =n} copies the next n lines,
+ * {@code -n} skips them and {@code +n} inserts the n characters that follow, each operation header ending with a
+ * newline. Lines keep their line terminators, so applying a delta rebuilds the text exactly.
+ */
+public final class LineDiff {
+  /**
+   * Edits beyond which the texts are treated as unrelated, as the trace kept by the algorithm grows with their square.
+   */
+  private static final int MAX_EDITS = 1000;
+  private static final byte EQUAL = 0;
+  private static final byte DELETE = 1;
+  private static final byte INSERT = 2;
+
+  private LineDiff() {
+  }
+
+  /**
+   * The delta turning {@code from} into {@code to}.
+   */
+  public static String delta(String from, String to) {
+    List<String> a = lines(from);
+    List<String> b = lines(to);
+    byte[] script = script(a, b);
+    StringBuilder delta = new StringBuilder();
+    int ia = 0;
+    int ib = 0;
+    for (int i = 0; i < script.length; ) {
+      byte op = script[i];
+      int run = 1;
+      while (i + run < script.length && script[i + run] == op) {
+        run++;
+      }
+      i += run;
+      if (op == EQUAL) {
+        delta.append('=').append(run).append('\n');
+        ia += run;
+        ib += run;
+      } else if (op == DELETE) {
+        delta.append('-').append(run).append('\n');
+        ia += run;
+      } else {
+        int length = 0;
+        for (int j = 0; j < run; j++) {
+          length += b.get(ib + j).length();
+        }
+        delta.append('+').append(length).append('\n');
+        for (int j = 0; j < run; j++) {
+          delta.append(b.get(ib + j));
+        }
+        ib += run;
+      }
+    }
+    return delta.toString();
+  }
+
+  /**
+   * Rebuilds the text that {@code delta} was computed for from its {@code base}.
+   *
+   * @throws IllegalArgumentException when the delta does not apply to the base
+   */
+  public static String apply(String base, String delta) {
+    List<String> lines = lines(base);
+    StringBuilder text = new StringBuilder(base.length() + delta.length());
+    int line = 0;
+    int pos = 0;
+    while (pos < delta.length()) {
+      char op = delta.charAt(pos);
+      int end = delta.indexOf('\n', pos);
+      if (end < 0) {
+        throw new IllegalArgumentException("Truncated delta at " + pos);
+      }
+      int count;
+      try {
+        count = Integer.parseInt(delta.substring(pos + 1, end));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Corrupt delta at " + pos);
+      }
+      pos = end + 1;
+      if (op == '+') {
+        if (pos + count > delta.length()) {
+          throw new IllegalArgumentException("Truncated delta at " + pos);
+        }
+        text.append(delta, pos, pos + count);
+        pos += count;
+      } else if (op == '=' || op == '-') {
+        if (line + count > lines.size()) {
+          throw new IllegalArgumentException("Delta goes past the end of its base");
+        }
+        if (op == '=') {
+          for (int i = line; i < line + count; i++) {
+            text.append(lines.get(i));
+          }
+        }
+        line += count;
+      } else {
+        throw new IllegalArgumentException("Corrupt delta at " + pos);
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * The changes between two texts, one entry per group of adjacent changed lines: the {@code line} of {@code from}
+   * where it starts (from 1) with the {@code removed} and {@code added} lines.
+   */
+  public static JsonArray changes(String from, String to) {
+    List<String> a = lines(from);
+    List<String> b = lines(to);
+    byte[] script = script(a, b);
+    JsonArray changes = new JsonArray();
+    JsonObject change = null;
+    int ia = 0;
+    int ib = 0;
+    for (byte op : script) {
+      if (op == EQUAL) {
+        change = null;
+        ia++;
+        ib++;
+        continue;
+      }
+      if (change == null) {
+        change = new JsonObject().put("line", ia + 1).put("removed", new JsonArray()).put("added", new JsonArray());
+        changes.add(change);
+      }
+      if (op == DELETE) {
+        change.getJsonArray("removed").add(withoutTerminator(a.get(ia++)));
+      } else {
+        change.getJsonArray("added").add(withoutTerminator(b.get(ib++)));
+      }
+    }
+    return changes;
+  }
+
+  /**
+   * The lines of {@code text}, each with its terminator; only the last one may have none.
+   */
+  static List<String> lines(String text) {
+    List<String> lines = new ArrayList<>();
+    int start = 0;
+    while (start < text.length()) {
+      int end = text.indexOf('\n', start);
+      end = end < 0 ? text.length() : end + 1;
+      lines.add(text.substring(start, end));
+      start = end;
+    }
+    return lines;
+  }
+
+  /**
+   * One operation per line: {@link #EQUAL} and {@link #DELETE} consume a line of {@code a}, {@link #EQUAL} and
+   * {@link #INSERT} a line of {@code b}.
+   */
+  private static byte[] script(List<String> a, List<String> b) {
+    // compared as ints, equal lines sharing an id
+    Map<String, Integer> ids = new HashMap<>();
+    int[] x = new int[a.size()];
+    int[] y = new int[b.size()];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = ids.computeIfAbsent(a.get(i), line -> ids.size());
+    }
+    for (int i = 0; i < y.length; i++) {
+      y[i] = ids.computeIfAbsent(b.get(i), line -> ids.size());
+    }
+
+    int prefix = 0;
+    while (prefix < x.length && prefix < y.length && x[prefix] == y[prefix]) {
+      prefix++;
+    }
+    int suffix = 0;
+    while (suffix < x.length - prefix && suffix < y.length - prefix
+      && x[x.length - 1 - suffix] == y[y.length - 1 - suffix]) {
+      suffix++;
+    }
+    int n = x.length - prefix - suffix;
+    int m = y.length - prefix - suffix;
+    byte[] middle = myers(Arrays.copyOfRange(x, prefix, prefix + n), Arrays.copyOfRange(y, prefix, prefix + m));
+    if (middle == null) {
+      middle = new byte[n + m];
+      Arrays.fill(middle, 0, n, DELETE);
+      Arrays.fill(middle, n, n + m, INSERT);
+    }
+
+    byte[] script = new byte[prefix + middle.length + suffix];
+    System.arraycopy(middle, 0, script, prefix, middle.length);
+    return script;
+  }
+
+  /**
+   * The shortest edit script from {@code a} to {@code b}, {@code null} when it takes more than {@link #MAX_EDITS}.
+   */
+  private static byte[] myers(int[] a, int[] b) {
+    int n = a.length;
+    int m = b.length;
+    int max = Math.min(n + m, MAX_EDITS);
+    int offset = max + 1;
+    int[] v = new int[2 * max + 3];
+    // v after each round, kept to walk the path back: trace[d][k + d] is the furthest x on diagonal k after d edits
+    List<int[]> trace = new ArrayList<>();
+    for (int d = 0; d <= max; d++) {
+      for (int k = -d; k <= d; k += 2) {
+        int i = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]) ? v[offset + k + 1] : v[offset + k - 1] + 1;
+        int j = i - k;
+        while (i < n && j < m && a[i] == b[j]) {
+          i++;
+          j++;
+        }
+        v[offset + k] = i;
+        if (i >= n && j >= m) {
+          return backtrack(trace, d, n, m);
+        }
+      }
+      trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+    }
+    return null;
+  }
+
+  private static byte[] backtrack(List<int[]> trace, int edits, int n, int m) {
+    // filled from the end, as the path is walked back
+    byte[] script = new byte[n + m];
+    int pos = script.length;
+    int x = n;
+    int y = m;
+    for (int d = edits; d > 0; d--) {
+      int[] previous = trace.get(d - 1);
+      int k = x - y;
+      int previousK = k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1]) ? k + 1 : k - 1;
+      int previousX = previous[previousK + d - 1];
+      int previousY = previousX - previousK;
+      while (x > previousX && y > previousY) {
+        script[--pos] = EQUAL;
+        x--;
+        y--;
+      }
+      if (x == previousX) {
+        script[--pos] = INSERT;
+        y--;
+      } else {
+        script[--pos] = DELETE;
+        x--;
+      }
+    }
+    while (x > 0) {
+      script[--pos] = EQUAL;
+      x--;
+    }
+    return Arrays.copyOfRange(script, pos, script.length);
+  }
+
+  private static String withoutTerminator(String line) {
+    int end = line.length();
+    if (end > 0 && line.charAt(end - 1) == '\n') {
+      end--;
+      if (end > 0 && line.charAt(end - 1) == '\r') {
+        end--;
+      }
+    }
+    return line.substring(0, end);
+  }
+}
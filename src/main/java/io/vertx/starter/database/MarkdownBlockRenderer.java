@@ -0,0 +1,223 @@
+package io.vertx.starter.database;
+
+import com.github.rjeschke.txtmark.Processor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders Markdown one top-level block at a time, keeping the HTML of each block in a bounded LRU cache keyed by a hash
+ * of its source. Saving a page after an edit only renders the blocks that changed, the others being stitched back from
+ * the cache, so the cost of a save follows the size of the edit rather than of the page.
+ *
+ * A page is split where txtmark renders the two sides independently: before a line starting a paragraph, heading or
+ * rule after a blank line. Lines indented or starting a list item or a quote may continue the previous block and never
+ * start one. HTML blocks may hold blank lines, so the page is not split after the first line starting with a tag.
+ * Link references apply to the whole page: they are appended to every block before rendering, and are part of its key.
+ *
+ * Thread safe: the database service renders on worker threads.
+ */
+public class MarkdownBlockRenderer {
+  /**
+   * Pages shorter than this are rendered in one go, splitting them would not pay off.
+   */
+  private static final int MIN_SPLIT_LENGTH = 4096;
+  private static final int ENTRY_OVERHEAD = 96;
+  private static final Pattern REFERENCE = Pattern.compile(" {0,3}\\[[^\\]]+\\]:\\s*\\S");
+  private static final Pattern REFERENCE_WITH_TITLE = Pattern.compile(" {0,3}\\[[^\\]]+\\]:\\s*\\S+\\s+[\"'(]");
+
+  private final long maxBytes;
+  private final LinkedHashMap<ByteBuffer, String> blocks = new LinkedHashMap<>(256, 0.75f, true);
+  private long currentBytes;
+
+  public MarkdownBlockRenderer(long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * The same HTML as {@link Processor#process(String)}.
+   */
+  public String render(String markdown) {
+    if (markdown.length() < MIN_SPLIT_LENGTH || maxBytes <= 0) {
+      return Processor.process(markdown);
+    }
+    List<String> content = new ArrayList<>();
+    String references = references(LineDiff.lines(markdown), content);
+    MessageDigest digest = digest();
+    byte[] referencesHash = digest.digest(references.getBytes(StandardCharsets.UTF_8));
+    StringBuilder html = new StringBuilder(markdown.length() + markdown.length() / 4);
+    for (String block : blocks(content)) {
+      digest.update(block.getBytes(StandardCharsets.UTF_8));
+      ByteBuffer key = ByteBuffer.wrap(digest.digest(referencesHash));
+      String rendered = get(key);
+      if (rendered == null) {
+        rendered = Processor.process(references.isEmpty() ? block : block + "\n\n" + references);
+        put(key, rendered);
+      }
+      html.append(rendered);
+    }
+    return html.toString();
+  }
+
+  /**
+   * The lines of the page grouped into blocks rendered independently.
+   */
+  private static List<String> blocks(List<String> lines) {
+    List<String> blocks = new ArrayList<>();
+    StringBuilder block = new StringBuilder();
+    boolean previousBlank = false;
+    boolean html = false;
+    for (String line : lines) {
+      boolean blank = line.trim().isEmpty();
+      if (!blank && previousBlank && !html && block.length() > 0 && !continues(line)) {
+        blocks.add(block.toString());
+        block.setLength(0);
+      }
+      html |= startsWithTag(line);
+      block.append(line);
+      previousBlank = blank;
+    }
+    if (block.length() > 0) {
+      blocks.add(block.toString());
+    }
+    return blocks;
+  }
+
+  /**
+   * The link reference definitions of the page with their title lines, the other lines going to {@code content}: like
+   * txtmark, blocks are read as if the definitions were not there. As in txtmark, the last definition without a title
+   * takes the next line that is not blank as its title when that line is one, even past blank lines.
+   */
+  private static String references(List<String> lines, List<String> content) {
+    StringBuilder references = new StringBuilder();
+    boolean awaitingTitle = false;
+    for (String line : lines) {
+      if (isReference(line)) {
+        references.append(line);
+        Matcher titled = REFERENCE_WITH_TITLE.matcher(line);
+        if (!titled.lookingAt() || !isTitle(line, titled.end() - 1)) {
+          awaitingTitle = true;
+        }
+        continue;
+      }
+      int leading = 0;
+      while (leading < line.length() && Character.isWhitespace(line.charAt(leading))) {
+        leading++;
+      }
+      if (awaitingTitle && leading < line.length()) {
+        awaitingTitle = false;
+        if (isTitle(line, leading)) {
+          references.append(line);
+          continue;
+        }
+      }
+      content.add(line);
+    }
+    if (references.length() > 0 && references.charAt(references.length() - 1) != '\n') {
+      references.append('\n');
+    }
+    return references.toString();
+  }
+
+  /**
+   * Whether the line may belong to the block before it after a blank line: indented, or starting a quote or a list
+   * item.
+   */
+  private static boolean continues(String line) {
+    char first = line.charAt(0);
+    if (Character.isWhitespace(first) || first == '>') {
+      return true;
+    }
+    if (first == '*' || first == '+' || first == '-') {
+      return line.length() > 1 && Character.isWhitespace(line.charAt(1));
+    }
+    int i = 0;
+    while (i < line.length() && Character.isDigit(line.charAt(i))) {
+      i++;
+    }
+    return i > 0 && i + 1 < line.length() && line.charAt(i) == '.' && Character.isWhitespace(line.charAt(i + 1));
+  }
+
+  private static boolean startsWithTag(String line) {
+    int i = 0;
+    while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+      i++;
+    }
+    if (i + 1 >= line.length() || line.charAt(i) != '<') {
+      return false;
+    }
+    char next = line.charAt(i + 1);
+    return Character.isLetter(next) || next == '!' || next == '/';
+  }
+
+  private static boolean isReference(String line) {
+    // most lines are told apart by their first characters, before the pattern
+    int i = 0;
+    while (i < 3 && i < line.length() && line.charAt(i) == ' ') {
+      i++;
+    }
+    return i < line.length() && line.charAt(i) == '[' && REFERENCE.matcher(line).lookingAt();
+  }
+
+  /**
+   * Whether a title opens at {@code start} and is closed further on the line.
+   */
+  private static boolean isTitle(String line, int start) {
+    char open = line.charAt(start);
+    if (open != '"' && open != '\'' && open != '(') {
+      return false;
+    }
+    char close = open == '(' ? ')' : open;
+    for (int i = start + 1; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == close) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static MessageDigest digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private synchronized String get(ByteBuffer key) {
+    return blocks.get(key);
+  }
+
+  private synchronized void put(ByteBuffer key, String html) {
+    long size = size(html);
+    if (size > maxBytes) {
+      return;
+    }
+    String previous = blocks.put(key, html);
+    if (previous != null) {
+      currentBytes -= size(previous);
+    }
+    currentBytes += size;
+    Iterator<Map.Entry<ByteBuffer, String>> eldest = blocks.entrySet().iterator();
+    while (currentBytes > maxBytes && eldest.hasNext()) {
+      currentBytes -= size(eldest.next().getValue());
+      eldest.remove();
+    }
+  }
+
+  private static long size(String html) {
+    return ENTRY_OVERHEAD + 2L * html.length();
+  }
+}
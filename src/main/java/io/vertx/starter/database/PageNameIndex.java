@@ -0,0 +1,111 @@
+package io.vertx.starter.database;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.jdbc.JDBCClient;
+import io.vertx.starter.database.enums.SqlQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted in-memory index of all page names, so that listings and autocomplete never hit the database.
+ * It is loaded once at start-up and then kept up to date by the database service after each committed write.
+ */
+public class PageNameIndex {
+  private static final int LOAD_BATCH_SIZE = 1000;
+
+  private final ConcurrentSkipListMap<String, Integer> idsByName = new ConcurrentSkipListMap<>();
+  private final ConcurrentHashMap<Integer, String> namesById = new ConcurrentHashMap<>();
+
+  /**
+   * Walks the Pages table in name order with the keyset query, one batch at a time.
+   */
+  public void load(JDBCClient dbClient, Map<SqlQuery, String> sqlQueries, Handler<AsyncResult<PageNameIndex>> handler) {
+    loadAfter("", dbClient, sqlQueries, handler);
+  }
+
+  private void loadAfter(String after, JDBCClient dbClient, Map<SqlQuery, String> sqlQueries, Handler<AsyncResult<PageNameIndex>> handler) {
+    JsonArray params = new JsonArray().add(after).add(LOAD_BATCH_SIZE);
+    dbClient.queryWithParams(sqlQueries.get(SqlQuery.PAGES_AFTER), params, res -> {
+      if (res.failed()) {
+        handler.handle(Future.failedFuture(res.cause()));
+        return;
+      }
+      List<JsonArray> rows = res.result().getResults();
+      rows.forEach(row -> put(row.getString(1), row.getInteger(0)));
+      if (rows.size() < LOAD_BATCH_SIZE) {
+        handler.handle(Future.succeededFuture(this));
+      } else {
+        loadAfter(rows.get(rows.size() - 1).getString(1), dbClient, sqlQueries, handler);
+      }
+    });
+  }
+
+  public void put(String name, int id) {
+    idsByName.put(name, id);
+    namesById.put(id, name);
+  }
+
+  public String remove(int id) {
+    String name = namesById.remove(id);
+    if (name != null) {
+      idsByName.remove(name);
+    }
+    return name;
+  }
+
+  public Integer idOf(String name) {
+    return idsByName.get(name);
+  }
+
+  public String nameOf(int id) {
+    return namesById.get(id);
+  }
+
+  public int size() {
+    return idsByName.size();
+  }
+
+  public JsonArray names() {
+    return new JsonArray(new ArrayList<>(idsByName.keySet()));
+  }
+
+  /**
+   * Same contract as {@code WikiDatabaseService#listPages}: pages sorted by name after the cursor,
+   * plus the {@code next} cursor when more pages follow. Names sort as {@link String#compareTo} does, which is also
+   * the order of the {@code Name > ?} queries under the column's default collation; loading and mixed listings rely
+   * on the two agreeing.
+   */
+  public JsonObject list(String after, int limit) {
+    NavigableMap<String, Integer> tail = after == null || after.isEmpty() ? idsByName : idsByName.tailMap(after, false);
+    JsonArray pages = new JsonArray();
+    String last = null;
+    for (Map.Entry<String, Integer> entry : tail.entrySet()) {
+      if (pages.size() == limit) {
+        return new JsonObject().put("pages", pages).put("next", last);
+      }
+      last = entry.getKey();
+      pages.add(new JsonObject().put("id", entry.getValue()).put("name", last));
+    }
+    return new JsonObject().put("pages", pages);
+  }
+
+  public JsonArray suggest(String prefix, int limit) {
+    JsonArray names = new JsonArray();
+    for (String name : idsByName.subMap(prefix, true, prefix + Character.MAX_VALUE, false).keySet()) {
+      if (names.size() == limit) {
+        break;
+      }
+      names.add(name);
+    }
+    return names;
+  }
+}
@@ -0,0 +1,114 @@
+package io.vertx.starter.database;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.jdbc.JDBCClient;
+import io.vertx.starter.database.enums.SqlQuery;
+import io.vertx.starter.database.models.Page;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every page with its content, held in memory for the in-memory read model.
+ * It is loaded once at start-up and then refreshed from the database after each committed write, so that versions
+ * and update times are the stored ones. Pages are handed out by reference and replaced, never modified.
+ */
+public class PageStore {
+  private static final int LOAD_BATCH_SIZE = 500;
+
+  private final JDBCClient dbClient;
+  private final Map<SqlQuery, String> sqlQueries;
+  private final ConcurrentHashMap<String, Page> pagesByName = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Integer, String> namesById = new ConcurrentHashMap<>();
+
+  public PageStore(JDBCClient dbClient, Map<SqlQuery, String> sqlQueries) {
+    this.dbClient = dbClient;
+    this.sqlQueries = sqlQueries;
+  }
+
+  /**
+   * Walks the Pages table in id order with the keyset query, one batch at a time.
+   */
+  public void load(Handler<AsyncResult<PageStore>> handler) {
+    loadAfter(-1, handler);
+  }
+
+  private void loadAfter(int afterId, Handler<AsyncResult<PageStore>> handler) {
+    JsonArray params = new JsonArray().add(afterId).add(LOAD_BATCH_SIZE);
+    dbClient.queryWithParams(sqlQueries.get(SqlQuery.PAGES_FULL_AFTER), params, res -> {
+      if (res.failed()) {
+        handler.handle(Future.failedFuture(res.cause()));
+        return;
+      }
+      List<JsonArray> rows = res.result().getResults();
+      rows.forEach(row -> put(new Page()
+        .setId(row.getInteger(0))
+        .setName(row.getString(1))
+        .setMarkdown(row.getString(2))
+        .setHtml(row.getString(3))
+        .setVersion(row.getInteger(4))
+        .setUpdated(row.getInstant(5).toEpochMilli())));
+      if (rows.size() < LOAD_BATCH_SIZE) {
+        handler.handle(Future.succeededFuture(this));
+      } else {
+        loadAfter(rows.get(rows.size() - 1).getInteger(0), handler);
+      }
+    });
+  }
+
+  /**
+   * Reloads the page from the database, or drops it when it no longer exists.
+   */
+  public void refresh(String name, Handler<AsyncResult<Void>> handler) {
+    dbClient.queryWithParams(sqlQueries.get(SqlQuery.GET_PAGE), new JsonArray().add(name), res -> {
+      if (res.failed()) {
+        handler.handle(Future.failedFuture(res.cause()));
+        return;
+      }
+      if (res.result().getNumRows() == 0) {
+        Page page = pagesByName.remove(name);
+        if (page != null) {
+          namesById.remove(page.getId(), name);
+        }
+      } else {
+        JsonArray row = res.result().getResults().get(0);
+        put(new Page()
+          .setId(row.getInteger(0))
+          .setName(name)
+          .setMarkdown(row.getString(1))
+          .setHtml(row.getString(2))
+          .setVersion(row.getInteger(3))
+          .setUpdated(row.getInstant(4).toEpochMilli()));
+      }
+      handler.handle(Future.succeededFuture());
+    });
+  }
+
+  /**
+   * Stores the page unless a later version of it is already there, as refreshes may complete out of order.
+   */
+  private void put(Page page) {
+    pagesByName.merge(page.getName(), page,
+      (current, fresh) -> fresh.getId() != current.getId() || fresh.getVersion() >= current.getVersion() ? fresh : current);
+    namesById.put(page.getId(), page.getName());
+  }
+
+  public Page get(String name) {
+    return pagesByName.get(name);
+  }
+
+  public void remove(int id) {
+    String name = namesById.remove(id);
+    if (name != null) {
+      pagesByName.computeIfPresent(name, (key, page) -> page.getId() == id ? null : page);
+    }
+  }
+
+  public int size() {
+    return pagesByName.size();
+  }
+}
@@ -30,11 +30,36 @@ public class SqlLoader {
 
     sqlQueries = new HashMap<>();
     sqlQueries.put(SqlQuery.CREATE_PAGES_TABLE, queriesProps.getProperty("create-pages-table"));
+    sqlQueries.put(SqlQuery.ADD_HTML_COLUMN, queriesProps.getProperty("add-html-column"));
+    sqlQueries.put(SqlQuery.ADD_VERSION_COLUMN, queriesProps.getProperty("add-version-column"));
+    sqlQueries.put(SqlQuery.ADD_UPDATED_COLUMN, queriesProps.getProperty("add-updated-column"));
     sqlQueries.put(SqlQuery.ALL_PAGES, queriesProps.getProperty("all-pages"));
+    sqlQueries.put(SqlQuery.PAGES_AFTER, queriesProps.getProperty("pages-after"));
     sqlQueries.put(SqlQuery.GET_PAGE, queriesProps.getProperty("get-page"));
+    sqlQueries.put(SqlQuery.GET_PAGE_VERSION, queriesProps.getProperty("get-page-version"));
     sqlQueries.put(SqlQuery.CREATE_PAGE, queriesProps.getProperty("create-page"));
     sqlQueries.put(SqlQuery.SAVE_PAGE, queriesProps.getProperty("save-page"));
     sqlQueries.put(SqlQuery.DELETE_PAGE, queriesProps.getProperty("delete-page"));
+    sqlQueries.put(SqlQuery.PAGES_CONTENT_AFTER, queriesProps.getProperty("pages-content-after"));
+    sqlQueries.put(SqlQuery.PAGES_WITHOUT_HTML, queriesProps.getProperty("pages-without-html"));
+    sqlQueries.put(SqlQuery.BACKFILL_PAGE_HTML, queriesProps.getProperty("backfill-page-html"));
+    sqlQueries.put(SqlQuery.LAST_PAGE_ID, queriesProps.getProperty("last-page-id"));
+    sqlQueries.put(SqlQuery.PAGE_IDS_AFTER, queriesProps.getProperty("page-ids-after"));
+    sqlQueries.put(SqlQuery.PAGES_FULL_AFTER, queriesProps.getProperty("pages-full-after"));
+    sqlQueries.put(SqlQuery.CREATE_REVISIONS_TABLE, queriesProps.getProperty("create-revisions-table"));
+    sqlQueries.put(SqlQuery.INSERT_REVISION, queriesProps.getProperty("insert-revision"));
+    sqlQueries.put(SqlQuery.REVISION_BASE, queriesProps.getProperty("revision-base"));
+    sqlQueries.put(SqlQuery.LAST_SNAPSHOT_VERSION, queriesProps.getProperty("last-snapshot-version"));
+    sqlQueries.put(SqlQuery.PAGE_REVISIONS, queriesProps.getProperty("page-revisions"));
+    sqlQueries.put(SqlQuery.REVISION_CHAIN, queriesProps.getProperty("revision-chain"));
+    sqlQueries.put(SqlQuery.DELETE_PAGE_REVISIONS, queriesProps.getProperty("delete-page-revisions"));
+    sqlQueries.put(SqlQuery.PAGE_MARKDOWN_CHUNK, queriesProps.getProperty("page-markdown-chunk"));
+    sqlQueries.put(SqlQuery.PAGE_HTML_CHUNK, queriesProps.getProperty("page-html-chunk"));
+    sqlQueries.put(SqlQuery.GET_PAGE_MARKDOWN, queriesProps.getProperty("get-page-markdown"));
+    sqlQueries.put(SqlQuery.GET_PAGE_HTML, queriesProps.getProperty("get-page-html"));
+    sqlQueries.put(SqlQuery.GET_PAGE_CONTENT, queriesProps.getProperty("get-page-content"));
+    sqlQueries.put(SqlQuery.GET_PAGE_CONTENT_UP_TO, queriesProps.getProperty("get-page-content-up-to"));
+    sqlQueries.put(SqlQuery.PAGES_METADATA_AFTER, queriesProps.getProperty("pages-metadata-after"));
 
     return sqlQueries;
   }
@@ -2,9 +2,34 @@ package io.vertx.starter.database.enums;
 
 public enum SqlQuery {
     CREATE_PAGES_TABLE,
+    ADD_HTML_COLUMN,
+    ADD_VERSION_COLUMN,
+    ADD_UPDATED_COLUMN,
     ALL_PAGES,
+    PAGES_AFTER,
     GET_PAGE,
+    GET_PAGE_VERSION,
     CREATE_PAGE,
     SAVE_PAGE,
     DELETE_PAGE,
+    PAGES_CONTENT_AFTER,
+    PAGES_WITHOUT_HTML,
+    BACKFILL_PAGE_HTML,
+    LAST_PAGE_ID,
+    PAGE_IDS_AFTER,
+    PAGES_FULL_AFTER,
+    CREATE_REVISIONS_TABLE,
+    INSERT_REVISION,
+    REVISION_BASE,
+    LAST_SNAPSHOT_VERSION,
+    PAGE_REVISIONS,
+    REVISION_CHAIN,
+    DELETE_PAGE_REVISIONS,
+    PAGE_MARKDOWN_CHUNK,
+    PAGE_HTML_CHUNK,
+    GET_PAGE_MARKDOWN,
+    GET_PAGE_HTML,
+    GET_PAGE_CONTENT,
+    GET_PAGE_CONTENT_UP_TO,
+    PAGES_METADATA_AFTER,
 }
@@ -0,0 +1,133 @@
+package io.vertx.starter.database.models;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A wiki page as exchanged with the database service. Depending on the call some fields are left out:
+ * a version lookup carries no content and a page that does not exist yet only has its name.
+ *
+ * Sent by reference to local consumers, so it must not be modified once sent.
+ */
+@DataObject
+public class Page {
+  private int id = -1;
+  private String name;
+  private String markdown;
+  private String html;
+  private int version;
+  private long updated;
+  private long size;
+  private boolean newPage;
+
+  public Page() {
+  }
+
+  public Page(JsonObject json) {
+    id = json.getInteger("id", -1);
+    name = json.getString("name");
+    markdown = json.getString("markdown");
+    html = json.getString("html");
+    version = json.getInteger("version", 0);
+    updated = json.getLong("updated", 0L);
+    size = json.getLong("size", 0L);
+    newPage = json.getBoolean("newPage", false);
+  }
+
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject()
+      .put("id", id)
+      .put("version", version)
+      .put("updated", updated)
+      .put("size", size)
+      .put("newPage", newPage);
+    if (name != null) {
+      json.put("name", name);
+    }
+    if (markdown != null) {
+      json.put("markdown", markdown);
+    }
+    if (html != null) {
+      json.put("html", html);
+    }
+    return json;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public Page setId(int id) {
+    this.id = id;
+    return this;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Page setName(String name) {
+    this.name = name;
+    return this;
+  }
+
+  public String getMarkdown() {
+    return markdown;
+  }
+
+  public Page setMarkdown(String markdown) {
+    this.markdown = markdown;
+    return this;
+  }
+
+  public String getHtml() {
+    return html;
+  }
+
+  public Page setHtml(String html) {
+    this.html = html;
+    return this;
+  }
+
+  public int getVersion() {
+    return version;
+  }
+
+  public Page setVersion(int version) {
+    this.version = version;
+    return this;
+  }
+
+  /**
+   * Last update time in epoch milliseconds.
+   */
+  public long getUpdated() {
+    return updated;
+  }
+
+  public Page setUpdated(long updated) {
+    this.updated = updated;
+    return this;
+  }
+
+  /**
+   * Length of the Markdown and HTML together in characters, only given by version lookups, which carry no content.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  public Page setSize(long size) {
+    this.size = size;
+    return this;
+  }
+
+  public boolean isNewPage() {
+    return newPage;
+  }
+
+  public Page setNewPage(boolean newPage) {
+    this.newPage = newPage;
+    return this;
+  }
+}
@@ -0,0 +1,227 @@
+package io.vertx.starter.database.services;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.serviceproxy.ServiceException;
+import io.vertx.starter.database.PageStore;
+import io.vertx.starter.database.models.Page;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static io.vertx.starter.common.Constants.PAGE_INVALIDATION_ADDRESS;
+
+/**
+ * Read model keeping every page in a {@link PageStore}: pages are fetched from memory on the event loop, and writes go
+ * through the JDBC service and complete once they are committed and the store holds the saved pages.
+ * Listings, suggestions and search already come from in-memory indexes and are left to the JDBC service, as are page
+ * revisions.
+ */
+public class InMemoryWikiDatabaseService implements WikiDatabaseService {
+  private static final Logger log = LogManager.getLogger(InMemoryWikiDatabaseService.class);
+
+  private final Vertx vertx;
+  private final WikiDatabaseService delegate;
+  private final PageStore pageStore;
+
+  public InMemoryWikiDatabaseService(Vertx vertx, WikiDatabaseService delegate, PageStore pageStore) {
+    this.vertx = vertx;
+    this.delegate = delegate;
+    this.pageStore = pageStore;
+  }
+
+  @Override
+  public void fetchAllPages(Handler<AsyncResult<JsonArray>> resultHandler) {
+    delegate.fetchAllPages(resultHandler);
+  }
+
+  @Override
+  public void listPages(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler) {
+    delegate.listPages(request, resultHandler);
+  }
+
+  @Override
+  public void suggestPages(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    delegate.suggestPages(request, resultHandler);
+  }
+
+  @Override
+  public void search(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    delegate.search(request, resultHandler);
+  }
+
+  @Override
+  public void fetchPage(String name, Handler<AsyncResult<Page>> resultHandler) {
+    Page page = pageStore.get(name);
+    resultHandler.handle(Future.succeededFuture(page != null ? page : new Page().setName(name).setNewPage(true)));
+  }
+
+  @Override
+  public void fetchPageVersion(String name, Handler<AsyncResult<Page>> resultHandler) {
+    Page page = pageStore.get(name);
+    if (page == null) {
+      resultHandler.handle(Future.succeededFuture(new Page().setName(name).setNewPage(true)));
+    } else {
+      resultHandler.handle(Future.succeededFuture(new Page()
+        .setId(page.getId())
+        .setName(name)
+        .setVersion(page.getVersion())
+        .setUpdated(page.getUpdated())
+        .setSize(length(page.getMarkdown()) + length(page.getHtml()))));
+    }
+  }
+
+  @Override
+  public void fetchPageFields(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler) {
+    String name = request.getString("name");
+    Page page = pageStore.get(name);
+    if (page == null) {
+      resultHandler.handle(Future.failedFuture(new ServiceException(404, "No page named " + name)));
+      return;
+    }
+    Set<String> fields = PageFields.requested(request, PageFields.PAGE);
+    long size = length(page.getMarkdown()) + length(page.getHtml());
+    JsonObject json = PageFields.metadata(fields, page.getId(), name, page.getVersion(), page.getUpdated(), size);
+    if (size > request.getLong("maxSize", Long.MAX_VALUE)) {
+      resultHandler.handle(Future.succeededFuture(json));
+      return;
+    }
+    if (fields.contains(PageFields.HTML) && page.getHtml() == null) {
+      // not rendered yet, which the JDBC service does
+      delegate.fetchPageFields(request, resultHandler);
+      return;
+    }
+    if (fields.contains(PageFields.MARKDOWN)) {
+      json.put(PageFields.MARKDOWN, page.getMarkdown());
+    }
+    if (fields.contains(PageFields.HTML)) {
+      json.put(PageFields.HTML, page.getHtml());
+    }
+    resultHandler.handle(Future.succeededFuture(json));
+  }
+
+  @Override
+  public void fetchPageChunk(JsonObject request, Handler<AsyncResult<String>> resultHandler) {
+    Page page = pageStore.get(request.getString("name"));
+    if (page == null || page.getId() != request.getInteger("id", -1) || page.getVersion() != request.getInteger("version", -1)) {
+      resultHandler.handle(Future.failedFuture(new ServiceException(404, "No version " + request.getInteger("version")
+        + " of page " + request.getString("name"))));
+      return;
+    }
+    String content = "html".equals(request.getString("part")) ? page.getHtml() : page.getMarkdown();
+    if (content == null) {
+      resultHandler.handle(Future.succeededFuture());
+      return;
+    }
+    int offset = Math.min(Math.max(0, request.getInteger("offset", 0)), content.length());
+    int length = Math.max(1, request.getInteger("length", content.length()));
+    resultHandler.handle(Future.succeededFuture(content.substring(offset, (int) Math.min((long) offset + length, content.length()))));
+  }
+
+  @Override
+  public void savePage(Page page, Handler<AsyncResult<Page>> resultHandler) {
+    delegate.savePage(page, res -> {
+      if (res.failed()) {
+        resultHandler.handle(res);
+        return;
+      }
+      refresh(res.result().getName()).setHandler(refreshed -> resultHandler.handle(res));
+    });
+  }
+
+  @Override
+  public void deletePage(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    delegate.deletePage(request, res -> {
+      if (res.succeeded()) {
+        pageStore.remove(Integer.parseInt(request.getString("id")));
+      }
+      resultHandler.handle(res);
+    });
+  }
+
+  @Override
+  public void savePages(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    delegate.savePages(request, res -> {
+      if (res.failed()) {
+        resultHandler.handle(res);
+        return;
+      }
+      List<Future<Void>> refreshes = new ArrayList<>();
+      for (int i = 0; i < res.result().size(); i++) {
+        JsonObject result = res.result().getJsonObject(i);
+        if (result.containsKey("status")) {
+          refreshes.add(refresh(result.getString("title")));
+        }
+      }
+      // CompositeFuture only takes a raw list in Vert.x 3.8
+      @SuppressWarnings("rawtypes")
+      List<Future> joined = new ArrayList<>(refreshes);
+      CompositeFuture.join(joined).setHandler(refreshed -> resultHandler.handle(res));
+    });
+  }
+
+  @Override
+  public void deletePages(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    delegate.deletePages(request, res -> {
+      if (res.succeeded()) {
+        for (int i = 0; i < res.result().size(); i++) {
+          JsonObject result = res.result().getJsonObject(i);
+          if ("deleted".equals(result.getString("status"))) {
+            pageStore.remove(result.getInteger("id"));
+          }
+        }
+      }
+      resultHandler.handle(res);
+    });
+  }
+
+  @Override
+  public void fetchPageHistory(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler) {
+    delegate.fetchPageHistory(request, resultHandler);
+  }
+
+  @Override
+  public void fetchPageRevision(JsonObject request, Handler<AsyncResult<Page>> resultHandler) {
+    delegate.fetchPageRevision(request, resultHandler);
+  }
+
+  @Override
+  public void diffPageRevisions(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler) {
+    delegate.diffPageRevisions(request, resultHandler);
+  }
+
+  private static int length(String content) {
+    return content == null ? 0 : content.length();
+  }
+
+  /**
+   * Reloads a saved page. The JDBC service already published the invalidation at commit time, and an HTTP verticle
+   * may have fetched the previous version from the store since, so it is published again once the store is current.
+   * A failed refresh leaves the previous version in the store; the write itself is committed and still reported.
+   */
+  private Future<Void> refresh(String name) {
+    Promise<Void> promise = Promise.promise();
+    pageStore.refresh(name, ar -> {
+      if (ar.failed()) {
+        log.error("Could not reload page {} into the in-memory store", name, ar.cause());
+      }
+      Page page = pageStore.get(name);
+      JsonObject invalidation = new JsonObject().put("page", name);
+      if (page != null) {
+        invalidation.put("id", page.getId());
+      }
+      vertx.eventBus().publish(PAGE_INVALIDATION_ADDRESS, invalidation);
+      promise.handle(ar);
+    });
+    return promise.future();
+  }
+}
@@ -0,0 +1,103 @@
+package io.vertx.starter.database.services;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.starter.database.models.Page;
+import io.vertx.starter.metrics.WikiMetrics;
+
+/**
+ * Times the calls made through a {@link WikiDatabaseService} proxy, from the request being sent to the reply being
+ * handled, so that the event bus round trip shows next to the query timings of the service itself.
+ */
+public class MeteredWikiDatabaseService implements WikiDatabaseService {
+  private final WikiDatabaseService delegate;
+
+  public MeteredWikiDatabaseService(WikiDatabaseService delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void fetchAllPages(Handler<AsyncResult<JsonArray>> resultHandler) {
+    delegate.fetchAllPages(timed("fetchAllPages", resultHandler));
+  }
+
+  @Override
+  public void listPages(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler) {
+    delegate.listPages(request, timed("listPages", resultHandler));
+  }
+
+  @Override
+  public void suggestPages(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    delegate.suggestPages(request, timed("suggestPages", resultHandler));
+  }
+
+  @Override
+  public void search(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    delegate.search(request, timed("search", resultHandler));
+  }
+
+  @Override
+  public void fetchPage(String name, Handler<AsyncResult<Page>> resultHandler) {
+    delegate.fetchPage(name, timed("fetchPage", resultHandler));
+  }
+
+  @Override
+  public void fetchPageVersion(String name, Handler<AsyncResult<Page>> resultHandler) {
+    delegate.fetchPageVersion(name, timed("fetchPageVersion", resultHandler));
+  }
+
+  @Override
+  public void fetchPageFields(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler) {
+    delegate.fetchPageFields(request, timed("fetchPageFields", resultHandler));
+  }
+
+  @Override
+  public void fetchPageChunk(JsonObject request, Handler<AsyncResult<String>> resultHandler) {
+    delegate.fetchPageChunk(request, timed("fetchPageChunk", resultHandler));
+  }
+
+  @Override
+  public void savePage(Page page, Handler<AsyncResult<Page>> resultHandler) {
+    delegate.savePage(page, timed("savePage", resultHandler));
+  }
+
+  @Override
+  public void deletePage(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    delegate.deletePage(request, timed("deletePage", resultHandler));
+  }
+
+  @Override
+  public void savePages(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    delegate.savePages(request, timed("savePages", resultHandler));
+  }
+
+  @Override
+  public void deletePages(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    delegate.deletePages(request, timed("deletePages", resultHandler));
+  }
+
+  @Override
+  public void fetchPageHistory(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler) {
+    delegate.fetchPageHistory(request, timed("fetchPageHistory", resultHandler));
+  }
+
+  @Override
+  public void fetchPageRevision(JsonObject request, Handler<AsyncResult<Page>> resultHandler) {
+    delegate.fetchPageRevision(request, timed("fetchPageRevision", resultHandler));
+  }
+
+  @Override
+  public void diffPageRevisions(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler) {
+    delegate.diffPageRevisions(request, timed("diffPageRevisions", resultHandler));
+  }
+
+  private static <T> Handler<AsyncResult<T>> timed(String method, Handler<AsyncResult<T>> resultHandler) {
+    long start = System.nanoTime();
+    return res -> {
+      WikiMetrics.recordServiceCall(method, res.succeeded(), start);
+      resultHandler.handle(res);
+    };
+  }
+}
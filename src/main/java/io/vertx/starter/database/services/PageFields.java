@@ -0,0 +1,77 @@
+package io.vertx.starter.database.services;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fields of the pages returned by {@link WikiDatabaseService#fetchPageFields} and {@link WikiDatabaseService#listPages},
+ * asked for as a {@code fields} array in the request.
+ */
+public final class PageFields {
+  public static final String ID = "id";
+  public static final String NAME = "name";
+  public static final String VERSION = "version";
+  public static final String UPDATED = "updated";
+  public static final String SIZE = "size";
+  public static final String MARKDOWN = "markdown";
+  public static final String HTML = "html";
+
+  /**
+   * Fields of a page.
+   */
+  public static final List<String> PAGE = Collections.unmodifiableList(Arrays.asList(ID, NAME, VERSION, UPDATED, SIZE,
+    MARKDOWN, HTML));
+  /**
+   * Fields of a page in a listing, which leaves out the content.
+   */
+  public static final List<String> LISTING = Collections.unmodifiableList(Arrays.asList(ID, NAME, VERSION, UPDATED, SIZE));
+  /**
+   * Fields of a page in a listing when none are asked for, known without reading the pages.
+   */
+  public static final List<String> INDEXED = Collections.unmodifiableList(Arrays.asList(ID, NAME));
+
+  private PageFields() {
+  }
+
+  /**
+   * The {@code fields} of the request, {@code defaults} when it has none.
+   */
+  static Set<String> requested(JsonObject request, List<String> defaults) {
+    JsonArray fields = request.getJsonArray("fields");
+    if (fields == null || fields.isEmpty()) {
+      return new HashSet<>(defaults);
+    }
+    Set<String> requested = new HashSet<>();
+    fields.forEach(field -> requested.add(String.valueOf(field)));
+    return requested;
+  }
+
+  /**
+   * The page with the metadata fields asked for.
+   */
+  static JsonObject metadata(Set<String> fields, int id, String name, int version, long updated, long size) {
+    JsonObject page = new JsonObject();
+    if (fields.contains(ID)) {
+      page.put(ID, id);
+    }
+    if (fields.contains(NAME)) {
+      page.put(NAME, name);
+    }
+    if (fields.contains(VERSION)) {
+      page.put(VERSION, version);
+    }
+    if (fields.contains(UPDATED)) {
+      page.put(UPDATED, updated);
+    }
+    if (fields.contains(SIZE)) {
+      page.put(SIZE, size);
+    }
+    return page;
+  }
+}
@@ -0,0 +1,99 @@
+package io.vertx.starter.database.services;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.starter.database.models.Page;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Collects updates of existing pages for a short window and hands them to the writer as one group, to be committed
+ * together. A page saved several times within the window is written once, with its latest content, and every caller
+ * is answered once the group holding its save is committed.
+ *
+ * One group is written at a time: saves arriving meanwhile wait, and are written when the current one completes.
+ * A group never holds more than {@code maxGroupSize} pages: it is written right away once it has that many, and the
+ * saves that piled up behind a group in flight are written that many at a time. Only used from the database service's
+ * event loop.
+ */
+class PageSaveCoalescer {
+  private final Vertx vertx;
+  private final long windowMillis;
+  private final int maxGroupSize;
+  private final BiConsumer<List<Page>, Handler<AsyncResult<Void>>> writer;
+  private Map<Integer, PendingSave> pending = new LinkedHashMap<>();
+  private boolean writing;
+  private long timerId = -1;
+
+  PageSaveCoalescer(Vertx vertx, long windowMillis, int maxGroupSize, BiConsumer<List<Page>, Handler<AsyncResult<Void>>> writer) {
+    this.vertx = vertx;
+    this.windowMillis = windowMillis;
+    this.maxGroupSize = maxGroupSize;
+    this.writer = writer;
+  }
+
+  void save(Page page, Handler<AsyncResult<Page>> handler) {
+    PendingSave save = pending.computeIfAbsent(page.getId(), id -> new PendingSave());
+    save.page = page;
+    save.handlers.add(handler);
+    if (pending.size() >= maxGroupSize) {
+      write();
+    } else if (timerId < 0) {
+      timerId = vertx.setTimer(windowMillis, id -> {
+        timerId = -1;
+        write();
+      });
+    }
+  }
+
+  private void write() {
+    if (writing || pending.isEmpty()) {
+      // written when the group in flight completes
+      return;
+    }
+    if (timerId >= 0) {
+      vertx.cancelTimer(timerId);
+      timerId = -1;
+    }
+    Map<Integer, PendingSave> group;
+    if (pending.size() <= maxGroupSize) {
+      group = pending;
+      pending = new LinkedHashMap<>();
+    } else {
+      // the oldest saves first, the others stay pending for the next group
+      group = new LinkedHashMap<>();
+      Iterator<Map.Entry<Integer, PendingSave>> saves = pending.entrySet().iterator();
+      while (group.size() < maxGroupSize) {
+        Map.Entry<Integer, PendingSave> save = saves.next();
+        group.put(save.getKey(), save.getValue());
+        saves.remove();
+      }
+    }
+    writing = true;
+    List<Page> pages = new ArrayList<>(group.size());
+    group.values().forEach(save -> pages.add(save.page));
+
+    writer.accept(pages, written -> {
+      writing = false;
+      for (PendingSave save : group.values()) {
+        AsyncResult<Page> result = written.succeeded()
+          ? Future.succeededFuture(new Page().setId(save.page.getId()).setName(save.page.getName()))
+          : Future.failedFuture(written.cause());
+        save.handlers.forEach(handler -> handler.handle(result));
+      }
+      write();
+    });
+  }
+
+  private static class PendingSave {
+    private final List<Handler<AsyncResult<Page>>> handlers = new ArrayList<>();
+    private Page page;
+  }
+}
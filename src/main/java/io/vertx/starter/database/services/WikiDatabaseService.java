@@ -9,28 +9,117 @@ import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.jdbc.JDBCClient;
-import io.vertx.starter.database.enums.SqlQuery;
+import io.vertx.starter.database.models.Page;
 
 import java.util.Map;
 
 @ProxyGen
 @VertxGen
 public interface WikiDatabaseService {
+  /**
+   * The JDBC service, built from the {@code options}; {@code readyHandler} is called once its tables are ready.
+   */
   @GenIgnore
-  static WikiDatabaseService create(JDBCClient dbClient, Map<SqlQuery, String> sqlQueries, Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
-    return new WikiDatabaseServiceImpl(dbClient, sqlQueries, readyHandler);
+  static WikiDatabaseService create(Vertx vertx, JDBCClient dbClient, WikiDatabaseServiceOptions options,
+                                    Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
+    return new WikiDatabaseServiceImpl(vertx, dbClient, options, readyHandler);
   }
 
   @GenIgnore
   static WikiDatabaseService createProxy(Vertx vertx, String address) {
-    return new WikiDatabaseServiceVertxEBProxy(vertx, address);
+    return new WikiDatabaseServicePageProxy(vertx, address);
   }
 
   void fetchAllPages(Handler<AsyncResult<JsonArray>> resultHandler);
 
-  void fetchPage(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler);
+  /**
+   * Lists pages sorted by name, starting after the {@code after} cursor and returning at most {@code limit} pages.
+   * The response holds the {@code pages} and, when more pages follow, the {@code next} cursor.
+   * Each page holds the {@code fields} asked for among {@code id}, {@code name}, {@code version}, {@code updated} and
+   * {@code size}, its {@code id} and {@code name} when none are.
+   * Listings of {@code id} and {@code name} alone come from the page name index and others from the database, so a
+   * cursor from one is only good for the other because both sort names by UTF-16 code unit: {@link String#compareTo}
+   * for the index, the default collation of the {@code Name} column for the database.
+   */
+  void listPages(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler);
 
-  void savePage(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler);
+  /**
+   * Page names starting with {@code prefix}, at most {@code limit} of them, in name order.
+   */
+  void suggestPages(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler);
+
+  /**
+   * Full-text search over page content: at most {@code limit} pages matching {@code query}, best match first.
+   */
+  void search(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler);
+
+  /**
+   * The page with its Markdown and HTML, or a {@link Page#isNewPage() new page} when none has that name.
+   */
+  void fetchPage(String name, Handler<AsyncResult<Page>> resultHandler);
+
+  /**
+   * Id, version, last update time and size of a page, without its content. Used to answer conditional requests and
+   * to tell the pages too large to be fetched whole.
+   */
+  void fetchPageVersion(String name, Handler<AsyncResult<Page>> resultHandler);
+
+  /**
+   * The page {@code name} with the {@code fields} asked for among {@code id}, {@code name}, {@code version},
+   * {@code updated}, {@code size}, {@code markdown} and {@code html}, all of them when none are. Content not asked for
+   * is not read, and the HTML of a page stored without it is rendered only when asked for. With a {@code maxSize}, the
+   * content of a page larger than that is left out, so that one call loads a page or tells it is too large to load.
+   * Fails with a 404 {@link io.vertx.serviceproxy.ServiceException} when there is no such page.
+   */
+  void fetchPageFields(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler);
+
+  /**
+   * Up to {@code length} characters of the {@code markdown} or {@code html} of page {@code id} from {@code offset},
+   * an empty string past the end and {@code null} when the page has no such content. The {@code version} of the
+   * page and its {@code name} must be given too: the call fails with a 404 {@link io.vertx.serviceproxy.ServiceException}
+   * once the page is at another version, so that the chunks of a page always come from the same version.
+   */
+  void fetchPageChunk(JsonObject request, Handler<AsyncResult<String>> resultHandler);
+
+  /**
+   * Creates the page when it is a new page and updates the page with its id otherwise.
+   * The result holds the id and name of the saved page.
+   */
+  void savePage(Page page, Handler<AsyncResult<Page>> resultHandler);
 
   void deletePage(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler);
+
+  /**
+   * Saves the {@code pages} ({@code title}, {@code markdown}) in one transaction, creating the pages that do not exist yet.
+   * The result holds one entry per page, in request order: its {@code title} and {@code id} with the {@code status}
+   * ({@code created} or {@code updated}), or an {@code error}.
+   */
+  void savePages(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler);
+
+  /**
+   * Deletes the {@code pages}, each given by {@code id} or {@code title}, in one transaction.
+   * The result holds one entry per page, in request order, with the {@code deleted} status or an {@code error}.
+   */
+  void deletePages(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler);
+
+  /**
+   * Revisions of the page {@code name}, newest first, before the {@code before} version and at most {@code limit} of
+   * them. The response holds the {@code revisions} ({@code version}, {@code created}, whether it is a {@code snapshot}
+   * and the {@code size} it takes) and, when older revisions follow, the {@code next} cursor.
+   * Fails with a 404 {@link io.vertx.serviceproxy.ServiceException} when there is no such page.
+   */
+  void fetchPageHistory(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler);
+
+  /**
+   * The page {@code name} as it was at {@code version}, with its Markdown and the time the version was saved as its
+   * update time. Fails with a 404 {@link io.vertx.serviceproxy.ServiceException} when there is no such revision.
+   */
+  void fetchPageRevision(JsonObject request, Handler<AsyncResult<Page>> resultHandler);
+
+  /**
+   * The line changes of the page {@code name} between the {@code from} and {@code to} versions, one entry per group of
+   * adjacent changed lines with the {@code line} of {@code from} where it starts and the {@code removed} and
+   * {@code added} lines. Fails with a 404 {@link io.vertx.serviceproxy.ServiceException} when either revision is missing.
+   */
+  void diffPageRevisions(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler);
 }
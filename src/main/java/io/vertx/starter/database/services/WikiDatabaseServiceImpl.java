@@ -3,26 +3,75 @@ package io.vertx.starter.database.services;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.jdbc.JDBCClient;
 import io.vertx.ext.sql.ResultSet;
 import io.vertx.ext.sql.SQLConnection;
+import io.vertx.serviceproxy.ServiceException;
+import io.vertx.starter.database.LineDiff;
+import io.vertx.starter.database.MarkdownBlockRenderer;
+import io.vertx.starter.database.PageNameIndex;
 import io.vertx.starter.database.enums.SqlQuery;
+import io.vertx.starter.database.models.Page;
+import io.vertx.starter.metrics.WikiMetrics;
+import io.vertx.starter.search.PersistentSearchIndex;
+import io.vertx.starter.search.Tokenizer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+import static io.vertx.starter.common.Constants.PAGE_INVALIDATION_ADDRESS;
 
 public class WikiDatabaseServiceImpl implements WikiDatabaseService {
   private static final Logger log = LogManager.getLogger(WikiDatabaseService.class);
+  private static final String SQL_STATE_OBJECT_EXISTS = "42504";
+  private static final List<SqlQuery> MIGRATIONS = Arrays.asList(
+    SqlQuery.ADD_HTML_COLUMN,
+    SqlQuery.ADD_VERSION_COLUMN,
+    SqlQuery.ADD_UPDATED_COLUMN,
+    SqlQuery.CREATE_REVISIONS_TABLE);
+  private static final int DEFAULT_LIST_LIMIT = 100;
+  private static final int MAX_LIST_LIMIT = 1000;
+  private static final int DEFAULT_SUGGEST_LIMIT = 10;
+  private static final int DEFAULT_SEARCH_LIMIT = 20;
+  private static final int DEFAULT_HISTORY_LIMIT = 50;
+  private static final int DEFAULT_CHUNK_LENGTH = 64 * 1024;
+  private static final int MAX_CHUNK_LENGTH = 1024 * 1024;
   private final Map<SqlQuery, String> sqlQueries;
   private final JDBCClient dbClient;
+  private final Vertx vertx;
+  private final PageNameIndex pageNameIndex;
+  private final PersistentSearchIndex searchIndex;
+  private final PageSaveCoalescer saveCoalescer;
+  private final int snapshotInterval;
+  private final MarkdownBlockRenderer renderer;
 
-  WikiDatabaseServiceImpl(JDBCClient dbClient, Map<SqlQuery, String> sqlQueries, Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
+  WikiDatabaseServiceImpl(Vertx vertx, JDBCClient dbClient, WikiDatabaseServiceOptions options,
+                          Handler<AsyncResult<WikiDatabaseService>> readyHandler) {
+    this.vertx = vertx;
     this.dbClient = dbClient;
-    this.sqlQueries = sqlQueries;
+    this.sqlQueries = options.getSqlQueries();
+    this.pageNameIndex = options.getPageNameIndex();
+    this.searchIndex = options.getSearchIndex();
+    this.saveCoalescer = options.getSaveWindowMillis() > 0
+      ? new PageSaveCoalescer(vertx, options.getSaveWindowMillis(), options.getSaveGroupSize(), this::writeSaves)
+      : null;
+    this.snapshotInterval = Math.max(1, options.getSnapshotInterval());
+    this.renderer = options.getRenderer();
 
     dbClient.getConnection(ar -> {
       if (ar.failed()) {
@@ -31,53 +80,144 @@ public class WikiDatabaseServiceImpl implements WikiDatabaseService {
       } else {
         SQLConnection connection = ar.result();
         connection.execute(this.sqlQueries.get(SqlQuery.CREATE_PAGES_TABLE), create -> {
-          connection.close();
           if (create.failed()) {
+            connection.close();
             log.error("Database preparation error " + create.cause());
             readyHandler.handle(Future.failedFuture(create.cause()));
-          } else {
-            readyHandler.handle(Future.succeededFuture(this));
+            return;
           }
+          migrate(connection, 0, migrate -> {
+            connection.close();
+            if (migrate.failed()) {
+              log.error("Database migration error " + migrate.cause());
+              readyHandler.handle(Future.failedFuture(migrate.cause()));
+            } else {
+              readyHandler.handle(Future.succeededFuture(this));
+            }
+          });
         });
       }
     });
   }
 
+  /**
+   * Adds the columns and tables introduced after the Pages table was first created. A column that already exists is
+   * skipped.
+   */
+  private void migrate(SQLConnection connection, int step, Handler<AsyncResult<Void>> handler) {
+    if (step == MIGRATIONS.size()) {
+      handler.handle(Future.succeededFuture());
+      return;
+    }
+    connection.execute(sqlQueries.get(MIGRATIONS.get(step)), res -> {
+      if (res.failed() && !isAlreadyExists(res.cause())) {
+        handler.handle(Future.failedFuture(res.cause()));
+      } else {
+        migrate(connection, step + 1, handler);
+      }
+    });
+  }
+
   @Override
   public void fetchAllPages(Handler<AsyncResult<JsonArray>> resultHandler) {
-    dbClient.query(sqlQueries.get(SqlQuery.ALL_PAGES), res -> {
+    resultHandler.handle(Future.succeededFuture(pageNameIndex.names()));
+  }
+
+  @Override
+  public void listPages(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler) {
+    int limit = Math.max(1, Math.min(request.getInteger("limit", DEFAULT_LIST_LIMIT), MAX_LIST_LIMIT));
+    Set<String> fields = PageFields.requested(request, PageFields.INDEXED);
+    if (PageFields.INDEXED.containsAll(fields)) {
+      JsonObject listing = pageNameIndex.list(request.getString("after"), limit);
+      if (!fields.containsAll(PageFields.INDEXED)) {
+        listing.getJsonArray("pages").forEach(page -> ((JsonObject) page).getMap().keySet().retainAll(fields));
+      }
+      resultHandler.handle(Future.succeededFuture(listing));
+      return;
+    }
+
+    // one more row than asked for tells whether more pages follow
+    String after = request.getString("after");
+    JsonArray params = new JsonArray().add(after == null ? "" : after).add(limit + 1);
+    query(SqlQuery.PAGES_METADATA_AFTER, params, res -> {
+      if (res.failed()) {
+        resultHandler.handle(Future.failedFuture(res.cause()));
+        return;
+      }
+      List<JsonArray> rows = res.result().getResults();
+      JsonArray pages = new JsonArray();
+      for (JsonArray row : rows.subList(0, Math.min(limit, rows.size()))) {
+        pages.add(PageFields.metadata(fields, row.getInteger(0), row.getString(1), row.getInteger(2),
+          row.getInstant(3).toEpochMilli(), row.getLong(4)));
+      }
+      JsonObject listing = new JsonObject().put("pages", pages);
+      if (rows.size() > limit) {
+        listing.put("next", rows.get(limit - 1).getString(1));
+      }
+      resultHandler.handle(Future.succeededFuture(listing));
+    });
+  }
+
+  @Override
+  public void suggestPages(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    String prefix = request.getString("prefix");
+    int limit = Math.max(1, Math.min(request.getInteger("limit", DEFAULT_SUGGEST_LIMIT), MAX_LIST_LIMIT));
+    resultHandler.handle(Future.succeededFuture(prefix == null ? new JsonArray() : pageNameIndex.suggest(prefix, limit)));
+  }
+
+  @Override
+  public void search(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    String query = request.getString("query");
+    int limit = Math.max(1, Math.min(request.getInteger("limit", DEFAULT_SEARCH_LIMIT), MAX_LIST_LIMIT));
+    resultHandler.handle(Future.succeededFuture(query == null ? new JsonArray() : searchIndex.search(query, limit)));
+  }
+
+  @Override
+  public void fetchPage(String name, Handler<AsyncResult<Page>> resultHandler) {
+    JsonArray params = new JsonArray().add(name);
+
+    query(SqlQuery.GET_PAGE, params, res -> {
       if (res.succeeded()) {
-        JsonArray pages = new JsonArray(res.result()
-          .getResults()
-          .stream()
-          .map(json -> json.getString(0))
-          .sorted()
-          .collect(Collectors.toList()));
-        resultHandler.handle(Future.succeededFuture(pages));
+        ResultSet resultSet = res.result();
+        Page page = resultSet.getNumRows() == 0
+          ? new Page().setName(name).setNewPage(true)
+          : pageFromRow(name, resultSet.getResults().get(0));
+        resultHandler.handle(Future.succeededFuture(page));
       } else {
         resultHandler.handle(Future.failedFuture(res.cause()));
       }
     });
   }
 
+  /**
+   * The page read by {@link SqlQuery#GET_PAGE}: id, Markdown, HTML, version and update time.
+   */
+  public static Page pageFromRow(String name, JsonArray row) {
+    return new Page().setName(name)
+      .setId(row.getInteger(0))
+      .setMarkdown(row.getString(1))
+      .setHtml(row.getString(2))
+      .setVersion(row.getInteger(3))
+      .setUpdated(row.getInstant(4).toEpochMilli());
+  }
+
   @Override
-  public void fetchPage(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
-    String requestedPage = request.getString("page");
-    JsonArray params = new JsonArray().add(requestedPage);
+  public void fetchPageVersion(String name, Handler<AsyncResult<Page>> resultHandler) {
+    JsonArray params = new JsonArray().add(name);
 
-    dbClient.queryWithParams(sqlQueries.get(SqlQuery.GET_PAGE), params, res -> {
+    query(SqlQuery.GET_PAGE_VERSION, params, res -> {
       if (res.succeeded()) {
-        JsonObject response = new JsonObject();
-        ResultSet resultSet = res.result();
-        if (resultSet.getNumRows() == 0) {
-          response.put("newPage", true);
+        Page page = new Page().setName(name);
+        if (res.result().getNumRows() == 0) {
+          page.setNewPage(true);
         } else {
-          response.put("newPage", false);
-          JsonArray row = resultSet.getResults().get(0);
-          response.put("id", row.getInteger(0));
-          response.put("rawContent", row.getString(1));
+          JsonArray row = res.result().getResults().get(0);
+          page.setId(row.getInteger(0))
+            .setVersion(row.getInteger(1))
+            .setUpdated(row.getInstant(2).toEpochMilli())
+            .setSize(row.getLong(3));
         }
-        resultHandler.handle(Future.succeededFuture(new JsonArray().add(response)));
+        resultHandler.handle(Future.succeededFuture(page));
       } else {
         resultHandler.handle(Future.failedFuture(res.cause()));
       }
@@ -85,37 +225,696 @@ public class WikiDatabaseServiceImpl implements WikiDatabaseService {
   }
 
   @Override
-  public void savePage(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
-    boolean newPage = request.getBoolean("newPage");
-    JsonArray data = new JsonArray();
-    if (newPage) {
-      data.add(request.getString("title"));
-      data.add(request.getString("markdown"));
-    } else {
-      data.add(request.getString("markdown"));
-      data.add(request.getString("id"));
+  public void fetchPageFields(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler) {
+    String name = request.getString("name");
+    Set<String> fields = PageFields.requested(request, PageFields.PAGE);
+    boolean markdown = fields.contains(PageFields.MARKDOWN);
+    boolean html = fields.contains(PageFields.HTML);
+    Long maxSize = request.getLong("maxSize");
+    // id, version, update time and size, then the Markdown, and the HTML with the Markdown to render it from when missing
+    SqlQuery query = maxSize != null && (markdown || html) ? SqlQuery.GET_PAGE_CONTENT_UP_TO
+      : markdown && html ? SqlQuery.GET_PAGE_CONTENT
+      : markdown ? SqlQuery.GET_PAGE_MARKDOWN
+      : html ? SqlQuery.GET_PAGE_HTML
+      : SqlQuery.GET_PAGE_VERSION;
+    JsonArray params = query == SqlQuery.GET_PAGE_CONTENT_UP_TO
+      ? new JsonArray().add(maxSize).add(maxSize).add(name)
+      : new JsonArray().add(name);
+    // the queries reading both contents have the Markdown then the HTML, the others the content asked for first
+    boolean bothContents = query == SqlQuery.GET_PAGE_CONTENT || query == SqlQuery.GET_PAGE_CONTENT_UP_TO;
+
+    query(query, params, res -> {
+      if (res.failed()) {
+        resultHandler.handle(Future.failedFuture(res.cause()));
+        return;
+      }
+      if (res.result().getNumRows() == 0) {
+        resultHandler.handle(Future.failedFuture(new ServiceException(404, "No page named " + name)));
+        return;
+      }
+      JsonArray row = res.result().getResults().get(0);
+      JsonObject page = PageFields.metadata(fields, row.getInteger(0), name, row.getInteger(1),
+        row.getInstant(2).toEpochMilli(), row.getLong(3));
+      if (maxSize != null && row.getLong(3) > maxSize) {
+        resultHandler.handle(Future.succeededFuture(page));
+        return;
+      }
+      if (markdown) {
+        page.put(PageFields.MARKDOWN, row.getString(4));
+      }
+      String storedHtml = html ? row.getString(bothContents ? 5 : 4) : null;
+      if (!html || storedHtml != null) {
+        if (html) {
+          page.put(PageFields.HTML, storedHtml);
+        }
+        resultHandler.handle(Future.succeededFuture(page));
+        return;
+      }
+      String source = row.getString(bothContents ? 4 : 5);
+      vertx.<String>executeBlocking(promise -> promise.complete(renderer.render(source == null ? "" : source)), false,
+        rendered -> resultHandler.handle(rendered.map(pageHtml -> page.put(PageFields.HTML, pageHtml))));
+    });
+  }
+
+  @Override
+  public void fetchPageChunk(JsonObject request, Handler<AsyncResult<String>> resultHandler) {
+    SqlQuery query = "html".equals(request.getString("part")) ? SqlQuery.PAGE_HTML_CHUNK : SqlQuery.PAGE_MARKDOWN_CHUNK;
+    int length = Math.max(1, Math.min(request.getInteger("length", DEFAULT_CHUNK_LENGTH), MAX_CHUNK_LENGTH));
+    // SQL positions start at 1
+    JsonArray params = new JsonArray()
+      .add(Math.max(0, request.getInteger("offset", 0)) + 1)
+      .add(length)
+      .add(request.getInteger("id"))
+      .add(request.getInteger("version"));
+
+    query(query, params, res -> {
+      if (res.failed()) {
+        resultHandler.handle(Future.failedFuture(res.cause()));
+      } else if (res.result().getNumRows() == 0) {
+        resultHandler.handle(Future.failedFuture(new ServiceException(404, "No version " + request.getInteger("version")
+          + " of page " + request.getString("name"))));
+      } else {
+        resultHandler.handle(Future.succeededFuture(res.result().getResults().get(0).getString(0)));
+      }
+    });
+  }
+
+  @Override
+  public void savePage(Page page, Handler<AsyncResult<Page>> resultHandler) {
+    if (page.getMarkdown() == null) {
+      // a form posted without content saves an empty page
+      page.setMarkdown("");
     }
+    if (!page.isNewPage()) {
+      if (saveCoalescer != null) {
+        saveCoalescer.save(page, resultHandler);
+      } else {
+        writeSaves(Collections.singletonList(page),
+          written -> resultHandler.handle(written.map(new Page().setId(page.getId()).setName(page.getName()))));
+      }
+      return;
+    }
+    String markdown = page.getMarkdown();
+    vertx.<RenderedContent>executeBlocking(promise -> promise.complete(new RenderedContent(renderer, markdown)), false, rendered -> {
+      if (rendered.failed()) {
+        resultHandler.handle(Future.failedFuture(rendered.cause()));
+        return;
+      }
+      JsonArray data = new JsonArray()
+        .add(page.getName())
+        .add(markdown)
+        .add(rendered.result().html);
+      createPage(page.getName(), markdown, data, rendered.result().terms, resultHandler);
+    });
+  }
 
-    dbClient.updateWithParams(newPage ? sqlQueries.get(SqlQuery.CREATE_PAGE) : sqlQueries.get(SqlQuery.SAVE_PAGE), data, res -> {
-      if (res.succeeded()) {
-        resultHandler.handle(Future.succeededFuture());
+  private void createPage(String name, String markdown, JsonArray data, Map<String, Integer> terms,
+                          Handler<AsyncResult<Page>> resultHandler) {
+    int[] id = new int[1];
+    inTransaction((connection, done) -> connection.updateWithParams(sqlQueries.get(SqlQuery.CREATE_PAGE), data,
+      timed(SqlQuery.CREATE_PAGE, created -> {
+        if (created.failed()) {
+          done.handle(Future.failedFuture(created.cause()));
+          return;
+        }
+        id[0] = created.result().getKeys().getInteger(0);
+        batch(connection, SqlQuery.INSERT_REVISION, Collections.singletonList(revision(id[0], 1, true, markdown)),
+          inserted -> done.handle(inserted.mapEmpty()));
+      })), committed -> {
+      if (committed.succeeded()) {
+        pageNameIndex.put(name, id[0]);
+        searchIndex.put(id[0], name, terms);
+        publishInvalidation(name, String.valueOf(id[0]));
+        resultHandler.handle(Future.succeededFuture(new Page().setId(id[0]).setName(name)));
       } else {
-        resultHandler.handle(Future.failedFuture(res.cause()));
+        resultHandler.handle(Future.failedFuture(committed.cause()));
       }
     });
   }
 
   @Override
   public void deletePage(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
-    JsonArray data = new JsonArray()
-      .add(request.getString("id"));
+    List<JsonArray> data = Collections.singletonList(new JsonArray()
+      .add(request.getString("id")));
 
-    dbClient.updateWithParams(sqlQueries.get(SqlQuery.DELETE_PAGE), data, res -> {
+    // the page row first, locking the tables in the order saves do
+    inTransaction((connection, done) -> batch(connection, SqlQuery.DELETE_PAGE, data, deleted -> {
+      if (deleted.failed()) {
+        done.handle(Future.failedFuture(deleted.cause()));
+        return;
+      }
+      batch(connection, SqlQuery.DELETE_PAGE_REVISIONS, data, revisions -> done.handle(revisions.mapEmpty()));
+    }), res -> {
       if (res.succeeded()) {
+        int id = Integer.parseInt(request.getString("id"));
+        String title = pageNameIndex.remove(id);
+        searchIndex.remove(id);
+        publishInvalidation(title != null ? title : request.getString("title"), request.getString("id"));
         resultHandler.handle(Future.succeededFuture());
       } else {
         resultHandler.handle(Future.failedFuture(res.cause()));
       }
     });
   }
+
+  @Override
+  public void savePages(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    JsonArray pages = request.getJsonArray("pages", new JsonArray());
+    JsonObject[] results = new JsonObject[pages.size()];
+    List<Integer> creates = new ArrayList<>();
+    List<Integer> updates = new ArrayList<>();
+    Set<String> titles = new HashSet<>();
+    for (int i = 0; i < pages.size(); i++) {
+      JsonObject page = pages.getJsonObject(i);
+      String title = page.getString("title");
+      results[i] = new JsonObject().put("title", title);
+      if (page.getString("markdown") == null) {
+        page.put("markdown", "");
+      }
+      if (title == null || title.isEmpty()) {
+        results[i].put("error", "title is required");
+      } else if (!titles.add(title)) {
+        results[i].put("error", "duplicate title in batch");
+      } else if (pageNameIndex.idOf(title) == null) {
+        creates.add(i);
+      } else {
+        results[i].put("id", pageNameIndex.idOf(title));
+        updates.add(i);
+      }
+    }
+
+    vertx.<Map<Integer, RenderedContent>>executeBlocking(promise -> {
+      Map<Integer, RenderedContent> contents = new HashMap<>();
+      creates.forEach(i -> contents.put(i, new RenderedContent(renderer, pages.getJsonObject(i).getString("markdown"))));
+      updates.forEach(i -> contents.put(i, new RenderedContent(renderer, pages.getJsonObject(i).getString("markdown"))));
+      promise.complete(contents);
+    }, false, rendered -> {
+      if (rendered.failed()) {
+        resultHandler.handle(Future.failedFuture(rendered.cause()));
+        return;
+      }
+      List<JsonArray> createParams = new ArrayList<>();
+      creates.forEach(i -> createParams.add(new JsonArray()
+        .add(results[i].getString("title"))
+        .add(pages.getJsonObject(i).getString("markdown"))
+        .add(rendered.result().get(i).html)));
+      List<JsonArray> updateParams = new ArrayList<>();
+      Map<Integer, String> updatedMarkdown = new LinkedHashMap<>();
+      updates.forEach(i -> {
+        updateParams.add(new JsonArray()
+          .add(pages.getJsonObject(i).getString("markdown"))
+          .add(rendered.result().get(i).html)
+          .add(results[i].getInteger("id")));
+        updatedMarkdown.put(results[i].getInteger("id"), pages.getJsonObject(i).getString("markdown"));
+      });
+
+      inTransaction((connection, done) -> createAll(connection, createParams, created -> {
+        if (created.failed()) {
+          done.handle(Future.failedFuture(created.cause()));
+          return;
+        }
+        addRevisions(connection, updatedMarkdown, revised -> {
+          if (revised.failed()) {
+            done.handle(revised);
+            return;
+          }
+          batch(connection, SqlQuery.SAVE_PAGE, updateParams, updated -> {
+            if (updated.failed()) {
+              done.handle(Future.failedFuture(updated.cause()));
+              return;
+            }
+            List<JsonArray> createdRevisions = new ArrayList<>();
+            for (Integer i : creates) {
+              int id = created.result().get(results[i].getString("title"));
+              results[i].put("id", id);
+              createdRevisions.add(revision(id, 1, true, pages.getJsonObject(i).getString("markdown")));
+            }
+            for (int u = 0; u < updates.size(); u++) {
+              if (updated.result().get(u) == 0) {
+                results[updates.get(u)].remove("id");
+                results[updates.get(u)].put("error", "not found");
+              }
+            }
+            batch(connection, SqlQuery.INSERT_REVISION, createdRevisions, inserted -> done.handle(inserted.mapEmpty()));
+          });
+        });
+      }), committed -> {
+        if (committed.failed()) {
+          resultHandler.handle(Future.failedFuture(committed.cause()));
+          return;
+        }
+        for (Integer i : creates) {
+          results[i].put("status", "created");
+        }
+        for (Integer i : updates) {
+          if (!results[i].containsKey("error")) {
+            results[i].put("status", "updated");
+          }
+        }
+        for (int i = 0; i < results.length; i++) {
+          if (results[i].containsKey("status")) {
+            String title = results[i].getString("title");
+            int id = results[i].getInteger("id");
+            pageNameIndex.put(title, id);
+            searchIndex.put(id, title, rendered.result().get(i).terms);
+            publishInvalidation(title, String.valueOf(id));
+          }
+        }
+        resultHandler.handle(Future.succeededFuture(new JsonArray(Arrays.asList(results))));
+      });
+    });
+  }
+
+  @Override
+  public void deletePages(JsonObject request, Handler<AsyncResult<JsonArray>> resultHandler) {
+    JsonArray pages = request.getJsonArray("pages", new JsonArray());
+    JsonObject[] results = new JsonObject[pages.size()];
+    List<Integer> deletes = new ArrayList<>();
+    List<JsonArray> params = new ArrayList<>();
+    for (int i = 0; i < pages.size(); i++) {
+      JsonObject page = pages.getJsonObject(i);
+      Integer id = page.getInteger("id");
+      if (id == null && page.getString("title") != null) {
+        id = pageNameIndex.idOf(page.getString("title"));
+      }
+      String title = id == null ? page.getString("title") : pageNameIndex.nameOf(id);
+      results[i] = new JsonObject().put("title", title);
+      if (id == null) {
+        results[i].put("error", "not found");
+      } else {
+        results[i].put("id", id);
+        deletes.add(i);
+        params.add(new JsonArray().add(id));
+      }
+    }
+
+    // the page rows first, locking the tables in the order saves do
+    inTransaction((connection, done) -> batch(connection, SqlQuery.DELETE_PAGE, params, deleted -> {
+      if (deleted.failed()) {
+        done.handle(Future.failedFuture(deleted.cause()));
+        return;
+      }
+      for (int d = 0; d < deletes.size(); d++) {
+        if (deleted.result().get(d) == 0) {
+          results[deletes.get(d)].put("error", "not found");
+        } else {
+          results[deletes.get(d)].put("status", "deleted");
+        }
+      }
+      batch(connection, SqlQuery.DELETE_PAGE_REVISIONS, params, revisions -> done.handle(revisions.mapEmpty()));
+    }), committed -> {
+      if (committed.failed()) {
+        resultHandler.handle(Future.failedFuture(committed.cause()));
+        return;
+      }
+      for (Integer i : deletes) {
+        if (results[i].containsKey("status")) {
+          int id = results[i].getInteger("id");
+          pageNameIndex.remove(id);
+          searchIndex.remove(id);
+          publishInvalidation(results[i].getString("title"), String.valueOf(id));
+        }
+      }
+      resultHandler.handle(Future.succeededFuture(new JsonArray(Arrays.asList(results))));
+    });
+  }
+
+  @Override
+  public void fetchPageHistory(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler) {
+    String name = request.getString("name");
+    Integer id = name == null ? null : pageNameIndex.idOf(name);
+    if (id == null) {
+      resultHandler.handle(Future.failedFuture(new ServiceException(404, "No page named " + name)));
+      return;
+    }
+    int limit = Math.max(1, Math.min(request.getInteger("limit", DEFAULT_HISTORY_LIMIT), MAX_LIST_LIMIT));
+    // one more than asked for, to know whether older revisions follow
+    JsonArray params = new JsonArray().add(id).add(request.getInteger("before", Integer.MAX_VALUE)).add(limit + 1);
+
+    query(SqlQuery.PAGE_REVISIONS, params, res -> {
+      if (res.failed()) {
+        resultHandler.handle(Future.failedFuture(res.cause()));
+        return;
+      }
+      List<JsonArray> rows = res.result().getResults();
+      JsonArray revisions = new JsonArray();
+      for (int i = 0; i < Math.min(limit, rows.size()); i++) {
+        JsonArray row = rows.get(i);
+        revisions.add(new JsonObject()
+          .put("version", row.getInteger(0))
+          .put("snapshot", row.getBoolean(1))
+          .put("size", row.getLong(2))
+          .put("created", row.getInstant(3).toEpochMilli()));
+      }
+      JsonObject history = new JsonObject().put("name", name).put("id", id).put("revisions", revisions);
+      if (rows.size() > limit) {
+        history.put("next", rows.get(limit - 1).getInteger(0));
+      }
+      resultHandler.handle(Future.succeededFuture(history));
+    });
+  }
+
+  @Override
+  public void fetchPageRevision(JsonObject request, Handler<AsyncResult<Page>> resultHandler) {
+    String name = request.getString("name");
+    Integer id = name == null ? null : pageNameIndex.idOf(name);
+    Integer version = request.getInteger("version");
+    if (id == null || version == null) {
+      resultHandler.handle(Future.failedFuture(new ServiceException(404, "No revision " + version + " of " + name)));
+      return;
+    }
+    loadRevision(id, name, version, resultHandler);
+  }
+
+  @Override
+  public void diffPageRevisions(JsonObject request, Handler<AsyncResult<JsonObject>> resultHandler) {
+    String name = request.getString("name");
+    Integer id = name == null ? null : pageNameIndex.idOf(name);
+    Integer from = request.getInteger("from");
+    Integer to = request.getInteger("to");
+    if (id == null || from == null || to == null) {
+      resultHandler.handle(Future.failedFuture(new ServiceException(404, "No revisions " + from + " and " + to + " of " + name)));
+      return;
+    }
+    loadRevision(id, name, from, older -> {
+      if (older.failed()) {
+        resultHandler.handle(Future.failedFuture(older.cause()));
+        return;
+      }
+      loadRevision(id, name, to, newer -> {
+        if (newer.failed()) {
+          resultHandler.handle(Future.failedFuture(newer.cause()));
+          return;
+        }
+        vertx.<JsonObject>executeBlocking(promise -> promise.complete(new JsonObject()
+          .put("name", name)
+          .put("from", from)
+          .put("to", to)
+          .put("changes", LineDiff.changes(older.result().getMarkdown(), newer.result().getMarkdown()))),
+          false, resultHandler);
+      });
+    });
+  }
+
+  /**
+   * Rebuilds a revision on a worker, from the nearest snapshot at or before it and the deltas that follow, of which
+   * there are fewer than {@code snapshotInterval}.
+   */
+  private void loadRevision(int id, String name, int version, Handler<AsyncResult<Page>> handler) {
+    JsonArray params = new JsonArray().add(id).add(version).add(id).add(version);
+    query(SqlQuery.REVISION_CHAIN, params, res -> {
+      if (res.failed()) {
+        handler.handle(Future.failedFuture(res.cause()));
+        return;
+      }
+      List<JsonArray> chain = res.result().getResults();
+      if (chain.isEmpty() || chain.get(chain.size() - 1).getInteger(0) != version) {
+        handler.handle(Future.failedFuture(new ServiceException(404, "No revision " + version + " of " + name)));
+        return;
+      }
+      vertx.<Page>executeBlocking(promise -> {
+        String markdown = chain.get(0).getString(2);
+        for (int i = 1; i < chain.size(); i++) {
+          JsonArray revision = chain.get(i);
+          markdown = revision.getBoolean(1) ? revision.getString(2) : LineDiff.apply(markdown, revision.getString(2));
+        }
+        promise.complete(new Page()
+          .setId(id)
+          .setName(name)
+          .setVersion(version)
+          .setMarkdown(markdown)
+          .setUpdated(chain.get(chain.size() - 1).getInstant(3).toEpochMilli()));
+      }, false, handler);
+    });
+  }
+
+  /**
+   * Writes a group of page updates and their revisions in one transaction, rendering their HTML and counting their
+   * search terms on a worker first.
+   */
+  private void writeSaves(List<Page> pages, Handler<AsyncResult<Void>> handler) {
+    vertx.<List<RenderedContent>>executeBlocking(promise -> {
+      List<RenderedContent> contents = new ArrayList<>(pages.size());
+      pages.forEach(page -> contents.add(new RenderedContent(renderer, page.getMarkdown())));
+      promise.complete(contents);
+    }, false, rendered -> {
+      if (rendered.failed()) {
+        handler.handle(Future.failedFuture(rendered.cause()));
+        return;
+      }
+      List<JsonArray> params = new ArrayList<>(pages.size());
+      Map<Integer, String> markdown = new LinkedHashMap<>();
+      for (int i = 0; i < pages.size(); i++) {
+        Page page = pages.get(i);
+        params.add(new JsonArray()
+          .add(page.getMarkdown())
+          .add(rendered.result().get(i).html)
+          .add(page.getId()));
+        markdown.put(page.getId(), page.getMarkdown());
+      }
+      inTransaction((connection, done) -> addRevisions(connection, markdown, revised -> {
+        if (revised.failed()) {
+          done.handle(revised);
+          return;
+        }
+        batch(connection, SqlQuery.SAVE_PAGE, params, updated -> done.handle(updated.mapEmpty()));
+      }), committed -> {
+        if (committed.succeeded()) {
+          for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            searchIndex.put(page.getId(), page.getName(), rendered.result().get(i).terms);
+            publishInvalidation(page.getName(), String.valueOf(page.getId()));
+          }
+        }
+        handler.handle(committed);
+      });
+    });
+  }
+
+  /**
+   * Adds the revisions created by updating the pages to {@code markdown}, in the transaction of the updates and before
+   * them, as it reads the current content and version of each page. A revision is a delta against the current content,
+   * unless the last snapshot is {@code snapshotInterval} versions old or the delta is not smaller than the page: then
+   * it is a snapshot of the whole page. A page saved before revisions were kept first gets its current content as a
+   * snapshot.
+   */
+  private void addRevisions(SQLConnection connection, Map<Integer, String> markdown, Handler<AsyncResult<Void>> handler) {
+    // locked in id order, so that transactions saving several of the same pages cannot deadlock
+    List<Integer> ids = new ArrayList<>(new TreeSet<>(markdown.keySet()));
+    revisionBases(connection, ids, new ArrayList<>(), bases -> {
+      if (bases.failed()) {
+        handler.handle(Future.failedFuture(bases.cause()));
+        return;
+      }
+      vertx.<List<JsonArray>>executeBlocking(promise -> {
+        List<JsonArray> revisions = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+          JsonArray base = bases.result().get(i);
+          if (base == null) {
+            // the page is gone, so the update will not find it either
+            continue;
+          }
+          int id = ids.get(i);
+          String current = base.getString(0) == null ? "" : base.getString(0);
+          int version = base.getInteger(1);
+          Integer lastSnapshot = base.getInteger(2);
+          if (lastSnapshot == null) {
+            revisions.add(revision(id, version, true, current));
+            lastSnapshot = version;
+          }
+          String next = markdown.get(id);
+          String delta = version + 1 - lastSnapshot >= snapshotInterval ? null : LineDiff.delta(current, next);
+          revisions.add(delta == null || delta.length() >= next.length()
+            ? revision(id, version + 1, true, next)
+            : revision(id, version + 1, false, delta));
+        }
+        promise.complete(revisions);
+      }, false, computed -> {
+        if (computed.failed()) {
+          handler.handle(Future.failedFuture(computed.cause()));
+          return;
+        }
+        batch(connection, SqlQuery.INSERT_REVISION, computed.result(), inserted -> handler.handle(inserted.mapEmpty()));
+      });
+    });
+  }
+
+  /**
+   * Content, version and last snapshot version of each page, {@code null} for the pages that do not exist. Each page
+   * row is read {@code for update}, which holds concurrent saves of the page until this transaction ends: otherwise
+   * they would read the same version and both insert the next revision, failing on the Revisions primary key.
+   */
+  private void revisionBases(SQLConnection connection, List<Integer> ids, List<JsonArray> bases,
+                             Handler<AsyncResult<List<JsonArray>>> handler) {
+    if (bases.size() == ids.size()) {
+      handler.handle(Future.succeededFuture(bases));
+      return;
+    }
+    JsonArray params = new JsonArray().add(ids.get(bases.size()));
+    connection.querySingleWithParams(sqlQueries.get(SqlQuery.REVISION_BASE), params, timed(SqlQuery.REVISION_BASE, base -> {
+      if (base.failed()) {
+        handler.handle(Future.failedFuture(base.cause()));
+        return;
+      }
+      if (base.result() == null) {
+        bases.add(null);
+        revisionBases(connection, ids, bases, handler);
+        return;
+      }
+      connection.querySingleWithParams(sqlQueries.get(SqlQuery.LAST_SNAPSHOT_VERSION), params,
+        timed(SqlQuery.LAST_SNAPSHOT_VERSION, snapshot -> {
+          if (snapshot.failed()) {
+            handler.handle(Future.failedFuture(snapshot.cause()));
+            return;
+          }
+          bases.add(base.result().add(snapshot.result() == null ? null : snapshot.result().getValue(0)));
+          revisionBases(connection, ids, bases, handler);
+        }));
+    }));
+  }
+
+  private static JsonArray revision(int pageId, int version, boolean snapshot, String data) {
+    return new JsonArray().add(pageId).add(version).add(snapshot).add(data);
+  }
+
+  /**
+   * Inserts the new pages as one batch and reads back their generated ids, which a JDBC batch does not return.
+   * Pages created concurrently by other transactions may also be found above the previous last id, but page names
+   * are unique, so the ids of the names inserted here are ours.
+   */
+  private void createAll(SQLConnection connection, List<JsonArray> params, Handler<AsyncResult<Map<String, Integer>>> handler) {
+    if (params.isEmpty()) {
+      handler.handle(Future.succeededFuture(new HashMap<>()));
+      return;
+    }
+    connection.querySingle(sqlQueries.get(SqlQuery.LAST_PAGE_ID), timed(SqlQuery.LAST_PAGE_ID, last -> {
+      if (last.failed()) {
+        handler.handle(Future.failedFuture(last.cause()));
+        return;
+      }
+      batch(connection, SqlQuery.CREATE_PAGE, params, created -> {
+        if (created.failed()) {
+          handler.handle(Future.failedFuture(created.cause()));
+          return;
+        }
+        JsonArray after = new JsonArray().add(last.result().getInteger(0));
+        connection.queryWithParams(sqlQueries.get(SqlQuery.PAGE_IDS_AFTER), after, timed(SqlQuery.PAGE_IDS_AFTER, ids -> {
+          if (ids.failed()) {
+            handler.handle(Future.failedFuture(ids.cause()));
+            return;
+          }
+          Set<String> names = new HashSet<>();
+          params.forEach(page -> names.add(page.getString(0)));
+          Map<String, Integer> idsByName = new HashMap<>();
+          ids.result().getResults().stream()
+            .filter(row -> names.contains(row.getString(1)))
+            .forEach(row -> idsByName.put(row.getString(1), row.getInteger(0)));
+          handler.handle(Future.succeededFuture(idsByName));
+        }));
+      });
+    }));
+  }
+
+  private void batch(SQLConnection connection, SqlQuery query, List<JsonArray> params, Handler<AsyncResult<List<Integer>>> handler) {
+    if (params.isEmpty()) {
+      handler.handle(Future.succeededFuture(new ArrayList<>()));
+    } else {
+      connection.batchWithParams(sqlQueries.get(query), params, timed(query, handler));
+    }
+  }
+
+  /**
+   * Runs the work on one connection with auto-commit off, then commits, or rolls back when the work failed.
+   */
+  private void inTransaction(BiConsumer<SQLConnection, Handler<AsyncResult<Void>>> work, Handler<AsyncResult<Void>> handler) {
+    connection(ar -> {
+      if (ar.failed()) {
+        handler.handle(Future.failedFuture(ar.cause()));
+        return;
+      }
+      SQLConnection connection = ar.result();
+      connection.setAutoCommit(false, begin -> {
+        if (begin.failed()) {
+          connection.close();
+          handler.handle(Future.failedFuture(begin.cause()));
+          return;
+        }
+        work.accept(connection, done -> {
+          if (done.failed()) {
+            connection.rollback(rollback -> {
+              connection.close();
+              handler.handle(Future.failedFuture(done.cause()));
+            });
+          } else {
+            connection.commit(commit -> {
+              connection.close();
+              handler.handle(commit);
+            });
+          }
+        });
+      });
+    });
+  }
+
+  private void query(SqlQuery query, JsonArray params, Handler<AsyncResult<ResultSet>> handler) {
+    connection(ar -> {
+      if (ar.failed()) {
+        handler.handle(Future.failedFuture(ar.cause()));
+        return;
+      }
+      SQLConnection connection = ar.result();
+      connection.queryWithParams(sqlQueries.get(query), params, timed(query, res -> {
+        connection.close();
+        handler.handle(res);
+      }));
+    });
+  }
+
+  /**
+   * Takes a connection from the pool, recording how long the pool made us wait for it.
+   */
+  private void connection(Handler<AsyncResult<SQLConnection>> handler) {
+    long start = System.nanoTime();
+    dbClient.getConnection(ar -> {
+      WikiMetrics.recordPoolWait(start);
+      handler.handle(ar);
+    });
+  }
+
+  private static <T> Handler<AsyncResult<T>> timed(SqlQuery query, Handler<AsyncResult<T>> handler) {
+    long start = System.nanoTime();
+    return res -> {
+      WikiMetrics.recordQuery(query, res.succeeded(), start);
+      handler.handle(res);
+    };
+  }
+
+  /**
+   * Tells every HttpServerVerticle instance to drop its rendered copy of the page.
+   */
+  private void publishInvalidation(String page, String id) {
+    JsonObject message = new JsonObject().put("page", page);
+    if (id != null && !id.isEmpty() && !"-1".equals(id)) {
+      message.put("id", Integer.valueOf(id));
+    }
+    vertx.eventBus().publish(PAGE_INVALIDATION_ADDRESS, message);
+  }
+
+  private static boolean isAlreadyExists(Throwable cause) {
+    return cause instanceof SQLException && SQL_STATE_OBJECT_EXISTS.equals(((SQLException) cause).getSQLState());
+  }
+
+  /**
+   * What a worker derives from the Markdown of a page being written: its HTML, and its term frequencies for the search
+   * index, so that the event loop only applies them once the write is committed.
+   */
+  private static final class RenderedContent {
+    private final String html;
+    private final Map<String, Integer> terms;
+
+    private RenderedContent(MarkdownBlockRenderer renderer, String markdown) {
+      this.html = renderer.render(markdown);
+      this.terms = Tokenizer.termFrequencies(markdown);
+    }
+  }
 }
@@ -0,0 +1,95 @@
+package io.vertx.starter.database.services;
+
+import io.vertx.starter.database.MarkdownBlockRenderer;
+import io.vertx.starter.database.PageNameIndex;
+import io.vertx.starter.database.enums.SqlQuery;
+import io.vertx.starter.search.PersistentSearchIndex;
+
+import java.util.Map;
+
+/**
+ * What {@link WikiDatabaseService#create} builds the JDBC service from: the SQL queries, page name index, search index
+ * and renderer it shares with its verticle, which are required, and its tuning, which has defaults.
+ *
+ * Updates of existing pages are written in groups, collected for {@code saveWindowMillis} or until
+ * {@code saveGroupSize} pages are pending; a window of 0 writes each update on its own.
+ * A page revision is stored in full at least every {@code snapshotInterval} versions and as a delta against the
+ * previous revision otherwise. Page HTML is rendered by the {@code renderer}, which only renders the blocks of a page
+ * that changed since it last saw it.
+ */
+public class WikiDatabaseServiceOptions {
+  public static final long DEFAULT_SAVE_WINDOW_MILLIS = 5;
+  public static final int DEFAULT_SAVE_GROUP_SIZE = 100;
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 20;
+
+  private Map<SqlQuery, String> sqlQueries;
+  private PageNameIndex pageNameIndex;
+  private PersistentSearchIndex searchIndex;
+  private MarkdownBlockRenderer renderer;
+  private long saveWindowMillis = DEFAULT_SAVE_WINDOW_MILLIS;
+  private int saveGroupSize = DEFAULT_SAVE_GROUP_SIZE;
+  private int snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+
+  public Map<SqlQuery, String> getSqlQueries() {
+    return sqlQueries;
+  }
+
+  public WikiDatabaseServiceOptions setSqlQueries(Map<SqlQuery, String> sqlQueries) {
+    this.sqlQueries = sqlQueries;
+    return this;
+  }
+
+  public PageNameIndex getPageNameIndex() {
+    return pageNameIndex;
+  }
+
+  public WikiDatabaseServiceOptions setPageNameIndex(PageNameIndex pageNameIndex) {
+    this.pageNameIndex = pageNameIndex;
+    return this;
+  }
+
+  public PersistentSearchIndex getSearchIndex() {
+    return searchIndex;
+  }
+
+  public WikiDatabaseServiceOptions setSearchIndex(PersistentSearchIndex searchIndex) {
+    this.searchIndex = searchIndex;
+    return this;
+  }
+
+  public MarkdownBlockRenderer getRenderer() {
+    return renderer;
+  }
+
+  public WikiDatabaseServiceOptions setRenderer(MarkdownBlockRenderer renderer) {
+    this.renderer = renderer;
+    return this;
+  }
+
+  public long getSaveWindowMillis() {
+    return saveWindowMillis;
+  }
+
+  public WikiDatabaseServiceOptions setSaveWindowMillis(long saveWindowMillis) {
+    this.saveWindowMillis = saveWindowMillis;
+    return this;
+  }
+
+  public int getSaveGroupSize() {
+    return saveGroupSize;
+  }
+
+  public WikiDatabaseServiceOptions setSaveGroupSize(int saveGroupSize) {
+    this.saveGroupSize = saveGroupSize;
+    return this;
+  }
+
+  public int getSnapshotInterval() {
+    return snapshotInterval;
+  }
+
+  public WikiDatabaseServiceOptions setSnapshotInterval(int snapshotInterval) {
+    this.snapshotInterval = snapshotInterval;
+    return this;
+  }
+}
@@ -0,0 +1,59 @@
+package io.vertx.starter.database.services;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonObject;
+import io.vertx.serviceproxy.ServiceException;
+import io.vertx.starter.database.models.Page;
+
+/**
+ * Service side of {@link WikiDatabaseServicePageProxy}: page calls from that proxy take and reply {@link Page}
+ * instances. Every other call, including page calls from plain generated proxies, goes through the generated handler.
+ */
+public class WikiDatabaseServicePageHandler extends WikiDatabaseServiceVertxProxyHandler {
+  private final WikiDatabaseService service;
+
+  public WikiDatabaseServicePageHandler(Vertx vertx, WikiDatabaseService service) {
+    super(vertx, service);
+    this.service = service;
+    WikiDatabaseServicePageProxy.registerPageCodec(vertx.eventBus());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void handle(Message<JsonObject> msg) {
+    String action = msg.headers().get("action");
+    if (!msg.headers().contains(WikiDatabaseServicePageProxy.CODEC_HEADER)) {
+      super.handle(msg);
+      return;
+    }
+    try {
+      if ("fetchPage".equals(action)) {
+        service.fetchPage(msg.body().getString("name"), reply(msg));
+      } else if ("fetchPageVersion".equals(action)) {
+        service.fetchPageVersion(msg.body().getString("name"), reply(msg));
+      } else if ("savePage".equals(action)) {
+        // the message body type is erased: savePage requests carry a Page
+        service.savePage(((Message<Page>) (Message<?>) msg).body(), reply(msg));
+      } else {
+        super.handle(msg);
+      }
+    } catch (RuntimeException e) {
+      // like the generated handler, answer rather than leave the caller waiting for its timeout
+      msg.reply(new ServiceException(-1, e.getMessage()));
+      throw e;
+    }
+  }
+
+  private static Handler<AsyncResult<Page>> reply(Message<?> msg) {
+    return res -> {
+      if (res.failed()) {
+        msg.reply(res.cause() instanceof ServiceException ? res.cause() : new ServiceException(-1, res.cause().getMessage()));
+      } else {
+        msg.reply(res.result());
+      }
+    };
+  }
+}
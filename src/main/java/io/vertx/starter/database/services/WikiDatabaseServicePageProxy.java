@@ -0,0 +1,65 @@
+package io.vertx.starter.database.services;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.json.JsonObject;
+import io.vertx.starter.database.models.Page;
+import io.vertx.starter.models.codecs.PageMessageCodec;
+
+/**
+ * Generated proxy whose page calls carry {@link Page} itself through {@link PageMessageCodec} rather than its JSON form.
+ * Must be paired with {@link WikiDatabaseServicePageHandler} on the service side.
+ */
+public class WikiDatabaseServicePageProxy extends WikiDatabaseServiceVertxEBProxy {
+  static final String CODEC_HEADER = "codec";
+
+  private final Vertx vertx;
+  private final String address;
+
+  public WikiDatabaseServicePageProxy(Vertx vertx, String address) {
+    super(vertx, address);
+    this.vertx = vertx;
+    this.address = address;
+    registerPageCodec(vertx.eventBus());
+  }
+
+  static void registerPageCodec(EventBus eventBus) {
+    try {
+      eventBus.registerDefaultCodec(Page.class, new PageMessageCodec());
+    } catch (IllegalStateException e) {
+      // already registered by another proxy or the service
+    }
+  }
+
+  @Override
+  public void fetchPage(String name, Handler<AsyncResult<Page>> resultHandler) {
+    request("fetchPage", new JsonObject().put("name", name), resultHandler);
+  }
+
+  @Override
+  public void fetchPageVersion(String name, Handler<AsyncResult<Page>> resultHandler) {
+    request("fetchPageVersion", new JsonObject().put("name", name), resultHandler);
+  }
+
+  @Override
+  public void savePage(Page page, Handler<AsyncResult<Page>> resultHandler) {
+    request("savePage", page, resultHandler);
+  }
+
+  private void request(String action, Object body, Handler<AsyncResult<Page>> resultHandler) {
+    DeliveryOptions options = new DeliveryOptions()
+      .addHeader("action", action)
+      .addHeader(CODEC_HEADER, PageMessageCodec.class.getSimpleName());
+    vertx.eventBus().<Page>request(address, body, options, res -> {
+      if (res.failed()) {
+        resultHandler.handle(Future.failedFuture(res.cause()));
+      } else {
+        resultHandler.handle(Future.succeededFuture(res.result().body()));
+      }
+    });
+  }
+}
@@ -0,0 +1,241 @@
+package io.vertx.starter.history;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.starter.models.Currency;
+import io.vertx.starter.models.Rates;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Daily exchange rates in a memory-mapped file with one fixed-width record per day, so that a date is an offset and a
+ * query over a range of days reads one rate per record instead of decoding whole snapshots.
+ *
+ * The file holds a header ({@link #MAGIC}, the first day as an epoch day and the number of days written) followed by
+ * one record per day from the first day on: the epoch day, a presence flag, the base currency ordinal and one rate
+ * per {@link Currency} ordinal, with room for {@link #MAX_CURRENCIES}. Days without a snapshot (weekends, outages)
+ * keep an empty record. A later snapshot of the same day replaces the earlier one; days before the first day are
+ * not recorded.
+ *
+ * One instance per file is shared by all verticles, each {@link #open opening} it and {@link #close closing} it once;
+ * the file is closed with the last of them. Appends are serialized and block on file growth, so they run on a worker;
+ * reads only touch the mapping and run on the event loop.
+ */
+public class RateHistory implements Shareable {
+  public static final String DEFAULT_FILE = "db/exchange-rate-history.bin";
+  public static final int MAX_CURRENCIES = 64;
+
+  private static final String SHARED_MAP = "rate-history";
+  private static final int MAGIC = 0x57524831;
+  private static final int HEADER_SIZE = 32;
+  private static final int FIRST_DAY_OFFSET = 8;
+  private static final int DAYS_OFFSET = 16;
+  private static final int RECORD_PRESENT_OFFSET = 8;
+  private static final int RECORD_BASE_OFFSET = 9;
+  private static final int RECORD_RATES_OFFSET = 16;
+  private static final int RECORD_SIZE = RECORD_RATES_OFFSET + MAX_CURRENCIES * Double.BYTES;
+  private static final int GROWTH_DAYS = 366;
+
+  static {
+    if (Currency.count() > MAX_CURRENCIES) {
+      throw new IllegalStateException("The rate history has room for " + MAX_CURRENCIES + " currencies");
+    }
+  }
+
+  private final String key;
+  private final FileChannel channel;
+  private int references;
+  private volatile MappedByteBuffer mapping;
+  private volatile long firstDay;
+  private volatile int days;
+
+  private RateHistory(String key) throws IOException {
+    this.key = key;
+    Path file = Paths.get(key);
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    if (channel.size() == 0) {
+      map(HEADER_SIZE + (long) GROWTH_DAYS * RECORD_SIZE);
+      mapping.putInt(0, MAGIC);
+      mapping.putLong(FIRST_DAY_OFFSET, Long.MIN_VALUE);
+      mapping.putInt(DAYS_OFFSET, 0);
+    } else {
+      map(channel.size());
+      if (mapping.getInt(0) != MAGIC) {
+        throw new IOException(file + " is not an exchange rate history");
+      }
+    }
+    firstDay = mapping.getLong(FIRST_DAY_OFFSET);
+    days = mapping.getInt(DAYS_OFFSET);
+  }
+
+  /**
+   * The history stored in {@code file}, opened on a worker by the first caller and shared with the others.
+   */
+  public static void open(Vertx vertx, String file, Handler<AsyncResult<RateHistory>> handler) {
+    vertx.executeBlocking(promise -> {
+      String key = Paths.get(file).toAbsolutePath().normalize().toString();
+      synchronized (RateHistory.class) {
+        LocalMap<String, RateHistory> histories = vertx.sharedData().getLocalMap(SHARED_MAP);
+        RateHistory history = histories.get(key);
+        if (history == null) {
+          try {
+            history = new RateHistory(key);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          histories.put(key, history);
+        }
+        history.references++;
+        promise.complete(history);
+      }
+    }, false, handler);
+  }
+
+  /**
+   * Releases what {@link #open} handed out, closing the file on a worker when no verticle uses it any more.
+   */
+  public void close(Vertx vertx, Handler<AsyncResult<Void>> handler) {
+    vertx.executeBlocking(promise -> {
+      synchronized (RateHistory.class) {
+        if (--references > 0) {
+          promise.complete();
+          return;
+        }
+        vertx.sharedData().<String, RateHistory>getLocalMap(SHARED_MAP).remove(key);
+      }
+      // waits for an append in progress
+      synchronized (this) {
+        try {
+          channel.close();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      promise.complete();
+    }, false, handler);
+  }
+
+  /**
+   * Records the snapshot under its date and flushes it to the file. Blocking.
+   *
+   * @return whether it was recorded, i.e. it has a date and is not older than the history
+   * @throws ClosedChannelException once the history is closed
+   */
+  public synchronized boolean append(Rates rates) throws IOException {
+    if (!channel.isOpen()) {
+      throw new ClosedChannelException();
+    }
+    if (rates.getDate() == null) {
+      return false;
+    }
+    long day = rates.getDate().toEpochDay();
+    if (days == 0) {
+      firstDay = day;
+      mapping.putLong(FIRST_DAY_OFFSET, day);
+    } else if (day < firstDay) {
+      return false;
+    }
+    int slot = Math.toIntExact(day - firstDay);
+    long end = HEADER_SIZE + (long) (slot + 1) * RECORD_SIZE;
+    if (end > mapping.capacity()) {
+      map(end + (long) GROWTH_DAYS * RECORD_SIZE);
+    }
+
+    MappedByteBuffer buffer = mapping;
+    int offset = recordOffset(slot);
+    buffer.putLong(offset, day);
+    buffer.put(offset + RECORD_BASE_OFFSET, (byte) (rates.getBase() == null ? -1 : rates.getBase().ordinal()));
+    for (int i = 0; i < MAX_CURRENCIES; i++) {
+      buffer.putDouble(offset + RECORD_RATES_OFFSET + i * Double.BYTES, i < Currency.count() ? rates.getRate(i) : Double.NaN);
+    }
+    buffer.put(offset + RECORD_PRESENT_OFFSET, (byte) 1);
+    if (slot >= days) {
+      buffer.putInt(DAYS_OFFSET, slot + 1);
+    }
+    buffer.force();
+    // published last, so that readers never see a day whose record is not written yet
+    days = Math.max(days, slot + 1);
+    return true;
+  }
+
+  /**
+   * Calls {@code consumer} with the rate of {@code currency} for each day between {@code from} and {@code to}
+   * (inclusive) that has one, in date order.
+   */
+  public void forEach(Currency currency, LocalDate from, LocalDate to, DayRateConsumer consumer) {
+    MappedByteBuffer buffer = mapping;
+    int count = days;
+    long first = firstDay;
+    if (count == 0) {
+      return;
+    }
+    // clamped to the recorded days before narrowing, as dates far outside of them do not fit in an int
+    long start = Math.max(0, from.toEpochDay() - first);
+    long end = Math.min(count - 1, to.toEpochDay() - first);
+    if (start > end) {
+      return;
+    }
+    int rateOffset = RECORD_RATES_OFFSET + currency.ordinal() * Double.BYTES;
+    for (int slot = (int) start; slot <= (int) end; slot++) {
+      int offset = recordOffset(slot);
+      if (buffer.get(offset + RECORD_PRESENT_OFFSET) != 0) {
+        double rate = buffer.getDouble(offset + rateOffset);
+        if (!Double.isNaN(rate)) {
+          consumer.accept(first + slot, rate);
+        }
+      }
+    }
+  }
+
+  /**
+   * Count, minimum, maximum and average of the rates of {@code currency} between {@code from} and {@code to}
+   * (inclusive), computed over the mapped records without copying them.
+   */
+  public RateStats stats(Currency currency, LocalDate from, LocalDate to) {
+    RateStats stats = new RateStats();
+    forEach(currency, from, to, (day, rate) -> stats.add(rate));
+    return stats;
+  }
+
+  /**
+   * Base currency of the latest snapshot, {@code null} while the history is empty.
+   */
+  public Currency latestBase() {
+    MappedByteBuffer buffer = mapping;
+    int count = days;
+    if (count == 0) {
+      return null;
+    }
+    int ordinal = buffer.get(recordOffset(count - 1) + RECORD_BASE_OFFSET);
+    return ordinal < 0 ? null : Currency.of(ordinal);
+  }
+
+  private void map(long size) throws IOException {
+    mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+  }
+
+  private static int recordOffset(int slot) {
+    return HEADER_SIZE + slot * RECORD_SIZE;
+  }
+
+  @FunctionalInterface
+  public interface DayRateConsumer {
+    void accept(long epochDay, double rate);
+  }
+}
@@ -0,0 +1,42 @@
+package io.vertx.starter.history;
+
+/**
+ * Running count, minimum, maximum and sum of rates.
+ */
+public class RateStats {
+  private int count;
+  private double min = Double.NaN;
+  private double max = Double.NaN;
+  private double sum;
+
+  void add(double rate) {
+    if (count == 0) {
+      min = rate;
+      max = rate;
+    } else {
+      min = Math.min(min, rate);
+      max = Math.max(max, rate);
+    }
+    sum += rate;
+    count++;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * @return the lowest rate, {@code NaN} when there is none
+   */
+  public double getMin() {
+    return min;
+  }
+
+  public double getMax() {
+    return max;
+  }
+
+  public double getAverage() {
+    return count == 0 ? Double.NaN : sum / count;
+  }
+}
@@ -0,0 +1,140 @@
+package io.vertx.starter.http;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.parsetools.RecordParser;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.starter.database.services.WikiDatabaseService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a newline-delimited JSON request body into batched database calls and the per-page results back out.
+ *
+ * Each line is a page to save ({@code title}, {@code markdown}) or, with {@code "delete": true}, a page to delete
+ * (by {@code title} or {@code id}). Consecutive lines of the same kind are grouped up to the batch size; reading the
+ * body is paused while a batch is in flight, so only one batch per request is ever held in memory.
+ */
+public class BulkPageStream {
+  private static final String SAVE = "save";
+  private static final String DELETE = "delete";
+
+  private final WikiDatabaseService dbService;
+  private final int batchSize;
+  private final RoutingContext context;
+  private final HttpServerResponse response;
+  private final List<JsonObject> pending = new ArrayList<>();
+  private RecordParser parser;
+  private String pendingKind;
+  private int line;
+
+  public BulkPageStream(WikiDatabaseService dbService, int batchSize, RoutingContext context) {
+    this.dbService = dbService;
+    this.batchSize = batchSize;
+    this.context = context;
+    this.response = context.response();
+  }
+
+  public void start() {
+    response.setChunked(true).putHeader("Content-Type", "application/x-ndjson");
+    parser = RecordParser.newDelimited("\n", context.request());
+    parser.handler(this::handleLine);
+    parser.exceptionHandler(context::fail);
+    parser.endHandler(v -> flush(response::end));
+  }
+
+  private void handleLine(Buffer buffer) {
+    line++;
+    String text = buffer.toString("UTF-8").trim();
+    if (text.isEmpty()) {
+      return;
+    }
+    JsonObject page;
+    try {
+      page = new JsonObject(text);
+    } catch (DecodeException | ClassCastException e) {
+      JsonObject error = new JsonObject().put("line", line).put("error", "invalid JSON");
+      parser.pause();
+      flush(() -> {
+        write(new JsonArray().add(error));
+        parser.resume();
+      });
+      return;
+    }
+
+    String kind = page.getBoolean("delete", false) ? DELETE : SAVE;
+    if (pendingKind != null && !pendingKind.equals(kind)) {
+      parser.pause();
+      flush(() -> {
+        if (!add(kind, page)) {
+          parser.resume();
+        }
+      });
+    } else {
+      add(kind, page);
+    }
+  }
+
+  /**
+   * @return whether the batch got full and was sent, in which case reading resumes once it completes
+   */
+  private boolean add(String kind, JsonObject page) {
+    pendingKind = kind;
+    pending.add(page);
+    if (pending.size() < batchSize) {
+      return false;
+    }
+    parser.pause();
+    flush(parser::resume);
+    return true;
+  }
+
+  /**
+   * Sends the pending batch, writes its results and then runs {@code next}, once the response can take more data.
+   */
+  private void flush(Runnable next) {
+    if (pending.isEmpty()) {
+      next.run();
+      return;
+    }
+    JsonArray batch = new JsonArray(new ArrayList<>(pending));
+    JsonObject request = new JsonObject().put("pages", batch);
+    boolean delete = DELETE.equals(pendingKind);
+    pending.clear();
+    pendingKind = null;
+    if (delete) {
+      dbService.deletePages(request, results -> written(batch, results, next));
+    } else {
+      dbService.savePages(request, results -> written(batch, results, next));
+    }
+  }
+
+  private void written(JsonArray batch, AsyncResult<JsonArray> results, Runnable next) {
+    if (results.failed()) {
+      // the transaction was rolled back, so every page of the batch failed
+      JsonArray failed = new JsonArray();
+      batch.forEach(page -> failed.add(new JsonObject()
+        .put("title", ((JsonObject) page).getString("title"))
+        .put("error", String.valueOf(results.cause().getMessage()))));
+      write(failed);
+    } else {
+      write(results.result());
+    }
+    if (response.writeQueueFull()) {
+      response.drainHandler(v -> next.run());
+    } else {
+      next.run();
+    }
+  }
+
+  private void write(JsonArray results) {
+    Buffer chunk = Buffer.buffer();
+    results.forEach(result -> chunk.appendString(((JsonObject) result).encode()).appendString("\n"));
+    response.write(chunk);
+  }
+}
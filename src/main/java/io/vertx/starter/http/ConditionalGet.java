@@ -0,0 +1,84 @@
+package io.vertx.starter.http;
+
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Validators and precondition checks (RFC 7232) for wiki pages, derived from the page id and version.
+ */
+public final class ConditionalGet {
+  private static final String GZIP_SUFFIX = "-gzip";
+
+  private ConditionalGet() {
+  }
+
+  public static String etag(int id, int version) {
+    return "\"" + id + "-" + version + "\"";
+  }
+
+  /**
+   * Validator of the gzip representation, which must differ from the identity one as the bytes differ.
+   */
+  public static String gzipEtag(String etag) {
+    return etag.substring(0, etag.length() - 1) + GZIP_SUFFIX + "\"";
+  }
+
+  public static boolean isConditional(HttpServerRequest request) {
+    return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+  }
+
+  /**
+   * If-None-Match wins over If-Modified-Since when both are sent. Entity tags of any encoding of the page match.
+   */
+  public static boolean isNotModified(HttpServerRequest request, String etag, long lastModified) {
+    String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    if (ifNoneMatch != null) {
+      for (String candidate : ifNoneMatch.split(",")) {
+        String tag = candidate.trim();
+        if (tag.startsWith("W/")) {
+          tag = tag.substring(2);
+        }
+        tag = tag.replace(GZIP_SUFFIX + "\"", "\"");
+        if (tag.equals("*") || tag.equals(etag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+    if (ifModifiedSince != null) {
+      try {
+        long since = Instant.from(DateTimeFormatter.RFC_1123_DATE_TIME.parse(ifModifiedSince)).getEpochSecond();
+        return lastModified / 1000 <= since;
+      } catch (DateTimeParseException e) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sets the validators, and asks caches to revalidate before reusing a stored copy.
+   */
+  public static HttpServerResponse putValidators(HttpServerResponse response, String etag, long lastModified) {
+    return response
+      .putHeader(HttpHeaders.ETAG, etag)
+      .putHeader(HttpHeaders.LAST_MODIFIED, httpDate(lastModified))
+      .putHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+  }
+
+  public static void notModified(HttpServerResponse response, String etag, long lastModified) {
+    putValidators(response, etag, lastModified).setStatusCode(304).end();
+  }
+
+  private static String httpDate(long epochMillis) {
+    return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(epochMillis).atOffset(ZoneOffset.UTC));
+  }
+}
@@ -0,0 +1,150 @@
+package io.vertx.starter.http;
+
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.starter.models.CrossRates;
+import io.vertx.starter.models.Currency;
+import io.vertx.starter.models.Rates;
+
+/**
+ * Currency conversion endpoints, answered from the {@link CrossRates} of the latest rates:
+ * <ul>
+ *   <li>{@code GET /api/rates/convert?from=EUR&to=USD&amount=10}, the amount defaulting to 1</li>
+ *   <li>{@code POST /api/rates/convert} with a JSON array of {@code {from, to, amount}}, answered with one result per
+ *   item in the same order, or an {@code error} for the items that cannot be converted</li>
+ * </ul>
+ * A result holds {@code from}, {@code to}, {@code amount}, {@code rate}, {@code result} and the {@code date} of the
+ * rates. Results are written straight to a string, as these endpoints are called for every price shown.
+ *
+ * Owned by one HTTP verticle instance and only used from its event loop.
+ */
+public class ConversionApi {
+  private static final int MAX_BATCH_SIZE = 1000;
+
+  private CrossRates crossRates;
+
+  public ConversionApi(Rates rates) {
+    update(rates);
+  }
+
+  /**
+   * Derives the cross rates of new exchange rates, once per update.
+   */
+  public void update(Rates rates) {
+    crossRates = rates == null ? null : CrossRates.of(rates);
+  }
+
+  public void convertHandler(RoutingContext context) {
+    if (crossRates == null) {
+      error(context, 503, "no exchange rates yet");
+      return;
+    }
+    String amountParam = context.request().getParam("amount");
+    double amount;
+    try {
+      amount = amountParam == null ? 1.0 : Double.parseDouble(amountParam);
+    } catch (NumberFormatException e) {
+      amount = Double.NaN;
+    }
+    StringBuilder json = new StringBuilder(160);
+    String error = appendConversion(json, context.request().getParam("from"), context.request().getParam("to"), amount);
+    if (error != null) {
+      error(context, 400, error);
+    } else {
+      context.response().putHeader("Content-Type", "application/json").end(json.toString());
+    }
+  }
+
+  public void batchConvertHandler(RoutingContext context) {
+    if (crossRates == null) {
+      error(context, 503, "no exchange rates yet");
+      return;
+    }
+    JsonArray items;
+    try {
+      items = context.getBodyAsJsonArray();
+    } catch (DecodeException | ClassCastException e) {
+      items = null;
+    }
+    if (items == null) {
+      error(context, 400, "expected a JSON array of conversions");
+      return;
+    }
+    if (items.size() > MAX_BATCH_SIZE) {
+      error(context, 400, "at most " + MAX_BATCH_SIZE + " conversions per request");
+      return;
+    }
+
+    StringBuilder json = new StringBuilder(items.size() * 128 + 2).append('[');
+    for (int i = 0; i < items.size(); i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      Object item = items.getValue(i);
+      String error;
+      if (item instanceof JsonObject) {
+        JsonObject conversion = (JsonObject) item;
+        Object amount = conversion.getValue("amount", 1.0);
+        try {
+          error = appendConversion(json, conversion.getString("from"), conversion.getString("to"),
+            amount instanceof Number ? ((Number) amount).doubleValue() : Double.NaN);
+        } catch (ClassCastException e) {
+          error = "from and to must be currency codes";
+        }
+      } else {
+        error = "expected an object";
+      }
+      if (error != null) {
+        json.append(new JsonObject().put("error", error).encode());
+      }
+    }
+    context.response().putHeader("Content-Type", "application/json").end(json.append(']').toString());
+  }
+
+  /**
+   * Appends the conversion result to {@code json}.
+   *
+   * @return the reason the amount cannot be converted, {@code null} when it was
+   */
+  private String appendConversion(StringBuilder json, String fromCode, String toCode, double amount) {
+    if (fromCode == null || toCode == null) {
+      return "from and to are required";
+    }
+    Currency from = Currency.fromCode(fromCode);
+    Currency to = Currency.fromCode(toCode);
+    if (from == null || to == null) {
+      return "unknown currency " + (from == null ? fromCode : toCode);
+    }
+    if (!Double.isFinite(amount)) {
+      return "amount must be a number";
+    }
+    double rate = crossRates.getRate(from, to);
+    if (Double.isNaN(rate)) {
+      return "no rate for " + from + " to " + to;
+    }
+    // JSON has no literal for infinities, so a result overflowing a double is refused rather than written
+    double result = crossRates.convert(from, to, amount);
+    if (!Double.isFinite(result)) {
+      return "amount too large to convert";
+    }
+    json.append("{\"from\":\"").append(from.name())
+      .append("\",\"to\":\"").append(to.name())
+      .append("\",\"amount\":").append(amount)
+      .append(",\"rate\":").append(rate)
+      .append(",\"result\":").append(result);
+    if (crossRates.getDate() != null) {
+      json.append(",\"date\":\"").append(crossRates.getDate()).append('"');
+    }
+    json.append('}');
+    return null;
+  }
+
+  private static void error(RoutingContext context, int status, String message) {
+    context.response()
+      .setStatusCode(status)
+      .putHeader("Content-Type", "application/json")
+      .end(new JsonObject().put("error", message).encode());
+  }
+}
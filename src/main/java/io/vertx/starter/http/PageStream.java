@@ -0,0 +1,150 @@
+package io.vertx.starter.http;
+
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.starter.database.models.Page;
+import io.vertx.starter.database.services.WikiDatabaseService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.UUID;
+
+/**
+ * Writes a page too large to be held in memory as a chunked response. The page template is rendered with
+ * {@link #HTML_MARKER} and {@link #MARKDOWN_MARKER} in place of the page HTML and Markdown, and both are read from the
+ * database service chunk by chunk into the gaps. The next chunk is only read once the response can take it, so a
+ * request holds one chunk at a time whatever the size of the page.
+ *
+ * Every chunk is read from the version of the page given at start. Should the page be saved before the first chunk,
+ * nothing is written yet and the page is loaded whole instead; should it be saved later, the response is cut short:
+ * its status is already sent, and mixing two versions would be worse.
+ *
+ * Chunks are cut at UTF-16 positions, which may fall between the two halves of a surrogate pair. A chunk ending with
+ * a high surrogate is written without it, and the next chunk read from it, so that no character is split in two.
+ */
+public class PageStream {
+  public static final String HTML_MARKER = "<!--" + UUID.randomUUID() + "-->";
+  public static final String MARKDOWN_MARKER = "<!--" + UUID.randomUUID() + "-->";
+  private static final Logger log = LogManager.getLogger(PageStream.class);
+  private static final String HTML = "html";
+  private static final String MARKDOWN = "markdown";
+
+  private final WikiDatabaseService dbService;
+  private final int chunkSize;
+  private final RoutingContext context;
+  private final HttpServerResponse response;
+  private final Page page;
+
+  /**
+   * @param page the version of the page to write, as given by {@link WikiDatabaseService#fetchPageFields}
+   */
+  public PageStream(WikiDatabaseService dbService, int chunkSize, RoutingContext context, Page page) {
+    this.dbService = dbService;
+    this.chunkSize = chunkSize;
+    this.context = context;
+    this.response = context.response();
+    this.page = page;
+  }
+
+  /**
+   * Writes the page into {@code template}, the page template rendered with the markers. When the page HTML has not
+   * been rendered yet or the version is gone, nothing is written and {@code unstreamable} runs instead.
+   */
+  public void start(String template, Runnable unstreamable) {
+    int html = template.indexOf(HTML_MARKER);
+    int markdown = template.indexOf(MARKDOWN_MARKER, html);
+    if (html < 0 || markdown < 0) {
+      context.fail(new IllegalStateException("The page template lost its content markers"));
+      return;
+    }
+    String head = template.substring(0, html);
+    String middle = template.substring(html + HTML_MARKER.length(), markdown);
+    String tail = template.substring(markdown + MARKDOWN_MARKER.length());
+
+    dbService.fetchPageChunk(request(HTML, 0), first -> {
+      if (response.closed()) {
+        return;
+      }
+      if (first.failed()) {
+        if (first.cause() instanceof ReplyException && ((ReplyException) first.cause()).failureCode() == 404) {
+          unstreamable.run();
+        } else {
+          context.fail(first.cause());
+        }
+        return;
+      }
+      if (first.result() == null) {
+        unstreamable.run();
+        return;
+      }
+      String etag = ConditionalGet.etag(page.getId(), page.getVersion());
+      ConditionalGet.putValidators(response, etag, page.getUpdated());
+      response.setChunked(true)
+        .putHeader("Content-Type", "text/html")
+        .putHeader("Vary", "Accept-Encoding")
+        .write(head);
+      written(HTML, 0, first.result(), () -> {
+        response.write(middle);
+        read(MARKDOWN, 0, () -> response.end(tail));
+      });
+    });
+  }
+
+  private void read(String part, int offset, Runnable next) {
+    dbService.fetchPageChunk(request(part, offset), res -> {
+      if (response.closed()) {
+        // the client went away
+        return;
+      }
+      if (res.failed()) {
+        log.warn("Cutting page {} short at {} {}: {}", page.getName(), part, offset, res.cause().getMessage());
+        // a reset only exists in HTTP/2, so that HTTP/1.x clients are told by closing the connection
+        if (context.request().version() == HttpVersion.HTTP_2) {
+          response.reset();
+        } else {
+          response.close();
+        }
+      } else if (res.result() == null) {
+        next.run();
+      } else {
+        written(part, offset, res.result(), next);
+      }
+    });
+  }
+
+  /**
+   * Writes a chunk and reads the following one once the response can take more, or runs {@code next} after the last,
+   * which is empty: the service may cap the chunk length, so a short chunk does not tell the end.
+   */
+  private void written(String part, int offset, String chunk, Runnable next) {
+    if (chunk.isEmpty()) {
+      next.run();
+      return;
+    }
+    int length = chunk.length();
+    if (length > 1 && Character.isHighSurrogate(chunk.charAt(length - 1))) {
+      length--;
+    }
+    response.write(length == chunk.length() ? chunk : chunk.substring(0, length));
+    int end = offset + length;
+    Runnable more = () -> read(part, end, next);
+    if (response.writeQueueFull()) {
+      response.drainHandler(v -> more.run());
+    } else {
+      more.run();
+    }
+  }
+
+  private JsonObject request(String part, int offset) {
+    return new JsonObject()
+      .put("id", page.getId())
+      .put("name", page.getName())
+      .put("version", page.getVersion())
+      .put("part", part)
+      .put("offset", offset)
+      .put("length", chunkSize);
+  }
+}
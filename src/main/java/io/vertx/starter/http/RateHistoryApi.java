@@ -0,0 +1,135 @@
+package io.vertx.starter.http;
+
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.starter.history.RateHistory;
+import io.vertx.starter.history.RateStats;
+import io.vertx.starter.models.Currency;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Exchange rate history endpoints, read straight from the {@link RateHistory} mapping:
+ * <ul>
+ *   <li>{@code GET /api/rates/history?currency=EUR} with the {@code date} and {@code rate} of each recorded day</li>
+ *   <li>{@code GET /api/rates/history/stats?currency=EUR} with the {@code count}, {@code min}, {@code max} and
+ *   {@code average} rate</li>
+ * </ul>
+ * Both cover {@code from} to {@code to} (ISO dates, inclusive) when given, otherwise the last {@code days} days up to
+ * today, 365 by default. Rates are against the base currency of the latest snapshot.
+ */
+public class RateHistoryApi {
+  private static final int DEFAULT_DAYS = 365;
+
+  private final RateHistory history;
+
+  public RateHistoryApi(RateHistory history) {
+    this.history = history;
+  }
+
+  public void historyHandler(RoutingContext context) {
+    Query query = query(context);
+    if (query == null) {
+      return;
+    }
+    StringBuilder json = new StringBuilder(128 + (int) Math.min(query.days(), 4096) * 40);
+    query.appendHeader(json, history.latestBase()).append(",\"points\":[");
+    int length = json.length();
+    history.forEach(query.currency, query.from, query.to, (day, rate) -> {
+      if (json.length() > length) {
+        json.append(',');
+      }
+      json.append("{\"date\":\"").append(LocalDate.ofEpochDay(day)).append("\",\"rate\":").append(rate).append('}');
+    });
+    context.response().putHeader("Content-Type", "application/json").end(json.append("]}").toString());
+  }
+
+  public void statsHandler(RoutingContext context) {
+    Query query = query(context);
+    if (query == null) {
+      return;
+    }
+    RateStats stats = history.stats(query.currency, query.from, query.to);
+    StringBuilder json = new StringBuilder(256);
+    query.appendHeader(json, history.latestBase()).append(",\"count\":").append(stats.getCount());
+    if (stats.getCount() > 0) {
+      json.append(",\"min\":").append(stats.getMin())
+        .append(",\"max\":").append(stats.getMax())
+        .append(",\"average\":").append(stats.getAverage());
+    }
+    context.response().putHeader("Content-Type", "application/json").end(json.append('}').toString());
+  }
+
+  /**
+   * The currency and date range asked for, {@code null} once the request has been answered with an error.
+   */
+  private static Query query(RoutingContext context) {
+    HttpServerRequest request = context.request();
+    String code = request.getParam("currency");
+    Currency currency = code == null ? null : Currency.fromCode(code);
+    if (currency == null) {
+      error(context, code == null ? "currency is required" : "unknown currency " + code);
+      return null;
+    }
+    LocalDate from;
+    LocalDate to;
+    try {
+      to = request.getParam("to") == null ? LocalDate.now() : LocalDate.parse(request.getParam("to"));
+      if (request.getParam("from") != null) {
+        from = LocalDate.parse(request.getParam("from"));
+      } else {
+        String days = request.getParam("days");
+        int count = days == null ? DEFAULT_DAYS : Integer.parseInt(days);
+        if (count < 1) {
+          error(context, "days must be positive");
+          return null;
+        }
+        from = to.minusDays(count - 1);
+      }
+    } catch (DateTimeException e) {
+      error(context, "from and to must be dates such as 2019-12-31");
+      return null;
+    } catch (NumberFormatException e) {
+      error(context, "days must be a number");
+      return null;
+    }
+    if (from.isAfter(to)) {
+      error(context, "from must not be after to");
+      return null;
+    }
+    return new Query(currency, from, to);
+  }
+
+  private static void error(RoutingContext context, String message) {
+    context.response()
+      .setStatusCode(400)
+      .putHeader("Content-Type", "application/json")
+      .end(new JsonObject().put("error", message).encode());
+  }
+
+  private static class Query {
+    private final Currency currency;
+    private final LocalDate from;
+    private final LocalDate to;
+
+    private Query(Currency currency, LocalDate from, LocalDate to) {
+      this.currency = currency;
+      this.from = from;
+      this.to = to;
+    }
+
+    private long days() {
+      return to.toEpochDay() - from.toEpochDay() + 1;
+    }
+
+    private StringBuilder appendHeader(StringBuilder json, Currency base) {
+      json.append("{\"currency\":\"").append(currency.name()).append('"');
+      if (base != null) {
+        json.append(",\"base\":\"").append(base.name()).append('"');
+      }
+      return json.append(",\"from\":\"").append(from).append("\",\"to\":\"").append(to).append('"');
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package io.vertx.starter.http;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Complements the HTTP server's on-the-fly compression: small responses are left uncompressed and
+ * stored pages are served from a copy that was gzipped once.
+ *
+ * The server compressor leaves alone any response that already has a Content-Encoding header, which is how
+ * both the threshold ({@code identity}) and the precompressed bodies ({@code gzip}) bypass it.
+ */
+public final class ResponseCompression {
+  public static final String GZIP = "gzip";
+
+  private ResponseCompression() {
+  }
+
+  /**
+   * Route handler opting responses shorter than {@code minSize} bytes out of compression.
+   * Streamed responses have no Content-Length when their headers are written and are compressed as usual.
+   */
+  public static Handler<RoutingContext> threshold(int minSize) {
+    return context -> {
+      HttpServerResponse response = context.response();
+      context.addHeadersEndHandler(v -> {
+        String length = response.headers().get(HttpHeaders.CONTENT_LENGTH);
+        if (length != null && !response.headers().contains(HttpHeaders.CONTENT_ENCODING) && Long.parseLong(length) < minSize) {
+          response.putHeader(HttpHeaders.CONTENT_ENCODING, HttpHeaders.IDENTITY);
+        }
+      });
+      context.next();
+    };
+  }
+
+  public static Buffer gzip(Buffer body) {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length() / 4 + 64);
+    try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+      out.write(body.getBytes());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return Buffer.buffer(compressed.toByteArray());
+  }
+
+  /**
+   * Whether the request accepts gzip, see {@link #acceptsGzip(String)}.
+   */
+  public static boolean acceptsGzip(HttpServerRequest request) {
+    return acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+  }
+
+  /**
+   * Whether an Accept-Encoding header value accepts gzip: listed with a non-zero quality, or not listed while
+   * {@code *} is. An explicit {@code gzip} wins over {@code *} whatever their order, so {@code *;q=0, gzip} accepts
+   * gzip and {@code gzip;q=0, *} does not.
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    Double gzip = null;
+    Double any = null;
+    for (String candidate : acceptEncoding.split(",")) {
+      String[] parts = candidate.trim().split(";");
+      String coding = parts[0].trim();
+      if (coding.equalsIgnoreCase(GZIP)) {
+        gzip = quality(parts);
+      } else if (coding.equals("*")) {
+        any = quality(parts);
+      }
+    }
+    if (gzip != null) {
+      return gzip > 0;
+    }
+    return any != null && any > 0;
+  }
+
+  /**
+   * The {@code q} parameter of a coding, 1 when it is missing and 0 when it cannot be read.
+   */
+  private static double quality(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q'
+        && parameter.substring(1).trim().startsWith("=")) {
+        try {
+          return Double.parseDouble(parameter.substring(parameter.indexOf('=') + 1).trim());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+}
@@ -0,0 +1,44 @@
+package io.vertx.starter.http;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.starter.metrics.WikiMetrics;
+
+/**
+ * Times requests per route, from the time they are routed to the end of the response body.
+ */
+public final class RouteMetrics {
+  private static final String UNMATCHED = "unmatched";
+  private static final String ROUTE_PATH = "routeMetrics.path";
+
+  private RouteMetrics() {
+  }
+
+  /**
+   * Route handler recording the request latency under the path of the last route that handled it, e.g.
+   * {@code /wiki/:page}, so that the number of series does not grow with the pages. The path is the one put down by
+   * {@link #matched()}; requests that reached no route with a path (404s) are recorded as {@code unmatched}.
+   */
+  public static Handler<RoutingContext> handler() {
+    return context -> {
+      long start = System.nanoTime();
+      context.addBodyEndHandler(v -> {
+        String path = context.get(ROUTE_PATH);
+        WikiMetrics.recordHttpRequest(path == null ? UNMATCHED : path, context.request().rawMethod(),
+          context.response().getStatusCode(), start);
+      });
+      context.next();
+    };
+  }
+
+  /**
+   * Handler to put first on every route with a path, recording the path for {@link #handler()} while the route is
+   * being handled: once routing is over, a failure that no failure handler took included, the route is gone.
+   */
+  public static Handler<RoutingContext> matched() {
+    return context -> {
+      context.put(ROUTE_PATH, context.currentRoute().getPath());
+      context.next();
+    };
+  }
+}
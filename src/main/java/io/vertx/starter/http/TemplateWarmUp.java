@@ -0,0 +1,89 @@
+package io.vertx.starter.http;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.templ.freemarker.FreeMarkerTemplateEngine;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders every template with sample data, so that the engine compiles and caches them and the first visitors do not
+ * wait for it. Each HTTP server instance has its own engine, hence its own warm-up. The templates are listed here, as
+ * a directory on the class path cannot be listed once packaged in a jar: a new template has to be added to
+ * {@link #TEMPLATES}.
+ *
+ * Best effort: a template that fails to render is logged and skipped, its request will report the error.
+ */
+public class TemplateWarmUp {
+  private static final Logger log = LogManager.getLogger(TemplateWarmUp.class);
+  static final List<String> TEMPLATES = Collections.unmodifiableList(Arrays.asList(
+    "templates/footer.ftl",
+    "templates/header.ftl",
+    "templates/index.ftl",
+    "templates/page.ftl",
+    "templates/search.ftl"));
+
+  private final Vertx vertx;
+  private final FreeMarkerTemplateEngine templateEngine;
+  private final int renders;
+
+  /**
+   * @param renders renders of each template, the first one compiling it
+   */
+  public TemplateWarmUp(Vertx vertx, FreeMarkerTemplateEngine templateEngine, int renders) {
+    this.vertx = vertx;
+    this.templateEngine = templateEngine;
+    this.renders = renders;
+  }
+
+  public void run(Handler<AsyncResult<Void>> handler) {
+    render(TEMPLATES, 0, 0, handler);
+  }
+
+  private void render(List<String> templates, int index, int round, Handler<AsyncResult<Void>> handler) {
+    if (index == templates.size()) {
+      if (round + 1 < renders) {
+        render(templates, 0, round + 1, handler);
+      } else {
+        log.debug("Warmed up {} templates", templates.size());
+        handler.handle(Future.succeededFuture());
+      }
+      return;
+    }
+    String template = templates.get(index);
+    templateEngine.render(sampleData(), template, rendered -> {
+      if (rendered.failed() && round == 0) {
+        log.warn("Could not warm up {}: {}", template, rendered.cause().getMessage());
+      }
+      // the next render runs on its own turn of the event loop, letting requests in between
+      vertx.runOnContext(v -> render(templates, index + 1, round, handler));
+    });
+  }
+
+  /**
+   * Data for any of the templates, as put in the routing context by the page handlers.
+   */
+  private static Map<String, Object> sampleData() {
+    Map<String, Object> page = new HashMap<>();
+    page.put("name", "Warm-up");
+    Map<String, Object> data = new HashMap<>();
+    data.put("title", "Warm-up");
+    data.put("id", -1);
+    data.put("newPage", "true");
+    data.put("rawContent", "# Warm-up\n");
+    data.put("content", "<h1>Warm-up</h1>\n");
+    data.put("timestamp", "");
+    data.put("pages", Collections.singletonList(page));
+    data.put("results", Collections.singletonList(page));
+    data.put("query", "warm-up");
+    return data;
+  }
+}
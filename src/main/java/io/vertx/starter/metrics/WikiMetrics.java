@@ -0,0 +1,95 @@
+package io.vertx.starter.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.VertxPrometheusOptions;
+import io.vertx.micrometer.backends.BackendRegistries;
+import io.vertx.starter.database.enums.SqlQuery;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Application timers, registered in the Vert.x Micrometer registry next to the Vert.x metrics and scraped from
+ * {@code /metrics}. Without Vert.x metrics (e.g. in benchmarks) they go to the global registry, which drops them
+ * unless a registry was added to it.
+ */
+public final class WikiMetrics {
+  private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+  private WikiMetrics() {
+  }
+
+  /**
+   * Vert.x metrics with a Prometheus registry and JVM metrics, for the {@code VertxOptions} of the application.
+   */
+  public static MicrometerMetricsOptions options() {
+    return new MicrometerMetricsOptions()
+      .setPrometheusOptions(new VertxPrometheusOptions().setEnabled(true))
+      .setJvmMetricsEnabled(true)
+      .setEnabled(true);
+  }
+
+  public static void recordHttpRequest(String route, String method, int status, long startNanos) {
+    record(startNanos, "wiki.http.requests", "route", route, "method", method, "status", String.valueOf(status));
+  }
+
+  public static void recordQuery(SqlQuery query, boolean succeeded, long startNanos) {
+    record(startNanos, "wiki.db.queries", "query", query.name(), "outcome", outcome(succeeded));
+  }
+
+  public static void recordPoolWait(long startNanos) {
+    record(startNanos, "wiki.db.pool.wait");
+  }
+
+  /**
+   * Saturation gauges of the database connection pool: busy and idle connections, callers waiting for a connection and
+   * the pool size limit. The gauges only hold a weak reference to the pool.
+   */
+  public static <T> void registerPoolGauges(String provider, T pool, ToDoubleFunction<T> busy, ToDoubleFunction<T> idle,
+                                            ToDoubleFunction<T> pending, int maxSize) {
+    MeterRegistry registry = registry();
+    Gauge.builder("wiki.db.pool.connections", pool, busy).tags("provider", provider, "state", "busy").register(registry);
+    Gauge.builder("wiki.db.pool.connections", pool, idle).tags("provider", provider, "state", "idle").register(registry);
+    Gauge.builder("wiki.db.pool.pending", pool, pending).tags("provider", provider).register(registry);
+    Gauge.builder("wiki.db.pool.max", pool, p -> maxSize).tags("provider", provider).register(registry);
+  }
+
+  public static void recordServiceCall(String method, boolean succeeded, long startNanos) {
+    record(startNanos, "wiki.db.service.calls", "method", method, "outcome", outcome(succeeded));
+  }
+
+  public static void recordExchangeRateFetch(boolean succeeded, long startNanos) {
+    record(startNanos, "wiki.exchange_rate.fetches", "outcome", outcome(succeeded));
+  }
+
+  /**
+   * Age in seconds of the exchange rates in use, {@code NaN} until there are any.
+   */
+  public static <T> void registerExchangeRateAge(T owner, ToDoubleFunction<T> ageSeconds) {
+    Gauge.builder("wiki.exchange_rate.age", owner, ageSeconds).baseUnit("seconds").register(registry());
+  }
+
+  private static void record(long startNanos, String name, String... tags) {
+    String key = tags.length == 0 ? name : name + '|' + String.join("|", tags);
+    timers.computeIfAbsent(key, k -> Timer.builder(name)
+      .tags(tags)
+      .publishPercentileHistogram()
+      .register(registry()))
+      .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  private static MeterRegistry registry() {
+    MeterRegistry registry = BackendRegistries.getDefaultNow();
+    return registry != null ? registry : Metrics.globalRegistry;
+  }
+
+  private static String outcome(boolean succeeded) {
+    return succeeded ? "success" : "failure";
+  }
+}
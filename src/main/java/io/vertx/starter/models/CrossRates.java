@@ -0,0 +1,63 @@
+package io.vertx.starter.models;
+
+import java.time.LocalDate;
+
+/**
+ * Conversion rates between every pair of currencies, derived once from a {@link Rates} snapshot: converting from
+ * {@code from} to {@code to} multiplies by {@code rate(to) / rate(from)}, the base currency having a rate of 1.
+ * The rates are held in one flat array indexed by {@code from * count + to}, so that a conversion is an array read
+ * and a multiplication. A pair involving a currency without a quote has a {@code NaN} rate; so does a currency quoted
+ * at zero, a negative or an infinite rate, which could only come from a broken feed and would otherwise turn into
+ * infinite cross rates.
+ *
+ * Immutable, like the rates it is built from.
+ */
+public class CrossRates {
+  private final LocalDate date;
+  private final int count;
+  private final double[] matrix;
+
+  private CrossRates(LocalDate date, int count, double[] matrix) {
+    this.date = date;
+    this.count = count;
+    this.matrix = matrix;
+  }
+
+  public static CrossRates of(Rates rates) {
+    int count = Currency.count();
+    double[] quotes = new double[count];
+    for (int i = 0; i < count; i++) {
+      double quote = rates.getRate(i);
+      quotes[i] = quote > 0 && quote < Double.POSITIVE_INFINITY ? quote : Double.NaN;
+    }
+    if (rates.getBase() != null) {
+      quotes[rates.getBase().ordinal()] = 1.0;
+    }
+    double[] matrix = new double[count * count];
+    for (int from = 0; from < count; from++) {
+      for (int to = 0; to < count; to++) {
+        matrix[from * count + to] = from == to ? 1.0 : quotes[to] / quotes[from];
+      }
+    }
+    return new CrossRates(rates.getDate(), count, matrix);
+  }
+
+  /**
+   * @return how much of {@code to} one unit of {@code from} buys, or {@code NaN} when either is not quoted
+   */
+  public double getRate(Currency from, Currency to) {
+    return matrix[from.ordinal() * count + to.ordinal()];
+  }
+
+  /**
+   * @return {@code amount} of {@code from} in {@code to}, which may be infinite when the amount is large enough to
+   * overflow
+   */
+  public double convert(Currency from, Currency to, double amount) {
+    return amount * matrix[from.ordinal() * count + to.ordinal()];
+  }
+
+  public LocalDate getDate() {
+    return date;
+  }
+}
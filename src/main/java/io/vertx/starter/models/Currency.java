@@ -0,0 +1,58 @@
+package io.vertx.starter.models;
+
+/**
+ * Currencies quoted by the exchange rate API. The ordinal is the index of the currency in {@link Rates}
+ * and on the wire, so new currencies must be appended.
+ */
+public enum Currency {
+  AUD, BGN, BRL, CAD, CHF, CNY, CZK, DKK, EUR, GBP, HKD, HRK, HUF, IDR, ILS, INR, ISK,
+  JPY, KRW, MXN, MYR, NOK, NZD, PHP, PLN, RON, RUB, SEK, SGD, THB, TRY, USD, ZAR;
+
+  private static final Currency[] VALUES = values();
+  private static final int LETTERS = 26;
+  /**
+   * Every three-letter code packed as base-26 digits, so that looking up a code on each conversion request is a
+   * few arithmetic operations and one array read.
+   */
+  private static final Currency[] BY_CODE = new Currency[LETTERS * LETTERS * LETTERS];
+
+  static {
+    for (Currency currency : VALUES) {
+      BY_CODE[pack(currency.name())] = currency;
+    }
+  }
+
+  public static int count() {
+    return VALUES.length;
+  }
+
+  public static Currency of(int ordinal) {
+    return VALUES[ordinal];
+  }
+
+  /**
+   * @return the currency, or {@code null} for a code outside of the table
+   */
+  public static Currency fromCode(String code) {
+    if (code == null || code.length() != 3) {
+      return null;
+    }
+    int packed = pack(code);
+    return packed < 0 ? null : BY_CODE[packed];
+  }
+
+  /**
+   * @return the index of an upper-case three-letter code in {@link #BY_CODE}, or -1 for any other code
+   */
+  private static int pack(String code) {
+    int packed = 0;
+    for (int i = 0; i < 3; i++) {
+      int letter = code.charAt(i) - 'A';
+      if (letter < 0 || letter >= LETTERS) {
+        return -1;
+      }
+      packed = packed * LETTERS + letter;
+    }
+    return packed;
+  }
+}
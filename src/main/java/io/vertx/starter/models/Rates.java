@@ -1,59 +1,105 @@
 package io.vertx.starter.models;
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
-import io.vertx.starter.models.codecs.RateMessageCodec;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.Shareable;
 
-import java.math.BigDecimal;
-import java.util.Date;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
+ * Snapshot of the exchange rates against one base currency, one slot per {@link Currency}.
+ * A currency without a quote holds {@code NaN}.
+ *
+ * Shared by reference through the local map, so it is immutable.
+ *
  * @author Radostin Dimkov on 16.12.19
  */
-@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
-@JsonIgnoreProperties(ignoreUnknown = true)
-public class Rates extends RateMessageCodec {
-  @JsonProperty("base")
-  private String base;
+public class Rates implements Shareable {
+  private final Currency base;
+  private final LocalDate date;
+  private final double[] rates;
 
-  @JsonProperty("date")
-  private Date date;
-
-  @JsonProperty("rates")
-  private Map<String, BigDecimal> rates;
+  /**
+   * @param rates one rate per currency, indexed by ordinal; the array is kept, not copied
+   */
+  public Rates(Currency base, LocalDate date, double[] rates) {
+    if (rates.length != Currency.count()) {
+      throw new IllegalArgumentException("Expected " + Currency.count() + " rates, got " + rates.length);
+    }
+    this.base = base;
+    this.date = date;
+    this.rates = rates;
+  }
 
-  public String getBase() {
-    return base;
+  /**
+   * Reads the exchange rate API response. Currencies outside of the table are skipped.
+   */
+  public static Rates fromJson(JsonObject json) {
+    double[] rates = new double[Currency.count()];
+    Arrays.fill(rates, Double.NaN);
+    for (Map.Entry<String, Object> entry : json.getJsonObject("rates", new JsonObject())) {
+      Currency currency = Currency.fromCode(entry.getKey());
+      if (currency != null && entry.getValue() instanceof Number) {
+        rates[currency.ordinal()] = ((Number) entry.getValue()).doubleValue();
+      }
+    }
+    String date = json.getString("date");
+    return new Rates(Currency.fromCode(json.getString("base")), date == null ? null : LocalDate.parse(date), rates);
   }
 
-  public void setBase(String base) {
-    this.base = base;
+  /**
+   * The exchange rate API representation, read back by {@link #fromJson(JsonObject)}.
+   */
+  public JsonObject toJson() {
+    JsonObject quotes = new JsonObject();
+    for (int i = 0; i < rates.length; i++) {
+      if (!Double.isNaN(rates[i])) {
+        quotes.put(Currency.of(i).name(), rates[i]);
+      }
+    }
+    JsonObject json = new JsonObject().put("rates", quotes);
+    if (base != null) {
+      json.put("base", base.name());
+    }
+    if (date != null) {
+      json.put("date", date.toString());
+    }
+    return json;
   }
 
-  public Date getDate() {
-    return date;
+  public Currency getBase() {
+    return base;
   }
 
-  public void setDate(Date date) {
-    this.date = date;
+  public LocalDate getDate() {
+    return date;
   }
 
-  public Map<String, BigDecimal> getRates() {
-    return rates;
+  /**
+   * @return how much of the currency one unit of the base currency buys, or {@code NaN} when it is not quoted
+   */
+  public double getRate(Currency currency) {
+    return rates[currency.ordinal()];
   }
 
-  public void setRates(Map<String, BigDecimal> rates) {
-    this.rates = rates;
+  /**
+   * Rate by {@link Currency#ordinal()}, for callers walking the whole table.
+   */
+  public double getRate(int ordinal) {
+    return rates[ordinal];
   }
 
   @Override
   public String toString() {
-    return "Rates{" +
-      "base='" + base + '\'' +
-      ", date=" + date +
-      ", rates=" + rates +
-      '}';
+    StringBuilder builder = new StringBuilder("Rates{base=").append(base).append(", date=").append(date).append(", rates={");
+    String separator = "";
+    for (int i = 0; i < rates.length; i++) {
+      if (!Double.isNaN(rates[i])) {
+        builder.append(separator).append(Currency.of(i)).append('=').append(rates[i]);
+        separator = ", ";
+      }
+    }
+    return builder.append("}}").toString();
   }
 }
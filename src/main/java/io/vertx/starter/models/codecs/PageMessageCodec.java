@@ -0,0 +1,80 @@
+package io.vertx.starter.models.codecs;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.starter.database.models.Page;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary codec for {@link Page}: a length prefix followed by the fixed-size fields and the length-prefixed
+ * UTF-8 strings, {@code -1} standing for {@code null}. Local deliveries get the very same instance.
+ */
+public class PageMessageCodec implements MessageCodec<Page, Page> {
+  private static final int NULL_LENGTH = -1;
+
+  @Override
+  public void encodeToWire(Buffer buffer, Page page) {
+    int start = buffer.length();
+    buffer.appendInt(0)
+      .appendByte((byte) (page.isNewPage() ? 1 : 0))
+      .appendInt(page.getId())
+      .appendInt(page.getVersion())
+      .appendLong(page.getUpdated())
+      .appendLong(page.getSize());
+    appendString(buffer, page.getName());
+    appendString(buffer, page.getMarkdown());
+    appendString(buffer, page.getHtml());
+    buffer.setInt(start, buffer.length() - start - 4);
+  }
+
+  @Override
+  public Page decodeFromWire(int position, Buffer buffer) {
+    int pos = position + 4;
+    Page page = new Page().setNewPage(buffer.getByte(pos) == 1);
+    pos += 1;
+    page.setId(buffer.getInt(pos));
+    pos += 4;
+    page.setVersion(buffer.getInt(pos));
+    pos += 4;
+    page.setUpdated(buffer.getLong(pos));
+    pos += 8;
+    page.setSize(buffer.getLong(pos));
+    pos += 8;
+
+    String[] strings = new String[3];
+    for (int i = 0; i < strings.length; i++) {
+      int length = buffer.getInt(pos);
+      pos += 4;
+      if (length != NULL_LENGTH) {
+        strings[i] = buffer.getString(pos, pos + length, "UTF-8");
+        pos += length;
+      }
+    }
+    return page.setName(strings[0]).setMarkdown(strings[1]).setHtml(strings[2]);
+  }
+
+  @Override
+  public Page transform(Page page) {
+    return page;
+  }
+
+  @Override
+  public String name() {
+    return this.getClass().getSimpleName();
+  }
+
+  @Override
+  public byte systemCodecID() {
+    return -1;
+  }
+
+  private static void appendString(Buffer buffer, String value) {
+    if (value == null) {
+      buffer.appendInt(NULL_LENGTH);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      buffer.appendInt(bytes.length).appendBytes(bytes);
+    }
+  }
+}
@@ -2,52 +2,53 @@ package io.vertx.starter.models.codecs;
 
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.MessageCodec;
-import io.vertx.core.json.JsonObject;
+import io.vertx.starter.models.Currency;
 import io.vertx.starter.models.Rates;
 
-import java.math.BigDecimal;
-import java.util.Date;
-import java.util.Map;
+import java.time.LocalDate;
+import java.util.Arrays;
 
 /**
+ * Binary codec for {@link Rates}: the base currency ordinal, the date as an epoch day, then the number of
+ * currencies and one double per currency. Currencies unknown to the receiver are dropped, missing ones are {@code NaN}.
+ *
  * @author Radostin Dimkov on 13.12.19
  */
 public class RateMessageCodec implements MessageCodec<Rates, Rates> {
-  private static final String BASE = "base";
-  private static final String DATE = "date";
-  private static final String RATES = "rates";
+  private static final byte NO_BASE = -1;
+  private static final long NO_DATE = Long.MIN_VALUE;
 
   @Override
   public void encodeToWire(Buffer buffer, Rates rates) {
-      JsonObject jsonObj = new JsonObject();
-      jsonObj.put(BASE, rates.getBase());
-      jsonObj.put(DATE, rates.getDate());
-      jsonObj.put(RATES, rates.getRates());
-
-      String encodedJsonObj = jsonObj.encode();
-      int strLength = encodedJsonObj.length();
-
-      buffer.appendInt(strLength);
-      buffer.appendString(encodedJsonObj);
+    buffer.appendByte(rates.getBase() == null ? NO_BASE : (byte) rates.getBase().ordinal());
+    buffer.appendLong(rates.getDate() == null ? NO_DATE : rates.getDate().toEpochDay());
+    buffer.appendShort((short) Currency.count());
+    for (int i = 0; i < Currency.count(); i++) {
+      buffer.appendDouble(rates.getRate(i));
+    }
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public Rates decodeFromWire(int position, Buffer buffer) {
-    int strLength = buffer.getInt(0);
-    String encodedJsonObj = buffer.getString(1, strLength + 1);
-    JsonObject jsonObj = new JsonObject(encodedJsonObj);
-    Rates rates = new Rates();
-    rates.setBase(jsonObj.getString(BASE));
-    rates.setDate((Date) jsonObj.getValue(DATE));
-    rates.setRates((Map<String, BigDecimal>) jsonObj.getValue(RATES));
-    return rates;
+    int pos = position;
+    byte base = buffer.getByte(pos);
+    pos += 1;
+    long epochDay = buffer.getLong(pos);
+    pos += 8;
+    int count = buffer.getShort(pos);
+    pos += 2;
+    double[] rates = new double[Currency.count()];
+    Arrays.fill(rates, Double.NaN);
+    for (int i = 0; i < Math.min(count, rates.length); i++) {
+      rates[i] = buffer.getDouble(pos + i * 8);
+    }
+    return new Rates(base == NO_BASE || base >= Currency.count() ? null : Currency.of(base),
+      epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay), rates);
   }
 
   @Override
   public Rates transform(Rates rates) {
-    // If a message is sent *locally* across the event bus.
-    // This example sends message just as is
+    // Rates is immutable, local consumers get the same instance
     return rates;
   }
 
@@ -0,0 +1,257 @@
+package io.vertx.starter.search;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.AsyncFile;
+import io.vertx.core.file.OpenOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.jdbc.JDBCClient;
+import io.vertx.starter.database.enums.SqlQuery;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@link SearchIndex} persisted as a snapshot file plus an append-only journal of page updates.
+ *
+ * Every update is applied in memory and appended to the journal. Once the journal grows past a threshold it is
+ * folded into a new snapshot. At start-up the snapshot is loaded and the journal replayed; the index is only rebuilt
+ * from the Pages table when there is no snapshot or when it does not match the number of pages.
+ */
+public class PersistentSearchIndex {
+  private static final Logger log = LogManager.getLogger(PersistentSearchIndex.class);
+  private static final String SNAPSHOT_FILE = "index.snapshot";
+  private static final String JOURNAL_FILE = "index.journal";
+  private static final int COMPACTION_THRESHOLD = 1000;
+  private static final int REBUILD_BATCH_SIZE = 200;
+
+  private final Vertx vertx;
+  private final Path snapshotPath;
+  private final Path journalPath;
+  private final SearchIndex index = new SearchIndex();
+  private final List<Buffer> pendingRecords = new ArrayList<>();
+
+  private AsyncFile journal;
+  private int journalRecords;
+  private boolean compacting;
+  private Handler<Void> compacted;
+  private Set<Integer> updatedDuringRebuild;
+
+  public PersistentSearchIndex(Vertx vertx, String directory) {
+    this.vertx = vertx;
+    this.snapshotPath = Paths.get(directory, SNAPSHOT_FILE);
+    this.journalPath = Paths.get(directory, JOURNAL_FILE);
+  }
+
+  /**
+   * Loads the persisted index. When it cannot be trusted, a rebuild from the database is started in the background
+   * and the handler completes right away, search results filling in as the rebuild progresses.
+   */
+  public void open(JDBCClient dbClient, Map<SqlQuery, String> sqlQueries, int expectedPages, Handler<AsyncResult<Void>> handler) {
+    vertx.<Boolean>executeBlocking(promise -> {
+      try {
+        Files.createDirectories(snapshotPath.getParent());
+        if (!Files.exists(snapshotPath)) {
+          promise.complete(false);
+          return;
+        }
+        index.restore(Buffer.buffer(Files.readAllBytes(snapshotPath)));
+        if (Files.exists(journalPath)) {
+          journalRecords = index.replay(Buffer.buffer(Files.readAllBytes(journalPath)));
+        }
+        promise.complete(true);
+      } catch (IOException | RuntimeException e) {
+        log.warn("Search index could not be loaded", e);
+        promise.complete(false);
+      }
+    }, loaded -> {
+      if (loaded.failed()) {
+        handler.handle(Future.failedFuture(loaded.cause()));
+        return;
+      }
+      openJournal(opened -> {
+        if (opened.failed()) {
+          handler.handle(Future.failedFuture(opened.cause()));
+          return;
+        }
+        if (loaded.result() && index.size() == expectedPages) {
+          log.info("Search index loaded with {} pages", index.size());
+        } else {
+          log.info("Rebuilding search index for {} pages", expectedPages);
+          index.clear();
+          updatedDuringRebuild = new HashSet<>();
+          rebuildAfter(-1, dbClient, sqlQueries);
+        }
+        handler.handle(Future.succeededFuture());
+      });
+    });
+  }
+
+  /**
+   * Indexes the page with its term {@code frequencies}, as counted by {@link Tokenizer#termFrequencies}: callers count
+   * them on a worker, as that takes time proportional to the page size.
+   */
+  public void put(int pageId, String name, Map<String, Integer> frequencies) {
+    index.put(pageId, name, frequencies);
+    if (updatedDuringRebuild != null) {
+      updatedDuringRebuild.add(pageId);
+    }
+    append(SearchIndex.putRecord(pageId, name, frequencies));
+  }
+
+  public void remove(int pageId) {
+    index.remove(pageId);
+    if (updatedDuringRebuild != null) {
+      updatedDuringRebuild.add(pageId);
+    }
+    append(SearchIndex.removeRecord(pageId));
+  }
+
+  public JsonArray search(String query, int limit) {
+    return index.search(query, limit);
+  }
+
+  /**
+   * Closes the journal, once a running compaction is done and the updates it held back are written.
+   */
+  public void close(Handler<AsyncResult<Void>> handler) {
+    if (compacting) {
+      compacted = v -> close(handler);
+    } else if (journal != null) {
+      journal.close(handler);
+      journal = null;
+    } else if (!pendingRecords.isEmpty()) {
+      // the journal could not be reopened after a compaction, one more try for the updates held back
+      openJournal(opened -> {
+        if (opened.failed()) {
+          handler.handle(opened);
+        } else {
+          writePending();
+          close(handler);
+        }
+      });
+    } else {
+      handler.handle(Future.succeededFuture());
+    }
+  }
+
+  private void append(Buffer record) {
+    if (journal == null || compacting) {
+      pendingRecords.add(record);
+    } else {
+      journal.write(record);
+    }
+    if (++journalRecords >= COMPACTION_THRESHOLD && !compacting && updatedDuringRebuild == null) {
+      compact();
+    }
+  }
+
+  /**
+   * Writes a fresh snapshot and starts a new journal. Updates arriving meanwhile are held back and written
+   * to the new journal, which is safe because replaying a record the snapshot already covers changes nothing.
+   * The snapshot is serialized and written on a worker, from a copy of the documents taken here.
+   */
+  private void compact() {
+    if (journal == null || compacting) {
+      return;
+    }
+    compacting = true;
+    SearchIndex.Documents documents = index.documents();
+    AsyncFile previousJournal = journal;
+    journal = null;
+    previousJournal.close(closed -> vertx.<Void>executeBlocking(promise -> {
+      try {
+        Path temporary = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        Files.write(temporary, documents.snapshot().getBytes());
+        Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(journalPath);
+        promise.complete();
+      } catch (IOException e) {
+        promise.fail(e);
+      }
+    }, written -> {
+      if (written.failed()) {
+        log.error("Search index snapshot failed", written.cause());
+      }
+      openJournal(opened -> {
+        compacting = false;
+        if (opened.failed()) {
+          log.error("Search index journal could not be reopened", opened.cause());
+        } else {
+          journalRecords = pendingRecords.size();
+          writePending();
+        }
+        if (compacted != null) {
+          Handler<Void> handler = compacted;
+          compacted = null;
+          handler.handle(null);
+        }
+      });
+    }));
+  }
+
+  private void writePending() {
+    pendingRecords.forEach(journal::write);
+    pendingRecords.clear();
+  }
+
+  private void openJournal(Handler<AsyncResult<Void>> handler) {
+    vertx.fileSystem().open(journalPath.toString(), new OpenOptions().setAppend(true).setCreate(true), opened -> {
+      if (opened.failed()) {
+        handler.handle(Future.failedFuture(opened.cause()));
+      } else {
+        journal = opened.result();
+        handler.handle(Future.succeededFuture());
+      }
+    });
+  }
+
+  private void rebuildAfter(int lastId, JDBCClient dbClient, Map<SqlQuery, String> sqlQueries) {
+    JsonArray params = new JsonArray().add(lastId).add(REBUILD_BATCH_SIZE);
+    dbClient.queryWithParams(sqlQueries.get(SqlQuery.PAGES_CONTENT_AFTER), params, res -> {
+      if (res.failed()) {
+        log.error("Search index rebuild failed", res.cause());
+        updatedDuringRebuild = null;
+        return;
+      }
+      List<JsonArray> rows = res.result().getResults();
+      vertx.<List<Map<String, Integer>>>executeBlocking(promise -> promise.complete(rows.stream()
+        .map(row -> Tokenizer.termFrequencies(row.getString(2)))
+        .collect(Collectors.toList())), false, tokenized -> {
+        if (tokenized.failed()) {
+          log.error("Search index rebuild failed", tokenized.cause());
+          updatedDuringRebuild = null;
+          return;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+          int pageId = rows.get(i).getInteger(0);
+          // Pages written since the rebuild started are already indexed with newer content
+          if (!updatedDuringRebuild.contains(pageId)) {
+            index.put(pageId, rows.get(i).getString(1), tokenized.result().get(i));
+          }
+        }
+        if (rows.size() == REBUILD_BATCH_SIZE) {
+          rebuildAfter(rows.get(rows.size() - 1).getInteger(0), dbClient, sqlQueries);
+        } else {
+          log.info("Search index rebuilt with {} pages", index.size());
+          updatedDuringRebuild = null;
+          compact();
+        }
+      });
+    });
+  }
+}
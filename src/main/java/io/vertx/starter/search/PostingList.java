@@ -0,0 +1,63 @@
+package io.vertx.starter.search;
+
+import java.util.Arrays;
+
+/**
+ * Unordered list of (document slot, term frequency) pairs for a single term.
+ *
+ * Each pair also records where the term sits in the term vector of its document, so that the document can keep the
+ * position of its pair in every list up to date and remove it without a scan.
+ */
+final class PostingList {
+  private int[] slots = new int[4];
+  private int[] frequencies = new int[4];
+  private int[] termIndexes = new int[4];
+  private int size;
+
+  /**
+   * @return the position of the new pair
+   */
+  int add(int slot, int frequency, int termIndex) {
+    if (size == slots.length) {
+      slots = Arrays.copyOf(slots, size * 2);
+      frequencies = Arrays.copyOf(frequencies, size * 2);
+      termIndexes = Arrays.copyOf(termIndexes, size * 2);
+    }
+    slots[size] = slot;
+    frequencies[size] = frequency;
+    termIndexes[size] = termIndex;
+    return size++;
+  }
+
+  /**
+   * Removes the pair at {@code position}, moving the last pair into its place.
+   *
+   * @return whether a pair was moved to {@code position}, whose document must then record its new position
+   */
+  boolean removeAt(int position) {
+    size--;
+    if (position == size) {
+      return false;
+    }
+    slots[position] = slots[size];
+    frequencies[position] = frequencies[size];
+    termIndexes[position] = termIndexes[size];
+    return true;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int slot(int index) {
+    return slots[index];
+  }
+
+  int frequency(int index) {
+    return frequencies[index];
+  }
+
+  int termIndex(int index) {
+    return termIndexes[index];
+  }
+}
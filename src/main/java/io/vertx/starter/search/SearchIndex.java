@@ -0,0 +1,417 @@
+package io.vertx.starter.search;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory inverted index over page content, ranked with BM25.
+ *
+ * Documents live in dense slots so that scoring accumulates into a plain array, and every document keeps
+ * its term vector, with the position of each term in its posting list, so that it can be taken out of the posting
+ * lists again when the page changes.
+ * Not thread safe: it is only used from the database verticle event loop, except for {@link Documents} which are
+ * serialized on a worker.
+ */
+public class SearchIndex {
+  private static final float K1 = 1.2f;
+  private static final float B = 0.75f;
+  private static final int SNAPSHOT_MAGIC = 0x57494b49;
+  private static final int SNAPSHOT_VERSION = 1;
+  private static final byte RECORD_PUT = 1;
+  private static final byte RECORD_REMOVE = 2;
+
+  private final Map<String, Integer> termIds = new HashMap<>();
+  private final List<String> terms = new ArrayList<>();
+  private final List<PostingList> postings = new ArrayList<>();
+  private final Map<Integer, Integer> slotsByPage = new HashMap<>();
+
+  private int[] slotPages = new int[64];
+  private String[] slotNames = new String[64];
+  private int[] slotLengths = new int[64];
+  private int[][] slotTermIds = new int[64][];
+  private int[][] slotFrequencies = new int[64][];
+  private int[][] slotPositions = new int[64][];
+  private int[] freeSlots = new int[16];
+  private int freeSlotCount;
+  private int slotCount;
+  private long totalLength;
+  private float[] scores = new float[64];
+  private int[] candidates = new int[64];
+
+  public void put(int pageId, String name, Map<String, Integer> frequencies) {
+    remove(pageId);
+    int slot = allocateSlot();
+    int[] ids = new int[frequencies.size()];
+    int[] counts = new int[frequencies.size()];
+    int[] positions = new int[frequencies.size()];
+    int length = 0;
+    int i = 0;
+    for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+      int termId = termId(entry.getKey());
+      ids[i] = termId;
+      counts[i] = entry.getValue();
+      length += counts[i];
+      positions[i] = postings.get(termId).add(slot, counts[i], i);
+      i++;
+    }
+    slotPages[slot] = pageId;
+    slotNames[slot] = name;
+    slotLengths[slot] = length;
+    slotTermIds[slot] = ids;
+    slotFrequencies[slot] = counts;
+    slotPositions[slot] = positions;
+    slotsByPage.put(pageId, slot);
+    totalLength += length;
+  }
+
+  public void remove(int pageId) {
+    Integer slot = slotsByPage.remove(pageId);
+    if (slot == null) {
+      return;
+    }
+    for (int i = 0; i < slotTermIds[slot].length; i++) {
+      PostingList list = postings.get(slotTermIds[slot][i]);
+      int position = slotPositions[slot][i];
+      if (list.removeAt(position)) {
+        slotPositions[list.slot(position)][list.termIndex(position)] = position;
+      }
+    }
+    totalLength -= slotLengths[slot];
+    slotNames[slot] = null;
+    slotTermIds[slot] = null;
+    slotFrequencies[slot] = null;
+    slotPositions[slot] = null;
+    if (freeSlotCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+    }
+    freeSlots[freeSlotCount++] = slot;
+  }
+
+  public boolean contains(int pageId) {
+    return slotsByPage.containsKey(pageId);
+  }
+
+  public int size() {
+    return slotsByPage.size();
+  }
+
+  public void clear() {
+    termIds.clear();
+    terms.clear();
+    postings.clear();
+    slotsByPage.clear();
+    Arrays.fill(slotNames, null);
+    Arrays.fill(slotTermIds, null);
+    Arrays.fill(slotFrequencies, null);
+    Arrays.fill(slotPositions, null);
+    freeSlotCount = 0;
+    slotCount = 0;
+    totalLength = 0;
+  }
+
+  /**
+   * Pages matching any of the query terms, best BM25 score first, as {@code {id, name, score}} objects.
+   */
+  public JsonArray search(String query, int limit) {
+    JsonArray results = new JsonArray();
+    int documents = slotsByPage.size();
+    if (documents == 0) {
+      return results;
+    }
+    float averageLength = Math.max(1f, (float) totalLength / documents);
+    // the buffers are kept between searches, only the slots of the candidates are scored and reset
+    if (this.scores.length < slotCount) {
+      this.scores = new float[slotPages.length];
+      this.candidates = new int[slotPages.length];
+    }
+    float[] scores = this.scores;
+    int[] candidates = this.candidates;
+    int candidateCount = 0;
+    try {
+      for (String term : Tokenizer.terms(query)) {
+        Integer termId = termIds.get(term);
+        if (termId == null) {
+          continue;
+        }
+        PostingList list = postings.get(termId);
+        int df = list.size();
+        float idf = (float) Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+        for (int i = 0; i < df; i++) {
+          int slot = list.slot(i);
+          int tf = list.frequency(i);
+          float norm = K1 * (1 - B + B * slotLengths[slot] / averageLength);
+          if (scores[slot] == 0) {
+            candidates[candidateCount++] = slot;
+          }
+          scores[slot] += idf * tf * (K1 + 1) / (tf + norm);
+        }
+      }
+
+      PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> Float.compare(scores[a], scores[b]));
+      for (int c = 0; c < candidateCount; c++) {
+        int slot = candidates[c];
+        if (top.size() < limit || scores[slot] > scores[top.peek()]) {
+          top.add(slot);
+          if (top.size() > limit) {
+            top.poll();
+          }
+        }
+      }
+      List<Integer> ranked = new ArrayList<>(top);
+      ranked.sort((a, b) -> Float.compare(scores[b], scores[a]));
+      for (int slot : ranked) {
+        results.add(new JsonObject()
+          .put("id", slotPages[slot])
+          .put("name", slotNames[slot])
+          .put("score", scores[slot]));
+      }
+      return results;
+    } finally {
+      for (int c = 0; c < candidateCount; c++) {
+        scores[candidates[c]] = 0;
+      }
+    }
+  }
+
+  /**
+   * Serializes the whole index.
+   */
+  public Buffer snapshot() {
+    return documents().snapshot();
+  }
+
+  /**
+   * The documents of the index as they are now, for {@link Documents#snapshot()} to serialize on another thread while
+   * the index keeps changing: only references are copied here, as the term vector of a document is replaced when the
+   * page changes, never modified.
+   */
+  public Documents documents() {
+    int count = slotsByPage.size();
+    Documents documents = new Documents(new ArrayList<>(terms), new int[count], new String[count], new int[count][],
+      new int[count][]);
+    int d = 0;
+    for (int slot : slotsByPage.values()) {
+      documents.pages[d] = slotPages[slot];
+      documents.names[d] = slotNames[slot];
+      documents.termIds[d] = slotTermIds[slot];
+      documents.frequencies[d] = slotFrequencies[slot];
+      d++;
+    }
+    return documents;
+  }
+
+  /**
+   * Replaces the content of this index with a snapshot.
+   */
+  public void restore(Buffer snapshot) {
+    clear();
+    Reader reader = new Reader(snapshot);
+    if (reader.readInt() != SNAPSHOT_MAGIC || reader.readInt() != SNAPSHOT_VERSION) {
+      throw new IllegalStateException("Not a search index snapshot");
+    }
+    String[] snapshotTerms = new String[reader.readInt()];
+    for (int i = 0; i < snapshotTerms.length; i++) {
+      snapshotTerms[i] = reader.readString();
+    }
+    int documents = reader.readInt();
+    for (int d = 0; d < documents; d++) {
+      int pageId = reader.readInt();
+      String name = reader.readString();
+      int count = reader.readInt();
+      Map<String, Integer> frequencies = new HashMap<>(count * 2);
+      for (int i = 0; i < count; i++) {
+        frequencies.put(snapshotTerms[reader.readInt()], reader.readInt());
+      }
+      put(pageId, name, frequencies);
+    }
+  }
+
+  public static Buffer putRecord(int pageId, String name, Map<String, Integer> frequencies) {
+    Buffer buffer = Buffer.buffer().appendByte(RECORD_PUT).appendInt(pageId);
+    appendString(buffer, name);
+    buffer.appendInt(frequencies.size());
+    frequencies.forEach((term, frequency) -> {
+      appendString(buffer, term);
+      buffer.appendInt(frequency);
+    });
+    return buffer;
+  }
+
+  public static Buffer removeRecord(int pageId) {
+    return Buffer.buffer().appendByte(RECORD_REMOVE).appendInt(pageId);
+  }
+
+  /**
+   * Applies journal records in order. Records are idempotent, so replaying some that the snapshot
+   * already contains is harmless. A truncated trailing record (interrupted write) is ignored.
+   *
+   * @return the number of records applied
+   */
+  public int replay(Buffer records) {
+    Reader reader = new Reader(records);
+    int applied = 0;
+    try {
+      while (reader.remaining() > 0) {
+        byte type = reader.readByte();
+        int pageId = reader.readInt();
+        if (type == RECORD_REMOVE) {
+          remove(pageId);
+        } else {
+          String name = reader.readString();
+          int count = reader.readCount();
+          Map<String, Integer> frequencies = new HashMap<>(count * 2);
+          for (int i = 0; i < count; i++) {
+            frequencies.put(reader.readString(), reader.readInt());
+          }
+          put(pageId, name, frequencies);
+        }
+        applied++;
+      }
+    } catch (IndexOutOfBoundsException e) {
+      // interrupted write at the end of the journal
+    }
+    return applied;
+  }
+
+  private int termId(String term) {
+    Integer termId = termIds.get(term);
+    if (termId == null) {
+      termId = terms.size();
+      termIds.put(term, termId);
+      terms.add(term);
+      postings.add(new PostingList());
+    }
+    return termId;
+  }
+
+  private int allocateSlot() {
+    if (freeSlotCount > 0) {
+      return freeSlots[--freeSlotCount];
+    }
+    if (slotCount == slotPages.length) {
+      int capacity = slotCount * 2;
+      slotPages = Arrays.copyOf(slotPages, capacity);
+      slotNames = Arrays.copyOf(slotNames, capacity);
+      slotLengths = Arrays.copyOf(slotLengths, capacity);
+      slotTermIds = Arrays.copyOf(slotTermIds, capacity);
+      slotFrequencies = Arrays.copyOf(slotFrequencies, capacity);
+      slotPositions = Arrays.copyOf(slotPositions, capacity);
+    }
+    return slotCount++;
+  }
+
+  private static void appendString(Buffer buffer, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    buffer.appendInt(bytes.length).appendBytes(bytes);
+  }
+
+  /**
+   * Copy of the documents of an index, see {@link #documents()}.
+   */
+  public static final class Documents {
+    private final List<String> terms;
+    private final int[] pages;
+    private final String[] names;
+    private final int[][] termIds;
+    private final int[][] frequencies;
+
+    private Documents(List<String> terms, int[] pages, String[] names, int[][] termIds, int[][] frequencies) {
+      this.terms = terms;
+      this.pages = pages;
+      this.names = names;
+      this.termIds = termIds;
+      this.frequencies = frequencies;
+    }
+
+    /**
+     * Serializes the documents. Only the terms they hold are written, renumbered densely.
+     */
+    public Buffer snapshot() {
+      int[] remapped = new int[terms.size()];
+      Arrays.fill(remapped, -1);
+      List<String> liveTerms = new ArrayList<>();
+      for (int[] ids : termIds) {
+        for (int termId : ids) {
+          if (remapped[termId] < 0) {
+            remapped[termId] = liveTerms.size();
+            liveTerms.add(terms.get(termId));
+          }
+        }
+      }
+
+      Buffer buffer = Buffer.buffer()
+        .appendInt(SNAPSHOT_MAGIC)
+        .appendInt(SNAPSHOT_VERSION)
+        .appendInt(liveTerms.size());
+      liveTerms.forEach(term -> appendString(buffer, term));
+      buffer.appendInt(pages.length);
+      for (int d = 0; d < pages.length; d++) {
+        buffer.appendInt(pages[d]);
+        appendString(buffer, names[d]);
+        buffer.appendInt(termIds[d].length);
+        for (int i = 0; i < termIds[d].length; i++) {
+          buffer.appendInt(remapped[termIds[d][i]]).appendInt(frequencies[d][i]);
+        }
+      }
+      return buffer;
+    }
+  }
+
+  private static final class Reader {
+    private final Buffer buffer;
+    private int position;
+
+    private Reader(Buffer buffer) {
+      this.buffer = buffer;
+    }
+
+    private int remaining() {
+      return buffer.length() - position;
+    }
+
+    private byte readByte() {
+      require(1);
+      return buffer.getByte(position++);
+    }
+
+    private int readInt() {
+      require(4);
+      int value = buffer.getInt(position);
+      position += 4;
+      return value;
+    }
+
+    private int readCount() {
+      int count = readInt();
+      if (count < 0 || count > remaining()) {
+        throw new IndexOutOfBoundsException("Invalid count " + count);
+      }
+      return count;
+    }
+
+    /**
+     * Reads stop at the length of the buffer, not at the capacity of the bytes behind it, which may hold anything.
+     */
+    private void require(int length) {
+      if (length > remaining()) {
+        throw new IndexOutOfBoundsException("Truncated at " + position);
+      }
+    }
+
+    private String readString() {
+      int length = readCount();
+      String value = buffer.getString(position, position + length, "UTF-8");
+      position += length;
+      return value;
+    }
+  }
+}
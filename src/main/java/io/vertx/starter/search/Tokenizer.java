@@ -0,0 +1,49 @@
+package io.vertx.starter.search;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Splits text into lower-cased runs of letters and digits.
+ * Markdown syntax is dropped along with the rest of the punctuation.
+ */
+public final class Tokenizer {
+  private static final int MIN_TERM_LENGTH = 2;
+  private static final int MAX_TERM_LENGTH = 64;
+
+  private Tokenizer() {
+  }
+
+  public static Map<String, Integer> termFrequencies(String text) {
+    Map<String, Integer> frequencies = new HashMap<>();
+    tokenize(text, term -> frequencies.merge(term, 1, Integer::sum));
+    return frequencies;
+  }
+
+  public static Set<String> terms(String text) {
+    Set<String> terms = new LinkedHashSet<>();
+    tokenize(text, terms::add);
+    return terms;
+  }
+
+  private static void tokenize(String text, Consumer<String> consumer) {
+    if (text == null) {
+      return;
+    }
+    StringBuilder term = new StringBuilder();
+    for (int i = 0; i <= text.length(); i++) {
+      char c = i < text.length() ? text.charAt(i) : ' ';
+      if (Character.isLetterOrDigit(c)) {
+        term.append(Character.toLowerCase(c));
+      } else if (term.length() > 0) {
+        if (term.length() >= MIN_TERM_LENGTH && term.length() <= MAX_TERM_LENGTH) {
+          consumer.accept(term.toString());
+        }
+        term.setLength(0);
+      }
+    }
+  }
+}
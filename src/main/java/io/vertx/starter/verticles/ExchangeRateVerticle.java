@@ -4,20 +4,56 @@ import io.vertx.core.*;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
+import io.vertx.starter.history.RateHistory;
+import io.vertx.starter.metrics.WikiMetrics;
 import io.vertx.starter.models.Rates;
 import io.vertx.starter.models.codecs.RateMessageCodec;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
 import static io.vertx.starter.common.Constants.EXCHANGE_RATE_ADDRESS;
+import static io.vertx.starter.common.Constants.EXCHANGE_RATE_LATEST_KEY;
+import static io.vertx.starter.common.Constants.EXCHANGE_RATE_MAP;
 
+/**
+ * Keeps the exchange rates current. Start-up only loads the last good rates from the snapshot file, so it never waits
+ * for the exchange rate API: the API is then called in the background, every {@code refresh_interval_seconds} after a
+ * success and with a doubling delay, from {@code retry_delay_seconds} up to the refresh interval, after a failure.
+ * Every good response replaces the snapshot and is recorded in the {@link RateHistory}.
+ */
 public class ExchangeRateVerticle extends AbstractVerticle {
   private static final Logger log = LogManager.getLogger(ExchangeRateVerticle.class);
+  private static final String CONFIG_EXCHANGE_RATE_URL = "exchange_rate.url";
+  private static final String CONFIG_EXCHANGE_RATE_SNAPSHOT_FILE = "exchange_rate.snapshot_file";
+  private static final String CONFIG_EXCHANGE_RATE_REFRESH_INTERVAL = "exchange_rate.refresh_interval_seconds";
+  private static final String CONFIG_EXCHANGE_RATE_RETRY_DELAY = "exchange_rate.retry_delay_seconds";
+  private static final String CONFIG_EXCHANGE_RATE_STALE_AFTER = "exchange_rate.stale_after_seconds";
+  private static final String CONFIG_EXCHANGE_RATE_HISTORY_FILE = "exchange_rate.history_file";
   private WebClient webClient;
   private EventBus eventBus;
   private RateMessageCodec messageCodec;
+  private RateHistory history;
+  private String snapshotFile;
+  private long refreshInterval;
+  private long initialRetryDelay;
+  private long retryDelay;
+  private long staleAfter;
+  private long fetchedAt = -1;
+  private long timerId = -1;
 
   @Override
   public void init(Vertx vertx, Context context) {
@@ -30,19 +66,157 @@ public class ExchangeRateVerticle extends AbstractVerticle {
 
   @Override
   public void start(Promise<Void> promise) {
-    webClient.getAbs("https://api.exchangeratesapi.io/latest")
+    snapshotFile = config().getString(CONFIG_EXCHANGE_RATE_SNAPSHOT_FILE, "db/exchange-rates.json");
+    refreshInterval = TimeUnit.SECONDS.toMillis(config().getLong(CONFIG_EXCHANGE_RATE_REFRESH_INTERVAL, 3600L));
+    initialRetryDelay = TimeUnit.SECONDS.toMillis(config().getLong(CONFIG_EXCHANGE_RATE_RETRY_DELAY, 5L));
+    retryDelay = initialRetryDelay;
+    staleAfter = TimeUnit.SECONDS.toMillis(config().getLong(CONFIG_EXCHANGE_RATE_STALE_AFTER, 6 * 3600L));
+    WikiMetrics.registerExchangeRateAge(this, verticle -> verticle.fetchedAt < 0
+      ? Double.NaN
+      : (System.currentTimeMillis() - verticle.fetchedAt) / 1000.0);
+
+    RateHistory.open(vertx, config().getString(CONFIG_EXCHANGE_RATE_HISTORY_FILE, RateHistory.DEFAULT_FILE), opened -> {
+      if (opened.failed()) {
+        promise.fail(opened.cause());
+        return;
+      }
+      history = opened.result();
+      loadSnapshot(loaded -> {
+        promise.complete();
+        refresh();
+      });
+    });
+  }
+
+  @Override
+  public void stop(Promise<Void> promise) {
+    if (timerId >= 0) {
+      vertx.cancelTimer(timerId);
+    }
+    if (history == null) {
+      promise.complete();
+    } else {
+      history.close(vertx, promise);
+    }
+  }
+
+  private void loadSnapshot(Handler<Void> handler) {
+    vertx.fileSystem().readFile(snapshotFile, ar -> {
+      if (ar.succeeded()) {
+        try {
+          JsonObject snapshot = ar.result().toJsonObject();
+          Rates rates = Rates.fromJson(snapshot.getJsonObject("rates"));
+          publish(rates, snapshot.getLong("fetched"));
+          // the history may have missed it, when the process stopped before recording it
+          record(rates);
+          log.info("Exchange rates of {} loaded from {}", rates.getDate(), snapshotFile);
+        } catch (RuntimeException e) {
+          log.warn("Ignoring unreadable exchange rate snapshot {}", snapshotFile, e);
+        }
+      } else if (ar.cause().getCause() instanceof NoSuchFileException) {
+        log.info("No exchange rate snapshot at {}, waiting for the exchange rate API", snapshotFile);
+      } else {
+        log.warn("Cannot read exchange rate snapshot {}", snapshotFile, ar.cause());
+      }
+      handler.handle(null);
+    });
+  }
+
+  private void refresh() {
+    long start = System.nanoTime();
+    webClient.getAbs(config().getString(CONFIG_EXCHANGE_RATE_URL, "https://api.exchangeratesapi.io/latest"))
       .addQueryParam("base", "BGN")
       .send(ar -> {
+        Rates rates = null;
+        Throwable failure = ar.cause();
         if (ar.succeeded()) {
           HttpResponse<Buffer> httpResponse = ar.result();
-          Rates rates = httpResponse.bodyAsJson(Rates.class);
-          DeliveryOptions options = new DeliveryOptions().setCodecName(messageCodec.name());
-          eventBus.send(EXCHANGE_RATE_ADDRESS, rates, options);
-          promise.complete();
+          try {
+            if (httpResponse.statusCode() != 200) {
+              throw new IllegalStateException("HTTP status " + httpResponse.statusCode());
+            }
+            rates = Rates.fromJson(httpResponse.bodyAsJsonObject());
+          } catch (RuntimeException e) {
+            failure = e;
+          }
+        }
+        WikiMetrics.recordExchangeRateFetch(rates != null, start);
+
+        if (rates != null) {
+          long now = System.currentTimeMillis();
+          publish(rates, now);
+          saveSnapshot(rates, now);
+          record(rates);
+          retryDelay = initialRetryDelay;
+          schedule(refreshInterval);
         } else {
-          log.error("Cannot call external api from {}", getClass(), ar.cause());
-          promise.fail(ar.cause());
+          log.warn("Cannot call the exchange rate API, retrying in {}s: {}", retryDelay / 1000, String.valueOf(failure));
+          if (fetchedAt >= 0 && System.currentTimeMillis() - fetchedAt > staleAfter) {
+            log.warn("Exchange rates are stale, last fetched {}s ago", (System.currentTimeMillis() - fetchedAt) / 1000);
+          }
+          schedule(retryDelay);
+          retryDelay = Math.min(retryDelay * 2, refreshInterval);
         }
       });
   }
+
+  private void schedule(long delay) {
+    timerId = vertx.setTimer(Math.max(1, delay), id -> {
+      timerId = -1;
+      refresh();
+    });
+  }
+
+  private void publish(Rates rates, long fetched) {
+    fetchedAt = fetched;
+    DeliveryOptions options = new DeliveryOptions().setCodecName(messageCodec.name());
+    // Stored for HTTP instances deployed later, published for the ones already running
+    vertx.sharedData().getLocalMap(EXCHANGE_RATE_MAP).put(EXCHANGE_RATE_LATEST_KEY, rates);
+    eventBus.publish(EXCHANGE_RATE_ADDRESS, rates, options);
+  }
+
+  private void record(Rates rates) {
+    vertx.executeBlocking(promise -> {
+      try {
+        promise.complete(history.append(rates));
+      } catch (IOException e) {
+        promise.fail(e);
+      }
+    }, false, ar -> {
+      if (ar.failed()) {
+        log.warn("Cannot record the exchange rates of {} in the history", rates.getDate(), ar.cause());
+      }
+    });
+  }
+
+  /**
+   * Written to a temporary file first, forced to disk and then moved over the snapshot, so that a crash leaves either
+   * the previous snapshot or the new one, never half a snapshot.
+   */
+  private void saveSnapshot(Rates rates, long fetched) {
+    byte[] snapshot = new JsonObject().put("fetched", fetched).put("rates", rates.toJson()).toBuffer().getBytes();
+    vertx.<Void>executeBlocking(promise -> {
+      Path path = Paths.get(snapshotFile).toAbsolutePath();
+      Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+      try {
+        Files.createDirectories(path.getParent());
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING)) {
+          ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        promise.complete();
+      } catch (IOException e) {
+        promise.fail(e);
+      }
+    }, false, saved -> {
+      if (saved.failed()) {
+        log.warn("Cannot write exchange rate snapshot {}", snapshotFile, saved.cause());
+      }
+    });
+  }
 }
@@ -2,74 +2,181 @@ package io.vertx.starter.verticles;
 
 import com.github.rjeschke.txtmark.Processor;
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
+import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
 import io.vertx.ext.web.templ.freemarker.FreeMarkerTemplateEngine;
-import io.vertx.serviceproxy.ServiceProxyBuilder;
+import io.vertx.micrometer.PrometheusScrapingHandler;
+import io.vertx.starter.cache.RenderedPageCache;
 import io.vertx.starter.common.Constants;
+import io.vertx.starter.database.models.Page;
+import io.vertx.starter.database.services.MeteredWikiDatabaseService;
+import io.vertx.starter.database.services.PageFields;
 import io.vertx.starter.database.services.WikiDatabaseService;
+import io.vertx.starter.history.RateHistory;
+import io.vertx.starter.http.BulkPageStream;
+import io.vertx.starter.http.ConditionalGet;
+import io.vertx.starter.http.ConversionApi;
+import io.vertx.starter.http.PageStream;
+import io.vertx.starter.http.RateHistoryApi;
+import io.vertx.starter.http.ResponseCompression;
+import io.vertx.starter.http.RouteMetrics;
+import io.vertx.starter.http.TemplateWarmUp;
 import io.vertx.starter.models.Rates;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static io.vertx.starter.common.Constants.EXCHANGE_RATE_ADDRESS;
+import static io.vertx.starter.common.Constants.EXCHANGE_RATE_LATEST_KEY;
+import static io.vertx.starter.common.Constants.EXCHANGE_RATE_MAP;
+import static io.vertx.starter.common.Constants.PAGE_INVALIDATION_ADDRESS;
+import static io.vertx.starter.common.Constants.READINESS_MAP;
 
 public class HttpServerVerticle extends AbstractVerticle {
   private static final Logger log = LogManager.getLogger(HttpServerVerticle.class);
   private static final String EMPTY_PAGE_MARKDOWN = "# A new page\n" + "\n" + "Feel-free to write in Markdown!\n";
+  private static final String EMPTY_PAGE_HTML = Processor.process(EMPTY_PAGE_MARKDOWN);
   private static final String CONFIG_HTTP_SERVER_PORT = "http.server.port";
+  private static final String CONFIG_HTTP_PAGE_LIST_SIZE = "http.page_list.size";
+  private static final String CONFIG_HTTP_BULK_BATCH_SIZE = "http.bulk.batch_size";
+  private static final String CONFIG_HTTP_COMPRESSION_LEVEL = "http.compression.level";
+  private static final String CONFIG_HTTP_COMPRESSION_MIN_SIZE = "http.compression.min_size";
+  private static final String CONFIG_HTTP_CACHE_MAX_BYTES = "http.cache.max_bytes";
+  private static final String CONFIG_HTTP_CACHE_MAX_ENTRIES = "http.cache.max_entries";
+  private static final String CONFIG_HTTP_CACHE_TTL_SECONDS = "http.cache.ttl_seconds";
+  private static final String CONFIG_HTTP_PAGE_STREAM_THRESHOLD = "http.page.stream_threshold";
+  private static final String CONFIG_HTTP_PAGE_CHUNK_SIZE = "http.page.chunk_size";
+  private static final String CONFIG_EXCHANGE_RATE_HISTORY_FILE = "exchange_rate.history_file";
+  private static final String CONFIG_HTTP_WARMUP_TEMPLATE_RENDERS = "http.warmup.template_renders";
 
   private FreeMarkerTemplateEngine templateEngine;
   private WikiDatabaseService dbService;
+  private RenderedPageCache pageCache;
+  private int compressionMinSize;
+  private long streamThreshold;
+  private int chunkSize;
   private Rates rates;
+  private ConversionApi conversionApi;
+  private RateHistory rateHistory;
 
   @Override
   public void init(Vertx vertx, Context context) {
     super.init(vertx, context);
-    ServiceProxyBuilder builder = new ServiceProxyBuilder(vertx).setAddress(Constants.DB_SERVICE_ADDRESS);
-    dbService = builder.build(WikiDatabaseService.class);
-    vertx.eventBus().consumer(EXCHANGE_RATE_ADDRESS, m -> rates = (Rates) m.body());
+    dbService = new MeteredWikiDatabaseService(WikiDatabaseService.createProxy(vertx, Constants.DB_SERVICE_ADDRESS));
+    // listening before reading the latest rates, so that rates published in between are not missed
+    vertx.eventBus().consumer(EXCHANGE_RATE_ADDRESS, m -> {
+      rates = (Rates) m.body();
+      conversionApi.update(rates);
+    });
+    rates = (Rates) vertx.sharedData().getLocalMap(EXCHANGE_RATE_MAP).get(EXCHANGE_RATE_LATEST_KEY);
+    conversionApi = new ConversionApi(rates);
+  }
+
+  private void pageInvalidationHandler(JsonObject message) {
+    pageCache.invalidate(message.getString("page"), message.getInteger("id"));
   }
 
   @Override
   public void start(Promise<Void> promise) {
-    HttpServer httpServer = vertx.createHttpServer();
+    compressionMinSize = config().getInteger(CONFIG_HTTP_COMPRESSION_MIN_SIZE, 1024);
+    streamThreshold = config().getLong(CONFIG_HTTP_PAGE_STREAM_THRESHOLD, 1024L * 1024);
+    chunkSize = config().getInteger(CONFIG_HTTP_PAGE_CHUNK_SIZE, 64 * 1024);
+    HttpServer httpServer = vertx.createHttpServer(new HttpServerOptions()
+      .setCompressionSupported(true)
+      .setCompressionLevel(config().getInteger(CONFIG_HTTP_COMPRESSION_LEVEL, 6)));
     Router router = Router.router(vertx);
     templateEngine = FreeMarkerTemplateEngine.create(vertx);
+    // the limits are for the process, each instance caching its share
+    int instances = Math.max(1, context.getInstanceCount());
+    pageCache = new RenderedPageCache(
+      config().getLong(CONFIG_HTTP_CACHE_MAX_BYTES, 64L * 1024 * 1024) / instances,
+      Math.max(1, config().getInteger(CONFIG_HTTP_CACHE_MAX_ENTRIES, 10_000) / instances),
+      config().getLong(CONFIG_HTTP_CACHE_TTL_SECONDS, 300L) * 1000);
+    vertx.eventBus().<JsonObject>consumer(PAGE_INVALIDATION_ADDRESS, m -> pageInvalidationHandler(m.body()));
 
-    router.get("/").handler(this::homeHandler);
-    router.get("/wiki/:page").handler(this::pageRenderingHandler);
+    Handler<RoutingContext> matched = RouteMetrics.matched();
+    router.route().handler(RouteMetrics.handler());
+    router.route().handler(ResponseCompression.threshold(compressionMinSize));
+    router.get("/").handler(matched).handler(this::homeHandler);
+    router.get("/wiki/:page").handler(matched).handler(this::pageRenderingHandler);
+    router.get("/search").handler(matched).handler(this::searchHandler);
+    router.get("/api/pages").handler(matched).handler(this::pageListApiHandler);
+    router.get("/api/suggest").handler(matched).handler(this::pageSuggestApiHandler);
+    router.get("/api/pages/:page").handler(matched).handler(this::pageApiHandler);
+    router.get("/api/pages/:page/revisions").handler(matched).handler(this::pageHistoryApiHandler);
+    router.get("/api/pages/:page/revisions/:version").handler(matched).handler(this::pageRevisionApiHandler);
+    router.get("/api/pages/:page/diff").handler(matched).handler(this::pageDiffApiHandler);
+    router.get("/api/rates/convert").handler(matched).handler(conversionApi::convertHandler);
+    router.post("/api/pages/bulk").handler(matched).handler(this::bulkPagesHandler);
     router.post().handler(BodyHandler.create());
-    router.post("/create").handler(this::createPageHandler);
-    router.post("/save").handler(this::pageUpdateHandler);
-    router.post("/delete").handler(this::pageDeletionHandler);
+    router.post("/api/rates/convert").handler(matched).handler(conversionApi::batchConvertHandler);
+    router.post("/create").handler(matched).handler(this::createPageHandler);
+    router.post("/save").handler(matched).handler(this::pageUpdateHandler);
+    router.post("/delete").handler(matched).handler(this::pageDeletionHandler);
+    router.get("/api/cache/stats").handler(matched).handler(this::cacheStatsHandler);
+    router.get("/metrics").handler(matched).handler(PrometheusScrapingHandler.create());
+    router.get("/health/ready").handler(matched).handler(this::readinessHandler);
 
-    int serverPort = config().getInteger(CONFIG_HTTP_SERVER_PORT, 8080);
-    httpServer.requestHandler(router).listen(serverPort, result -> {
-      if (result.succeeded()) {
-        promise.complete();
-        log.info("Server listening on port {}", serverPort);
-      } else {
-        promise.fail(result.cause());
+    RateHistory.open(vertx, config().getString(CONFIG_EXCHANGE_RATE_HISTORY_FILE, RateHistory.DEFAULT_FILE), opened -> {
+      if (opened.failed()) {
+        promise.fail(opened.cause());
+        return;
       }
+      rateHistory = opened.result();
+      RateHistoryApi rateHistoryApi = new RateHistoryApi(rateHistory);
+      router.get("/api/rates/history").handler(matched).handler(rateHistoryApi::historyHandler);
+      router.get("/api/rates/history/stats").handler(matched).handler(rateHistoryApi::statsHandler);
+
+      int serverPort = config().getInteger(CONFIG_HTTP_SERVER_PORT, 8080);
+      // listening first, so that /health/ready answers while the templates warm up
+      httpServer.requestHandler(router).listen(serverPort, result -> {
+        if (result.succeeded()) {
+          log.info("Server listening on port {}", serverPort);
+          new TemplateWarmUp(vertx, templateEngine, config().getInteger(CONFIG_HTTP_WARMUP_TEMPLATE_RENDERS, 20))
+            .run(warmedUp -> promise.complete());
+        } else {
+          promise.fail(result.cause());
+        }
+      });
     });
   }
 
+  @Override
+  public void stop(Promise<Void> promise) {
+    if (rateHistory == null) {
+      promise.complete();
+    } else {
+      rateHistory.close(vertx, promise);
+    }
+  }
+
   private void homeHandler(RoutingContext context) {
-    dbService.fetchAllPages(result -> {
+    dbService.listPages(pageListRequest(context), result -> {
       if (result.succeeded()) {
-        JsonArray pages = result.result();
+        JsonObject listing = result.result();
         context.put("title", "Wiki home");
-        context.put("pages", pages.getList());
+        context.put("pages", listing.getJsonArray("pages").stream()
+          .map(page -> ((JsonObject) page).getMap())
+          .collect(Collectors.toList()));
+        context.put("next", listing.getString("next"));
         context.put("rates", rates);
         templateEngine.render(context.data(), "templates/index.ftl", ar -> {
           if (ar.succeeded()) {
@@ -86,22 +193,18 @@ public class HttpServerVerticle extends AbstractVerticle {
     });
   }
 
-  private void pageRenderingHandler(RoutingContext context) {
-    String requestedPage = context.request().getParam("page");
-    JsonObject request = new JsonObject().put("page", requestedPage);
+  private void searchHandler(RoutingContext context) {
+    String query = context.request().getParam("q");
+    JsonObject request = new JsonObject().put("query", query);
 
-    dbService.fetchPage(request, result -> {
+    dbService.search(request, result -> {
       if (result.succeeded()) {
-        JsonObject body = result.result().getJsonObject(0);
-        String rawContent = body.getString("rawContent", EMPTY_PAGE_MARKDOWN);
-        context.put("title", requestedPage);
-        context.put("id", body.getInteger("id", -1));
-        context.put("newPage", body.getBoolean("newPage").toString());
-        context.put("rawContent", rawContent);
-        context.put("content", Processor.process(rawContent));
-        context.put("timestamp", new Date().toString());
-
-        templateEngine.render(context.data(), "templates/page.ftl", ar -> {
+        context.put("title", "Search");
+        context.put("query", query == null ? "" : query);
+        context.put("results", result.result().stream()
+          .map(page -> ((JsonObject) page).getMap())
+          .collect(Collectors.toList()));
+        templateEngine.render(context.data(), "templates/search.ftl", ar -> {
           if (ar.succeeded()) {
             context.response().putHeader("Content-Type", "text/html");
             context.response().end(ar.result());
@@ -115,19 +218,316 @@ public class HttpServerVerticle extends AbstractVerticle {
     });
   }
 
+  private void pageListApiHandler(RoutingContext context) {
+    JsonArray fields = fieldsParam(context, PageFields.LISTING);
+    if (fields == null) {
+      return;
+    }
+    dbService.listPages(pageListRequest(context).put("fields", fields), result -> {
+      if (result.succeeded()) {
+        context.response().putHeader("Content-Type", "application/json");
+        context.response().end(result.result().encode());
+      } else {
+        context.fail(result.cause());
+      }
+    });
+  }
+
+  /**
+   * The page as JSON, straight from the database service: the {@code fields} parameter (comma-separated) narrows it
+   * down, e.g. {@code fields=name,version,markdown}, so that only what is asked for is read.
+   * Any page name can follow {@code /api/pages/} once percent-encoded, a {@code /} in it as {@code %2F}: the router
+   * decodes the parameter after matching.
+   */
+  private void pageApiHandler(RoutingContext context) {
+    JsonArray fields = fieldsParam(context, PageFields.PAGE);
+    if (fields != null) {
+      JsonObject request = new JsonObject().put("name", context.request().getParam("page")).put("fields", fields);
+      dbService.fetchPageFields(request, result -> sendApiResult(context, result));
+    }
+  }
+
+  /**
+   * The fields of the comma-separated {@code fields} parameter, empty when there is none, or {@code null} once a field
+   * outside {@code allowed} has been answered with a 400.
+   */
+  private static JsonArray fieldsParam(RoutingContext context, List<String> allowed) {
+    JsonArray fields = new JsonArray();
+    String param = context.request().getParam("fields");
+    if (param == null) {
+      return fields;
+    }
+    for (String field : param.split(",")) {
+      String trimmed = field.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      if (!allowed.contains(trimmed)) {
+        context.response().setStatusCode(400)
+          .putHeader("Content-Type", "application/json")
+          .end(new JsonObject().put("error", "fields must be among " + String.join(", ", allowed)).encode());
+        return null;
+      }
+      fields.add(trimmed);
+    }
+    return fields;
+  }
+
+  private void pageSuggestApiHandler(RoutingContext context) {
+    JsonObject request = new JsonObject().put("prefix", context.request().getParam("prefix"));
+    dbService.suggestPages(request, result -> {
+      if (result.succeeded()) {
+        context.response().putHeader("Content-Type", "application/json");
+        context.response().end(result.result().encode());
+      } else {
+        context.fail(result.cause());
+      }
+    });
+  }
+
+  private void pageHistoryApiHandler(RoutingContext context) {
+    JsonObject request = revisionRequest(context, "before", "limit");
+    if (request != null) {
+      dbService.fetchPageHistory(request, result -> sendApiResult(context, result));
+    }
+  }
+
+  private void pageRevisionApiHandler(RoutingContext context) {
+    JsonObject request = revisionRequest(context, "version");
+    if (request != null) {
+      dbService.fetchPageRevision(request, result -> sendApiResult(context, result.map(page -> {
+        JsonObject json = page.toJson();
+        json.remove("newPage");
+        json.remove("size");
+        return json;
+      })));
+    }
+  }
+
+  private void pageDiffApiHandler(RoutingContext context) {
+    JsonObject request = revisionRequest(context, "from", "to");
+    if (request != null) {
+      dbService.diffPageRevisions(request, result -> sendApiResult(context, result));
+    }
+  }
+
+  /**
+   * The page name with the given integer parameters, or {@code null} once a malformed one has been answered with a 400.
+   */
+  private static JsonObject revisionRequest(RoutingContext context, String... params) {
+    JsonObject request = new JsonObject().put("name", context.request().getParam("page"));
+    for (String param : params) {
+      String value = context.request().getParam(param);
+      try {
+        if (value != null) {
+          request.put(param, Integer.valueOf(value));
+        }
+      } catch (NumberFormatException e) {
+        context.response().setStatusCode(400)
+          .putHeader("Content-Type", "application/json")
+          .end(new JsonObject().put("error", param + " must be a number").encode());
+        return null;
+      }
+    }
+    return request;
+  }
+
+  private static void sendApiResult(RoutingContext context, AsyncResult<JsonObject> result) {
+    if (result.succeeded()) {
+      context.response().putHeader("Content-Type", "application/json");
+      context.response().end(result.result().encode());
+    } else if (result.cause() instanceof ReplyException && ((ReplyException) result.cause()).failureCode() == 404) {
+      context.response().setStatusCode(404)
+        .putHeader("Content-Type", "application/json")
+        .end(new JsonObject().put("error", result.cause().getMessage()).encode());
+    } else {
+      context.fail(result.cause());
+    }
+  }
+
+  private void bulkPagesHandler(RoutingContext context) {
+    new BulkPageStream(dbService, config().getInteger(CONFIG_HTTP_BULK_BATCH_SIZE, 500), context).start();
+  }
+
+  private JsonObject pageListRequest(RoutingContext context) {
+    JsonObject request = new JsonObject();
+    String after = context.request().getParam("after");
+    if (after != null) {
+      request.put("after", after);
+    }
+    String limit = context.request().getParam("limit");
+    try {
+      request.put("limit", limit == null ? config().getInteger(CONFIG_HTTP_PAGE_LIST_SIZE, 100) : Integer.valueOf(limit));
+    } catch (NumberFormatException e) {
+      log.debug("Ignoring invalid page list limit {}", limit);
+    }
+    return request;
+  }
+
+  private void pageRenderingHandler(RoutingContext context) {
+    String requestedPage = context.request().getParam("page");
+    RenderedPageCache.Entry cached = pageCache.get(requestedPage);
+    if (cached != null) {
+      sendPage(context, cached);
+      return;
+    }
+
+    long cacheEpoch = pageCache.epoch();
+    if (!ConditionalGet.isConditional(context.request())) {
+      loadPage(context, requestedPage, cacheEpoch);
+      return;
+    }
+    // A revalidation is answered from the page version alone, the content is only loaded when it changed
+    JsonObject request = new JsonObject().put("name", requestedPage).put("fields", new JsonArray(PageFields.LISTING));
+    dbService.fetchPageFields(request, result -> {
+      Page version = existingPage(context, requestedPage, result, cacheEpoch);
+      if (version == null) {
+        return;
+      }
+      String etag = ConditionalGet.etag(version.getId(), version.getVersion());
+      if (ConditionalGet.isNotModified(context.request(), etag, version.getUpdated())) {
+        ConditionalGet.notModified(context.response(), etag, version.getUpdated());
+      } else if (version.getSize() > streamThreshold) {
+        streamPage(context, version, cacheEpoch);
+      } else {
+        loadPage(context, requestedPage, cacheEpoch);
+      }
+    });
+  }
+
+  /**
+   * One call loads the page, or only its version when it is too large to be loaded whole and is streamed instead.
+   */
+  private void loadPage(RoutingContext context, String requestedPage, long cacheEpoch) {
+    JsonObject request = new JsonObject().put("name", requestedPage).put("maxSize", streamThreshold);
+    dbService.fetchPageFields(request, result -> {
+      Page page = existingPage(context, requestedPage, result, cacheEpoch);
+      if (page == null) {
+        return;
+      }
+      if (page.getSize() > streamThreshold) {
+        streamPage(context, page, cacheEpoch);
+      } else {
+        renderPage(context, page, cacheEpoch);
+      }
+    });
+  }
+
+  /**
+   * The page fetched, or {@code null} once a missing page has been rendered as a new one or the failure passed on.
+   */
+  private Page existingPage(RoutingContext context, String requestedPage, AsyncResult<JsonObject> result, long cacheEpoch) {
+    if (result.succeeded()) {
+      return new Page(result.result());
+    }
+    if (result.cause() instanceof ReplyException && ((ReplyException) result.cause()).failureCode() == 404) {
+      renderPage(context, new Page().setName(requestedPage).setNewPage(true), cacheEpoch);
+    } else {
+      context.fail(result.cause());
+    }
+    return null;
+  }
+
+  /**
+   * Renders the page template around markers and streams the page content into it. Such pages are not cached. When
+   * the page cannot be streamed, as its HTML is not rendered yet or it was saved meanwhile, it is loaded whole instead.
+   */
+  private void streamPage(RoutingContext context, Page version, long cacheEpoch) {
+    context.put("title", version.getName());
+    context.put("id", version.getId());
+    context.put("newPage", "false");
+    context.put("rawContent", PageStream.MARKDOWN_MARKER);
+    context.put("content", PageStream.HTML_MARKER);
+    context.put("timestamp", new Date(version.getUpdated()).toString());
+    templateEngine.render(context.data(), "templates/page.ftl", ar -> {
+      if (ar.failed()) {
+        context.fail(ar.cause());
+        return;
+      }
+      new PageStream(dbService, chunkSize, context, version).start(ar.result().toString(),
+        () -> fetchAndRenderPage(context, version.getName(), cacheEpoch));
+    });
+  }
+
+  private void fetchAndRenderPage(RoutingContext context, String requestedPage, long cacheEpoch) {
+    dbService.fetchPage(requestedPage, result -> {
+      if (result.succeeded()) {
+        renderPage(context, result.result(), cacheEpoch);
+      } else {
+        context.fail(result.cause());
+      }
+    });
+  }
+
+  private void renderPage(RoutingContext context, Page page, long cacheEpoch) {
+    String requestedPage = page.getName();
+    boolean newPage = page.isNewPage();
+    String rawContent = newPage ? EMPTY_PAGE_MARKDOWN : page.getMarkdown();
+    int id = page.getId();
+    context.put("title", requestedPage);
+    context.put("id", id);
+    context.put("newPage", Boolean.toString(newPage));
+    context.put("rawContent", rawContent);
+    String htmlContent = page.getHtml();
+    if (htmlContent == null) {
+      htmlContent = newPage ? EMPTY_PAGE_HTML : Processor.process(rawContent);
+    }
+    context.put("content", htmlContent);
+    long lastModified = page.getUpdated();
+    if (!newPage) {
+      context.put("timestamp", new Date(lastModified).toString());
+    }
+
+    templateEngine.render(context.data(), "templates/page.ftl", ar -> {
+      if (ar.succeeded()) {
+        if (newPage) {
+          context.response().putHeader("Content-Type", "text/html");
+          context.response().end(ar.result());
+          return;
+        }
+        String etag = ConditionalGet.etag(id, page.getVersion());
+        Buffer gzipBody = ar.result().length() < compressionMinSize ? null : ResponseCompression.gzip(ar.result());
+        sendPage(context, pageCache.put(requestedPage, id, etag, lastModified, ar.result(), gzipBody, cacheEpoch));
+      } else {
+        context.fail(ar.cause());
+      }
+    });
+  }
+
+  private void sendPage(RoutingContext context, RenderedPageCache.Entry page) {
+    HttpServerResponse response = context.response();
+    boolean gzip = page.getGzipBody() != null && ResponseCompression.acceptsGzip(context.request());
+    String etag = gzip ? ConditionalGet.gzipEtag(page.getEtag()) : page.getEtag();
+    response.putHeader("Vary", "Accept-Encoding");
+    if (ConditionalGet.isNotModified(context.request(), page.getEtag(), page.getLastModified())) {
+      ConditionalGet.notModified(response, etag, page.getLastModified());
+      return;
+    }
+    ConditionalGet.putValidators(response, etag, page.getLastModified());
+    response.putHeader("Content-Type", "text/html");
+    if (gzip) {
+      response.putHeader(HttpHeaders.CONTENT_ENCODING, ResponseCompression.GZIP);
+      response.end(page.getGzipBody());
+    } else {
+      response.end(page.getBody());
+    }
+  }
+
   private void pageUpdateHandler(RoutingContext context) {
     String id = context.request().getParam("id");
     String title = context.request().getParam("title");
     String markdown = context.request().getParam("markdown");
     boolean newPage = "true".equals(context.request().getParam("newPage"));
 
-    JsonObject request = new JsonObject()
-      .put("id", id)
-      .put("title", title)
-      .put("markdown", markdown)
-      .put("newPage", newPage);
+    Page page = new Page()
+      .setName(title)
+      .setMarkdown(markdown)
+      .setNewPage(newPage);
+    if (!newPage) {
+      page.setId(Integer.parseInt(id));
+    }
 
-    dbService.savePage(request, result -> {
+    dbService.savePage(page, result -> {
       if (result.succeeded()) {
         context.response().setStatusCode(303).putHeader("Location", "/wiki/" + title).end();
       } else {
@@ -149,7 +549,9 @@ public class HttpServerVerticle extends AbstractVerticle {
 
   private void pageDeletionHandler(RoutingContext context) {
     String id = context.request().getParam("id");
-    JsonObject request = new JsonObject().put("id", id);
+    JsonObject request = new JsonObject()
+      .put("id", id)
+      .put("title", context.request().getParam("title"));
 
     dbService.deletePage(request, result -> {
       if (result.succeeded()) {
@@ -159,4 +561,24 @@ public class HttpServerVerticle extends AbstractVerticle {
       }
     });
   }
+
+  /**
+   * 200 once every verticle is deployed and warmed up, 503 until then, with the state of each.
+   */
+  private void readinessHandler(RoutingContext context) {
+    LocalMap<String, Boolean> readiness = vertx.sharedData().getLocalMap(READINESS_MAP);
+    JsonObject components = new JsonObject();
+    readiness.keySet().forEach(component -> components.put(component, readiness.get(component)));
+    boolean ready = !components.isEmpty() && components.stream().allMatch(component -> Boolean.TRUE.equals(component.getValue()));
+    context.response()
+      .setStatusCode(ready ? 200 : 503)
+      .putHeader("Content-Type", "application/json")
+      .putHeader("Cache-Control", "no-store")
+      .end(new JsonObject().put("ready", ready).put("components", components).encode());
+  }
+
+  private void cacheStatsHandler(RoutingContext context) {
+    context.response().putHeader("Content-Type", "application/json");
+    context.response().end(pageCache.stats().encode());
+  }
 }
@@ -1,19 +1,33 @@
 package io.vertx.starter.verticles;
 
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.jdbc.JDBCClient;
-import io.vertx.serviceproxy.ServiceBinder;
+import io.vertx.starter.database.ConnectionPools;
+import io.vertx.starter.database.DatabaseWarmUp;
+import io.vertx.starter.database.HtmlBackfillJob;
+import io.vertx.starter.database.MarkdownBlockRenderer;
+import io.vertx.starter.database.PageNameIndex;
+import io.vertx.starter.database.PageStore;
 import io.vertx.starter.database.SqlLoader;
 import io.vertx.starter.database.enums.SqlQuery;
+import io.vertx.starter.database.services.InMemoryWikiDatabaseService;
 import io.vertx.starter.database.services.WikiDatabaseService;
+import io.vertx.starter.database.services.WikiDatabaseServiceOptions;
+import io.vertx.starter.database.services.WikiDatabaseServicePageHandler;
+import io.vertx.starter.search.PersistentSearchIndex;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.sql.DataSource;
 import java.io.IOException;
+import java.sql.SQLException;
 import java.util.Map;
 
 public class WikiDatabaseVerticle extends AbstractVerticle {
@@ -21,9 +35,28 @@ public class WikiDatabaseVerticle extends AbstractVerticle {
   private static final String CONFIG_WIKIDB_JDBC_URL = "wikidb.jdbc.url";
   private static final String CONFIG_WIKIDB_JDBC_DRIVER_CLASS = "wikidb.jdbc.driver_class";
   private static final String CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE = "wikidb.jdbc.max_pool_size";
+  private static final String CONFIG_WIKIDB_JDBC_POOL_PROVIDER = "wikidb.jdbc.pool_provider";
+  private static final String CONFIG_WIKIDB_JDBC_MIN_IDLE = "wikidb.jdbc.min_idle";
+  private static final String CONFIG_WIKIDB_JDBC_CONNECTION_TIMEOUT = "wikidb.jdbc.connection_timeout_ms";
+  private static final String CONFIG_WIKIDB_JDBC_LEAK_DETECTION_THRESHOLD = "wikidb.jdbc.leak_detection_threshold_ms";
+  private static final String CONFIG_WIKIDB_JDBC_C3P0_STATEMENT_CACHE_SIZE = "wikidb.jdbc.c3p0.statement_cache_size";
+  private static final String CONFIG_WIKIDB_JDBC_DATASOURCE_PROPERTIES = "wikidb.jdbc.datasource_properties";
+  private static final String CONFIG_WIKIDB_SAVE_WINDOW_MS = "wikidb.save.window_ms";
+  private static final String CONFIG_WIKIDB_SAVE_GROUP_SIZE = "wikidb.save.group_size";
+  private static final String CONFIG_WIKIDB_REVISIONS_SNAPSHOT_INTERVAL = "wikidb.revisions.snapshot_interval";
+  private static final String CONFIG_WIKIDB_RENDER_CACHE_BYTES = "wikidb.render.cache_bytes";
+  private static final String CONFIG_WIKIDB_WARMUP_MARKDOWN_RENDERS = "wikidb.warmup.markdown_renders";
+  private static final int DEFAULT_MIN_IDLE = 4;
+  private static final String CONFIG_WIKIDB_READ_MODEL = "wikidb.read_model";
+  private static final String READ_MODEL_JDBC = "jdbc";
+  private static final String READ_MODEL_MEMORY = "memory";
+  private static final String CONFIG_WIKIDB_SEARCH_DIRECTORY = "wikidb.search.directory";
   private static final String DB_SERVICE_ADDRESS = "database-service-address";
   private Map<SqlQuery, String> sqlQueries;
+  private DataSource dataSource;
   private JDBCClient dbClient;
+  private PageNameIndex pageNameIndex;
+  private PersistentSearchIndex searchIndex;
   private boolean isInitialized = false;
 
   @Override
@@ -43,22 +76,124 @@ public class WikiDatabaseVerticle extends AbstractVerticle {
       promise.fail("Initialization failed");
     }
 
-    dbClient = JDBCClient.createShared(vertx, new JsonObject()
-      .put("url", config().getString(CONFIG_WIKIDB_JDBC_URL, "jdbc:hsqldb:file:db/wiki"))
+    JsonObject poolConfig = new JsonObject()
+      .put("provider", config().getString(CONFIG_WIKIDB_JDBC_POOL_PROVIDER, ConnectionPools.C3P0))
+      .put("url", config().getString(CONFIG_WIKIDB_JDBC_URL, "jdbc:hsqldb:file:db/wiki;hsqldb.write_delay=false"))
       .put("driver_class", config().getString(CONFIG_WIKIDB_JDBC_DRIVER_CLASS, "org.hsqldb.jdbcDriver"))
-      .put("max_pool_size", config().getInteger(CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 30)));
+      .put("max_pool_size", config().getInteger(CONFIG_WIKIDB_JDBC_MAX_POOL_SIZE, 30))
+      .put("min_idle", config().getInteger(CONFIG_WIKIDB_JDBC_MIN_IDLE, DEFAULT_MIN_IDLE))
+      .put("connection_timeout", config().getLong(CONFIG_WIKIDB_JDBC_CONNECTION_TIMEOUT, 5000L))
+      .put("leak_detection_threshold", config().getLong(CONFIG_WIKIDB_JDBC_LEAK_DETECTION_THRESHOLD, 0L))
+      .put("c3p0_statement_cache_size", config().getInteger(CONFIG_WIKIDB_JDBC_C3P0_STATEMENT_CACHE_SIZE, SqlQuery.values().length))
+      .put("datasource_properties", config().getJsonObject(CONFIG_WIKIDB_JDBC_DATASOURCE_PROPERTIES, new JsonObject()));
+    // the pools open their first connections right away
+    vertx.<DataSource>executeBlocking(future -> future.complete(ConnectionPools.create(poolConfig)), created -> {
+      if (created.failed()) {
+        promise.fail(created.cause());
+        return;
+      }
+      dataSource = created.result();
+      dbClient = JDBCClient.create(vertx, dataSource);
+      startService(promise);
+    });
+  }
 
-    WikiDatabaseService.create(dbClient, sqlQueries, serviceResult -> {
+  private void startService(Promise<Void> promise) {
+    pageNameIndex = new PageNameIndex();
+    searchIndex = new PersistentSearchIndex(vertx, config().getString(CONFIG_WIKIDB_SEARCH_DIRECTORY, "db/search"));
+    WikiDatabaseServiceOptions options = new WikiDatabaseServiceOptions()
+      .setSqlQueries(sqlQueries)
+      .setPageNameIndex(pageNameIndex)
+      .setSearchIndex(searchIndex)
+      .setRenderer(new MarkdownBlockRenderer(config().getLong(CONFIG_WIKIDB_RENDER_CACHE_BYTES, 32L * 1024 * 1024)))
+      .setSaveWindowMillis(config().getLong(CONFIG_WIKIDB_SAVE_WINDOW_MS, WikiDatabaseServiceOptions.DEFAULT_SAVE_WINDOW_MILLIS))
+      .setSaveGroupSize(config().getInteger(CONFIG_WIKIDB_SAVE_GROUP_SIZE, WikiDatabaseServiceOptions.DEFAULT_SAVE_GROUP_SIZE))
+      .setSnapshotInterval(config().getInteger(CONFIG_WIKIDB_REVISIONS_SNAPSHOT_INTERVAL,
+        WikiDatabaseServiceOptions.DEFAULT_SNAPSHOT_INTERVAL));
+    WikiDatabaseService.create(vertx, dbClient, options, serviceResult -> {
       if (serviceResult.succeeded()) {
         WikiDatabaseService wikiDatabaseService = serviceResult.result();
-        new ServiceBinder(vertx)
-          .setAddress(DB_SERVICE_ADDRESS)
-          .register(WikiDatabaseService.class, wikiDatabaseService);
-        promise.complete();
+        pageNameIndex.load(dbClient, sqlQueries, indexResult -> {
+          if (indexResult.failed()) {
+            promise.fail(indexResult.cause());
+            return;
+          }
+          log.info("Page name index loaded with {} pages", pageNameIndex.size());
+          searchIndex.open(dbClient, sqlQueries, pageNameIndex.size(), searchResult -> {
+            if (searchResult.failed()) {
+              promise.fail(searchResult.cause());
+              return;
+            }
+            readModel(wikiDatabaseService, readModelResult -> {
+              if (readModelResult.failed()) {
+                promise.fail(readModelResult.cause());
+                return;
+              }
+              new WikiDatabaseServicePageHandler(vertx, readModelResult.result()).register(vertx.eventBus(), DB_SERVICE_ADDRESS);
+              new DatabaseWarmUp(vertx, dataSource, sqlQueries,
+                config().getInteger(CONFIG_WIKIDB_JDBC_MIN_IDLE, DEFAULT_MIN_IDLE),
+                config().getInteger(CONFIG_WIKIDB_WARMUP_MARKDOWN_RENDERS, 200)).run(warmedUp -> {
+                promise.complete();
+                new HtmlBackfillJob(vertx, dbClient, sqlQueries).start();
+              });
+            });
+          });
+        });
       } else {
         promise.fail(serviceResult.cause());
       }
     });
   }
-}
 
+  /**
+   * The service answering on the event bus: the JDBC service itself, or the in-memory read model in front of it.
+   */
+  private void readModel(WikiDatabaseService jdbcService, Handler<AsyncResult<WikiDatabaseService>> handler) {
+    String readModel = config().getString(CONFIG_WIKIDB_READ_MODEL, READ_MODEL_JDBC);
+    if (READ_MODEL_JDBC.equals(readModel)) {
+      handler.handle(Future.succeededFuture(jdbcService));
+      return;
+    }
+    if (!READ_MODEL_MEMORY.equals(readModel)) {
+      handler.handle(Future.failedFuture("Unknown read model " + readModel));
+      return;
+    }
+    PageStore pageStore = new PageStore(dbClient, sqlQueries);
+    pageStore.load(loaded -> {
+      if (loaded.failed()) {
+        handler.handle(Future.failedFuture(loaded.cause()));
+        return;
+      }
+      log.info("In-memory page store loaded with {} pages", pageStore.size());
+      handler.handle(Future.succeededFuture(new InMemoryWikiDatabaseService(vertx, jdbcService, pageStore)));
+    });
+  }
+
+  @Override
+  public void stop(Promise<Void> promise) {
+    Promise<Void> searchIndexClosed = Promise.promise();
+    if (searchIndex == null) {
+      searchIndexClosed.complete();
+    } else {
+      searchIndex.close(searchIndexClosed);
+    }
+    searchIndexClosed.future().setHandler(ar -> {
+      if (dbClient != null) {
+        dbClient.close();
+      }
+      if (dataSource == null) {
+        promise.handle(ar);
+        return;
+      }
+      // closing the pool waits for its connections to close
+      vertx.<Void>executeBlocking(future -> {
+        try {
+          ConnectionPools.close(dataSource);
+        } catch (SQLException e) {
+          log.warn("Failed to close the connection pool", e);
+        }
+        future.complete();
+      }, closed -> promise.handle(ar));
+    });
+  }
+}
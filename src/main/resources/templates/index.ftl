@@ -10,6 +10,12 @@
         </div>
         <button type="submit" class="btn btn-primary">Create</button>
       </form>
+      <form class="form-inline mt-1" action="/search" method="get">
+        <div class="form-group">
+          <input type="text" class="form-control" id="q" name="q" placeholder="Search pages">
+        </div>
+        <button type="submit" class="btn btn-outline-primary">Search</button>
+      </form>
     </div>
     <h1 class="display-4">${title}</h1>
   </div>
@@ -19,9 +25,12 @@
     <h2>Pages:</h2>
     <ul>
       <#items as page>
-        <li><a href="/wiki/${page}">${page}</a></li>
+        <li><a href="/wiki/${page.name}">${page.name}</a></li>
       </#items>
     </ul>
+    <#if next??>
+      <a class="btn btn-outline-primary" href="/?after=${next?url('UTF-8')}" role="button">Next pages</a>
+    </#if>
   <#else>
     <p>The wiki is currently empty!</p>
   </#list>
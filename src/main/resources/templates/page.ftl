@@ -36,7 +36,9 @@
 
   <div class="col-md-12 mt-1">
     <hr class="mt-1">
-    <p class="small">Rendered: ${timestamp}</p>
+    <#if timestamp??>
+    <p class="small">Last modified: ${timestamp}</p>
+    </#if>
   </div>
 
 </div>
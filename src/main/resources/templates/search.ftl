@@ -0,0 +1,33 @@
+<#include "header.ftl">
+
+<div class="row">
+
+  <div class="col-md-12 mt-1">
+    <div class="float-right">
+      <form class="form-inline" action="/search" method="get">
+        <div class="form-group">
+          <input type="text" class="form-control" id="q" name="q" value="${query?html}" placeholder="Search pages">
+        </div>
+        <button type="submit" class="btn btn-primary">Search</button>
+        <a class="btn btn-outline-primary ml-1" href="/" role="button" aria-pressed="true">Home</a>
+      </form>
+    </div>
+    <h1 class="display-4">${title}</h1>
+  </div>
+
+  <div class="col-md-12 mt-1">
+  <#list results>
+    <h2>Results for "${query?html}":</h2>
+    <ul>
+      <#items as page>
+        <li><a href="/wiki/${page.name}">${page.name}</a></li>
+      </#items>
+    </ul>
+  <#else>
+    <p>No page matches your search.</p>
+  </#list>
+  </div>
+
+</div>
+
+<#include "footer.ftl">
@@ -0,0 +1,97 @@
+package io.vertx.starter.database;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LineDiffTest {
+  @Test
+  public void encodesCopiesSkipsAndInserts() {
+    assertEquals("=1\n-1\n+3\nB2\n=1\n", LineDiff.delta("a\nb\nc\n", "a\nB2\nc\n"));
+    assertEquals("=3\n", LineDiff.delta("a\nb\nc\n", "a\nb\nc\n"));
+    assertEquals("+2\na\n", LineDiff.delta("", "a\n"));
+    assertEquals("-1\n", LineDiff.delta("a\n", ""));
+  }
+
+  @Test
+  public void rebuildsTheTextExactly() {
+    String[][] pairs = {
+      {"a\nb\nc\n", "a\nc\nd\n"},
+      {"no terminator", "no terminator\nnow one\n"},
+      {"windows\r\nlines\r\n", "windows\r\nlines\r\nmore\r\n"},
+      {"", ""},
+      {"moved\nx\ny\n", "x\ny\nmoved\n"},
+      {"d\u00e9j\u00e0 \ud83d\ude00\n", "d\u00e9j\u00e0 \ud83d\ude00\nvu\n"},
+    };
+    for (String[] pair : pairs) {
+      assertEquals(pair[1], LineDiff.apply(pair[0], LineDiff.delta(pair[0], pair[1])));
+    }
+  }
+
+  @Test
+  public void rebuildsRandomEdits() {
+    Random random = new Random(42);
+    for (int round = 0; round < 200; round++) {
+      String from = randomText(random, random.nextInt(40));
+      StringBuilder to = new StringBuilder();
+      for (String line : LineDiff.lines(from)) {
+        int edit = random.nextInt(10);
+        if (edit == 0) {
+          continue;
+        }
+        if (edit == 1) {
+          to.append(randomText(random, 1 + random.nextInt(3)));
+        }
+        to.append(line);
+      }
+      String delta = LineDiff.delta(from, to.toString());
+      assertEquals(to.toString(), LineDiff.apply(from, delta));
+    }
+  }
+
+  @Test
+  public void fallsBackToReplacingUnrelatedTexts() {
+    String from = randomText(new Random(1), 3000);
+    String to = randomText(new Random(2), 3000);
+    assertEquals(to, LineDiff.apply(from, LineDiff.delta(from, to)));
+  }
+
+  @Test
+  public void groupsAdjacentChanges() {
+    JsonArray changes = LineDiff.changes("a\nb\nc\nd\n", "a\nB\nc\nd\ne\n");
+
+    assertEquals(2, changes.size());
+    assertEquals(new JsonObject().put("line", 2)
+      .put("removed", new JsonArray().add("b"))
+      .put("added", new JsonArray().add("B")), changes.getJsonObject(0));
+    assertEquals(new JsonObject().put("line", 5)
+      .put("removed", new JsonArray())
+      .put("added", new JsonArray().add("e")), changes.getJsonObject(1));
+  }
+
+  @Test
+  public void refusesDeltasThatDoNotApply() {
+    for (String delta : Arrays.asList("=5\n", "+10\nshort", "=1", "?1\n", "=x\n")) {
+      try {
+        LineDiff.apply("a\nb\n", delta);
+        throw new AssertionError("applied " + delta);
+      } catch (IllegalArgumentException expected) {
+        assertTrue(expected.getMessage(), !expected.getMessage().isEmpty());
+      }
+    }
+  }
+
+  private static String randomText(Random random, int lines) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < lines; i++) {
+      text.append("line ").append(random.nextInt(20)).append('\n');
+    }
+    return text.toString();
+  }
+}
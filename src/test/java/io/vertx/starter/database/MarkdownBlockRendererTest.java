@@ -0,0 +1,94 @@
+package io.vertx.starter.database;
+
+import com.github.rjeschke.txtmark.Processor;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class MarkdownBlockRendererTest {
+  private static final String[] BLOCKS = {
+    "A paragraph with *emphasis* and a [reference link][ref].\nIt goes on a second line.\n",
+    "# A heading\n",
+    "Setext heading\n==============\n",
+    "Another setext heading\n---\n",
+    "* a list item\n* another one\n\n* after a blank line\n\n    indented under it\n",
+    "1. first\n2. second\n\n3. third\n",
+    "> a quote\n>\n> going on\n\n> and resumed\n",
+    "    code block\n\n    still code\n",
+    "```\nfenced code\n\nwith a blank line\n```\n",
+    "<div>\nan HTML block\n\nwith a blank line\n</div>\n",
+    "<!-- a comment -->\n",
+    "Text with a [link](http://example.com/ \"title\") and `code`.\n",
+    "***\n",
+    "[ref]: http://example.com/ref\n",
+    "[other]: http://example.com/other\n  \"a title on its own line\"\n",
+    "A line ending with two spaces  \nbreaks.\n",
+    "Text using [the other reference][other].\n",
+    "[third]: http://example.com/third\n",
+    "[titled]: http://example.com/titled 'its own title'\n",
+    "\"A line in quotes\"\n",
+    "(A line in parentheses) and more\n",
+    "  'An indented line in quotes'\n",
+    "(An unclosed parenthesis\n",
+    "Text using [the third][third] and [the titled][titled] references.\n",
+  };
+
+  private final MarkdownBlockRenderer renderer = new MarkdownBlockRenderer(1024 * 1024);
+
+  @Test
+  public void rendersShortPagesInOneGo() {
+    String markdown = "# Title\n\nSome *text*\n";
+    assertEquals(Processor.process(markdown), renderer.render(markdown));
+  }
+
+  @Test
+  public void rendersLikeTxtmarkBlockByBlock() {
+    Random random = new Random(7);
+    for (int round = 0; round < 200; round++) {
+      String markdown = randomPage(random);
+      assertEquals("page " + round + ":\n" + markdown, Processor.process(markdown), renderer.render(markdown));
+    }
+  }
+
+  @Test
+  public void rendersAnEditedPageLikeTxtmark() {
+    Random random = new Random(11);
+    String page = randomPage(random);
+    renderer.render(page);
+    for (int edit = 0; edit < 50; edit++) {
+      int at = page.indexOf('\n', random.nextInt(page.length())) + 1;
+      page = page.substring(0, at) + BLOCKS[random.nextInt(BLOCKS.length)] + "\n" + page.substring(at);
+      assertEquals(Processor.process(page), renderer.render(page));
+    }
+  }
+
+  @Test
+  public void rendersWithoutCache() {
+    String markdown = randomPage(new Random(3));
+    assertEquals(Processor.process(markdown), new MarkdownBlockRenderer(0).render(markdown));
+  }
+
+  @Test
+  public void keepsRenderingWhenTheCacheIsTooSmall() {
+    MarkdownBlockRenderer tiny = new MarkdownBlockRenderer(512);
+    Random random = new Random(5);
+    for (int round = 0; round < 20; round++) {
+      String markdown = randomPage(random);
+      assertEquals(Processor.process(markdown), tiny.render(markdown));
+    }
+  }
+
+  /**
+   * Blocks separated by blank lines, long enough to be split.
+   */
+  private static String randomPage(Random random) {
+    StringBuilder page = new StringBuilder();
+    while (page.length() < 6000) {
+      page.append(BLOCKS[random.nextInt(BLOCKS.length)]);
+      page.append(random.nextInt(4) == 0 ? "" : "\n");
+    }
+    return page.toString();
+  }
+}
@@ -0,0 +1,124 @@
+package io.vertx.starter.database;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.jdbc.JDBCClient;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.starter.database.enums.SqlQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(VertxUnitRunner.class)
+public class PageNameIndexTest {
+  /**
+   * More than two loading batches, the last one partly filled.
+   */
+  private static final int PAGES = 2500;
+
+  private Vertx vertx;
+  private PageNameIndex index;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    index = new PageNameIndex();
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void loadsEveryPageBatchByBatch(TestContext context) throws Exception {
+    String url = "jdbc:hsqldb:mem:" + UUID.randomUUID();
+    Map<SqlQuery, String> sqlQueries = SqlLoader.loadSqlQueries(new JsonObject());
+    try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+      connection.createStatement().execute(sqlQueries.get(SqlQuery.CREATE_PAGES_TABLE));
+      try (PreparedStatement insert = connection.prepareStatement("insert into Pages (Name) values (?)")) {
+        for (int i = 0; i < PAGES; i++) {
+          insert.setString(1, String.format("Page %04d", i));
+          insert.addBatch();
+        }
+        insert.executeBatch();
+      }
+    }
+    JDBCClient dbClient = JDBCClient.createNonShared(vertx, new JsonObject()
+      .put("url", url)
+      .put("driver_class", "org.hsqldb.jdbcDriver"));
+
+    index.load(dbClient, sqlQueries, context.asyncAssertSuccess(loaded -> {
+      context.assertEquals(PAGES, loaded.size());
+      context.assertEquals("Page 0000", loaded.names().getString(0));
+      context.assertEquals("Page 2499", loaded.names().getString(PAGES - 1));
+      context.assertEquals(1000, (int) loaded.idOf("Page 1000"));
+      context.assertEquals("Page 1999", loaded.nameOf(1999));
+      dbClient.close();
+    }));
+  }
+
+  @Test
+  public void listsAfterTheCursor() {
+    String[] names = {"Delta", "alpha", "Charlie", "Bravo"};
+    for (int id = 0; id < names.length; id++) {
+      index.put(names[id], id);
+    }
+
+    JsonObject first = index.list(null, 2);
+    JsonObject rest = index.list(first.getString("next"), 2);
+
+    assertNames(first, "Bravo", "Charlie");
+    assertNames(rest, "Delta", "alpha");
+    assertEquals("Charlie", first.getString("next"));
+    assertNull("nothing follows a full last page", rest.getString("next"));
+    assertNames(index.list("", 10), "Bravo", "Charlie", "Delta", "alpha");
+    assertNames(index.list("Zulu", 10), "alpha");
+  }
+
+  @Test
+  public void suggestsNamesStartingWithThePrefix() {
+    String[] names = {"Page", "Pages", "Paged", "Pag", "page", "Other"};
+    for (int id = 0; id < names.length; id++) {
+      index.put(names[id], id);
+    }
+
+    assertEquals(new JsonArray().add("Page").add("Paged").add("Pages"), index.suggest("Page", 10));
+    assertEquals(new JsonArray().add("Page"), index.suggest("Page", 1));
+    assertEquals(new JsonArray(), index.suggest("Pagez", 10));
+    assertEquals(6, index.suggest("", 10).size());
+  }
+
+  @Test
+  public void renamesAndRemovesById() {
+    index.put("Old", 1);
+    index.remove(1);
+    index.put("New", 1);
+
+    assertNull(index.idOf("Old"));
+    assertEquals("New", index.nameOf(1));
+    assertEquals("New", index.remove(1));
+    assertNull(index.remove(1));
+    assertEquals(0, index.size());
+  }
+
+  private static void assertNames(JsonObject listing, String... names) {
+    JsonArray pages = listing.getJsonArray("pages");
+    assertEquals(names.length, pages.size());
+    for (int i = 0; i < names.length; i++) {
+      assertEquals(names[i], pages.getJsonObject(i).getString("name"));
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package io.vertx.starter.database.services;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.starter.database.models.Page;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RunWith(VertxUnitRunner.class)
+public class PageSaveCoalescerTest {
+  private static final long LONG_WINDOW = 60_000;
+
+  private Vertx vertx;
+  private Context context;
+  private final List<List<Page>> groups = new ArrayList<>();
+  private final List<Handler<AsyncResult<Void>>> completions = new ArrayList<>();
+  private Handler<List<Page>> onWrite = pages -> {
+  };
+  private PageSaveCoalescer current;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    // the coalescer is confined to one event loop, as in the database service
+    context = vertx.getOrCreateContext();
+  }
+
+  @After
+  public void tearDown(TestContext testContext) {
+    vertx.close(testContext.asyncAssertSuccess());
+  }
+
+  @Test
+  public void writesEachPageOnceWithItsLatestContent(TestContext testContext) {
+    Async acknowledged = testContext.async(3);
+    onWrite = pages -> {
+      testContext.assertEquals(1, groups.size());
+      testContext.assertEquals("1:second,2:other", describe(pages));
+      // no caller is answered before the group is committed
+      testContext.assertEquals(3, acknowledged.count());
+      completions.get(0).handle(Future.succeededFuture());
+    };
+    context.runOnContext(v -> {
+      PageSaveCoalescer coalescer = coalescer(10, 100);
+      coalescer.save(page(1, "first"), testContext.asyncAssertSuccess(saved -> {
+        testContext.assertEquals(1, saved.getId());
+        testContext.assertEquals("Page 1", saved.getName());
+        acknowledged.countDown();
+      }));
+      coalescer.save(page(1, "second"), testContext.asyncAssertSuccess(saved -> acknowledged.countDown()));
+      coalescer.save(page(2, "other"), testContext.asyncAssertSuccess(saved -> acknowledged.countDown()));
+    });
+  }
+
+  @Test
+  public void failsEverySaveOfAFailedGroup(TestContext testContext) {
+    IllegalStateException failure = new IllegalStateException("write failed");
+    Async failed = testContext.async(3);
+    onWrite = pages -> completions.get(0).handle(Future.failedFuture(failure));
+    context.runOnContext(v -> {
+      PageSaveCoalescer coalescer = coalescer(10, 100);
+      for (int id : new int[]{1, 1, 2}) {
+        coalescer.save(page(id, "content"), testContext.asyncAssertFailure(cause -> {
+          testContext.assertEquals(failure, cause);
+          failed.countDown();
+        }));
+      }
+    });
+  }
+
+  @Test
+  public void neverWritesMoreThanTheGroupSize(TestContext testContext) {
+    Async done = testContext.async();
+    List<Integer> acknowledged = new ArrayList<>();
+    onWrite = pages -> {
+      testContext.assertTrue(pages.size() <= 3, "group of " + pages.size());
+      if (groups.size() == 1) {
+        // ten more saves pile up behind the group in flight
+        for (int id = 4; id <= 13; id++) {
+          int saved = id;
+          current.save(page(id, "late"), testContext.asyncAssertSuccess(page -> acknowledged.add(saved)));
+        }
+        testContext.assertEquals(1, groups.size());
+      }
+      testContext.assertEquals(groups.size() == 1 ? 0 : 3 + 3 * (groups.size() - 2), acknowledged.size());
+      if (groups.size() == 5) {
+        testContext.assertEquals("1:early,2:early,3:early|4:late,5:late,6:late|7:late,8:late,9:late|10:late,11:late,12:late|13:late",
+          groups.stream().map(PageSaveCoalescerTest::describe).collect(Collectors.joining("|")));
+        completions.get(4).handle(Future.succeededFuture());
+        testContext.assertEquals(13, acknowledged.size());
+        done.complete();
+      } else {
+        completions.get(groups.size() - 1).handle(Future.succeededFuture());
+      }
+    };
+    context.runOnContext(v -> {
+      // the window never closes: groups are written as soon as they are full or the previous one completes
+      current = coalescer(LONG_WINDOW, 3);
+      for (int id = 1; id <= 3; id++) {
+        int saved = id;
+        current.save(page(id, "early"), testContext.asyncAssertSuccess(page -> acknowledged.add(saved)));
+      }
+    });
+  }
+
+  private PageSaveCoalescer coalescer(long windowMillis, int maxGroupSize) {
+    return new PageSaveCoalescer(vertx, windowMillis, maxGroupSize, (pages, handler) -> {
+      groups.add(pages);
+      completions.add(handler);
+      onWrite.handle(pages);
+    });
+  }
+
+  private static Page page(int id, String markdown) {
+    return new Page().setId(id).setName("Page " + id).setMarkdown(markdown);
+  }
+
+  private static String describe(List<Page> pages) {
+    return pages.stream().map(page -> page.getId() + ":" + page.getMarkdown()).collect(Collectors.joining(","));
+  }
+}
@@ -0,0 +1,137 @@
+package io.vertx.starter.database.services;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.starter.database.models.Page;
+import io.vertx.starter.verticles.WikiDatabaseVerticle;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+@RunWith(VertxUnitRunner.class)
+public class WikiDatabaseServiceListingTest {
+  /**
+   * Names whose order differs between case-insensitive, accent-aware or code point comparisons: a supplementary
+   * character sorts before U+FF5E by UTF-16 code unit only.
+   */
+  private static final List<String> NAMES = Arrays.asList("a", "B", "b", "Z", "a b", "a/b", "ab", "e", "\u00e9",
+    "\uff5e", "\ud83c\udf6e", "suggest");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Vertx vertx;
+  private WikiDatabaseService dbService;
+
+  @Before
+  public void setUp(TestContext context) {
+    vertx = Vertx.vertx();
+    JsonObject config = new JsonObject()
+      .put("wikidb.jdbc.url", "jdbc:hsqldb:mem:" + UUID.randomUUID())
+      .put("wikidb.jdbc.min_idle", 1)
+      .put("wikidb.save.window_ms", 0)
+      .put("wikidb.search.directory", folder.getRoot().getPath())
+      .put("wikidb.warmup.markdown_renders", 0);
+    Async saved = context.async();
+    vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(id -> {
+      dbService = WikiDatabaseService.createProxy(vertx, "database-service-address");
+      List<Future<Page>> saves = new ArrayList<>();
+      for (String name : NAMES) {
+        Promise<Page> save = Promise.promise();
+        dbService.savePage(new Page().setName(name).setMarkdown(name).setNewPage(true), save);
+        saves.add(save.future());
+      }
+      // CompositeFuture only takes a raw list in Vert.x 3.8
+      @SuppressWarnings("rawtypes")
+      List<Future> all = new ArrayList<>(saves);
+      CompositeFuture.all(all).setHandler(context.asyncAssertSuccess(done -> saved.complete()));
+    }));
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void indexAndDatabaseListingsShareTheirCursors(TestContext context) {
+    List<String> expected = new ArrayList<>(NAMES);
+    Collections.sort(expected);
+    List<String> listed = new ArrayList<>();
+    Async done = context.async();
+    listFrom(context, null, 0, listed, () -> {
+      context.assertEquals(expected, listed);
+      done.complete();
+    });
+  }
+
+  @Test
+  public void databaseListingGivesACursorOnlyWhenMorePagesFollow(TestContext context) {
+    List<String> expected = new ArrayList<>(NAMES);
+    Collections.sort(expected);
+    JsonArray fields = new JsonArray().add(PageFields.NAME).add(PageFields.VERSION);
+    dbService.listPages(new JsonObject().put("fields", fields).put("limit", NAMES.size()), context.asyncAssertSuccess(all -> {
+      context.assertEquals(NAMES.size(), all.getJsonArray("pages").size());
+      context.assertNull(all.getString("next"));
+      context.assertEquals(1, all.getJsonArray("pages").getJsonObject(0).getInteger(PageFields.VERSION));
+    }));
+    dbService.listPages(new JsonObject().put("fields", fields).put("limit", NAMES.size() - 1), context.asyncAssertSuccess(first -> {
+      context.assertEquals(expected.get(NAMES.size() - 2), first.getString("next"));
+      dbService.listPages(new JsonObject().put("fields", fields).put("after", first.getString("next")),
+        context.asyncAssertSuccess(rest -> {
+          context.assertEquals(1, rest.getJsonArray("pages").size());
+          context.assertEquals(expected.get(NAMES.size() - 1), rest.getJsonArray("pages").getJsonObject(0).getString(PageFields.NAME));
+          context.assertNull(rest.getString("next"));
+        }));
+    }));
+  }
+
+  @Test
+  public void databaseListingKeepsTheLimitPositive(TestContext context) {
+    JsonObject request = new JsonObject().put("fields", new JsonArray().add(PageFields.SIZE)).put("limit", 0);
+    dbService.listPages(request, context.asyncAssertSuccess(listing -> {
+      context.assertEquals(1, listing.getJsonArray("pages").size());
+      context.assertEquals(Collections.singleton(PageFields.SIZE), listing.getJsonArray("pages").getJsonObject(0).fieldNames());
+      context.assertNotNull(listing.getString("next"));
+    }));
+  }
+
+  /**
+   * Walks the listing two pages at a time, alternating between the index (no fields) and the database (version).
+   */
+  private void listFrom(TestContext context, String after, int call, List<String> listed, Runnable done) {
+    JsonObject request = new JsonObject().put("limit", 2);
+    if (after != null) {
+      request.put("after", after);
+    }
+    if (call % 2 == 1) {
+      request.put("fields", new JsonArray().add(PageFields.NAME).add(PageFields.VERSION));
+    }
+    dbService.listPages(request, context.asyncAssertSuccess(listing -> {
+      listing.getJsonArray("pages").forEach(page -> listed.add(((JsonObject) page).getString(PageFields.NAME)));
+      String next = listing.getString("next");
+      if (next == null) {
+        done.run();
+      } else {
+        listFrom(context, next, call + 1, listed, done);
+      }
+    }));
+  }
+}
@@ -0,0 +1,86 @@
+package io.vertx.starter.database.services;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.serviceproxy.ServiceException;
+import io.vertx.starter.database.models.Page;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.Proxy;
+
+@RunWith(VertxUnitRunner.class)
+public class WikiDatabaseServicePageHandlerTest {
+  private static final String ADDRESS = "page-handler-test";
+  private static final long TIMEOUT = 2000;
+
+  private Vertx vertx;
+  private WikiDatabaseService proxy;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    new WikiDatabaseServicePageHandler(vertx, stubService()).register(vertx.eventBus(), ADDRESS);
+    proxy = new WikiDatabaseServicePageProxy(vertx, ADDRESS);
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void carriesPagesBothWays(TestContext context) {
+    proxy.savePage(new Page().setName("Saved").setMarkdown("text"), context.asyncAssertSuccess(page -> {
+      context.assertEquals("Saved", page.getName());
+      context.assertEquals(1, page.getId());
+    }));
+    proxy.fetchPage("Fetched", context.asyncAssertSuccess(page -> context.assertEquals("Fetched", page.getName())));
+  }
+
+  @Test
+  public void repliesWhenTheServiceThrows(TestContext context) {
+    long start = System.currentTimeMillis();
+    proxy.fetchPageVersion("Broken", context.asyncAssertFailure(cause -> {
+      context.assertTrue(cause instanceof ServiceException);
+      context.assertEquals(-1, ((ServiceException) cause).failureCode());
+      context.assertEquals("no version", cause.getMessage());
+      context.assertTrue(System.currentTimeMillis() - start < TIMEOUT);
+    }));
+  }
+
+  @Test
+  public void answersPlainGeneratedProxiesWithJson(TestContext context) {
+    DeliveryOptions options = new DeliveryOptions().addHeader("action", "fetchPage").setSendTimeout(TIMEOUT);
+    vertx.eventBus().<JsonObject>request(ADDRESS, new JsonObject().put("name", "Plain"), options,
+      context.asyncAssertSuccess(reply -> context.assertEquals("Plain", reply.body().getString("name"))));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static WikiDatabaseService stubService() {
+    return (WikiDatabaseService) Proxy.newProxyInstance(WikiDatabaseService.class.getClassLoader(),
+      new Class<?>[]{WikiDatabaseService.class}, (stub, method, args) -> {
+        switch (method.getName()) {
+          case "fetchPage":
+            ((Handler<AsyncResult<Page>>) args[1]).handle(Future.succeededFuture(new Page().setName((String) args[0])));
+            return null;
+          case "savePage":
+            Page page = (Page) args[0];
+            ((Handler<AsyncResult<Page>>) args[1]).handle(Future.succeededFuture(new Page().setId(1).setName(page.getName())));
+            return null;
+          case "fetchPageVersion":
+            throw new IllegalStateException("no version");
+          default:
+            throw new UnsupportedOperationException(method.getName());
+        }
+      });
+  }
+}
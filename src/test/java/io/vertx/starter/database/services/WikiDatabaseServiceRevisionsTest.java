@@ -0,0 +1,112 @@
+package io.vertx.starter.database.services;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.starter.database.models.Page;
+import io.vertx.starter.verticles.WikiDatabaseVerticle;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@RunWith(VertxUnitRunner.class)
+public class WikiDatabaseServiceRevisionsTest {
+  private static final int CONCURRENT_SAVES = 8;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Vertx vertx;
+  private WikiDatabaseService dbService;
+
+  @Before
+  public void setUp(TestContext context) {
+    vertx = Vertx.vertx();
+    JsonObject config = new JsonObject()
+      .put("wikidb.jdbc.url", "jdbc:hsqldb:mem:" + UUID.randomUUID())
+      .put("wikidb.jdbc.min_idle", 1)
+      .put("wikidb.save.window_ms", 0)
+      .put("wikidb.search.directory", folder.getRoot().getPath())
+      .put("wikidb.warmup.markdown_renders", 0);
+    vertx.deployVerticle(new WikiDatabaseVerticle(), new DeploymentOptions().setConfig(config), context.asyncAssertSuccess(id ->
+      dbService = WikiDatabaseService.createProxy(vertx, "database-service-address")));
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void concurrentSavesOfOnePageEachGetTheirRevision(TestContext context) {
+    dbService.savePage(new Page().setName("Shared").setMarkdown("v1\n").setNewPage(true), context.asyncAssertSuccess(created -> {
+      List<Promise<Page>> saves = saves(CONCURRENT_SAVES);
+      for (int i = 0; i < CONCURRENT_SAVES; i++) {
+        dbService.savePage(new Page().setId(created.getId()).setName("Shared").setMarkdown("v1\nedit " + i + "\n"), saves.get(i));
+      }
+      CompositeFuture.all(futures(saves)).setHandler(context.asyncAssertSuccess(saved ->
+        dbService.fetchPageHistory(new JsonObject().put("name", "Shared"), context.asyncAssertSuccess(history -> {
+          JsonArray revisions = history.getJsonArray("revisions");
+          context.assertEquals(CONCURRENT_SAVES + 1, revisions.size());
+          context.assertEquals(CONCURRENT_SAVES + 1, revisions.getJsonObject(0).getInteger("version"));
+          // each revision applies to the one before it, so every version reads back as one of the saves
+          Set<String> contents = new HashSet<>();
+          for (int version = 2; version <= CONCURRENT_SAVES + 1; version++) {
+            int expected = version;
+            dbService.fetchPageRevision(new JsonObject().put("name", "Shared").put("version", version),
+              context.asyncAssertSuccess(revision -> {
+                context.assertTrue(contents.add(revision.getMarkdown()), "version " + expected + " repeats another one");
+                context.assertTrue(revision.getMarkdown().startsWith("v1\nedit "));
+              }));
+          }
+        }))));
+    }));
+  }
+
+  @Test
+  public void saveAndDeleteOfOnePageDoNotDeadlock(TestContext context) {
+    dbService.savePage(new Page().setName("Doomed").setMarkdown("v1\n").setNewPage(true), context.asyncAssertSuccess(created -> {
+      String id = String.valueOf(created.getId());
+      List<Promise<Page>> saves = saves(CONCURRENT_SAVES);
+      for (int i = 0; i < CONCURRENT_SAVES; i++) {
+        dbService.savePage(new Page().setId(created.getId()).setName("Doomed").setMarkdown("edit " + i + "\n"), saves.get(i));
+        if (i == CONCURRENT_SAVES / 2) {
+          dbService.deletePage(new JsonObject().put("id", id).put("title", "Doomed"), context.asyncAssertSuccess());
+        }
+      }
+      CompositeFuture.all(futures(saves)).setHandler(context.asyncAssertSuccess());
+    }));
+  }
+
+  private static List<Promise<Page>> saves(int count) {
+    List<Promise<Page>> saves = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      saves.add(Promise.promise());
+    }
+    return saves;
+  }
+
+  /**
+   * The futures of the promises, as the raw list CompositeFuture takes in Vert.x 3.8.
+   */
+  @SuppressWarnings("rawtypes")
+  private static List<Future> futures(List<Promise<Page>> promises) {
+    return promises.stream().<Future>map(Promise::future).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,153 @@
+package io.vertx.starter.history;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.starter.models.Currency;
+import io.vertx.starter.models.Rates;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.nio.channels.ClosedChannelException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(VertxUnitRunner.class)
+public class RateHistoryTest {
+  private static final LocalDate MONDAY = LocalDate.of(2019, 12, 9);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Vertx vertx;
+  private String file;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    file = new File(folder.getRoot(), "history/rates.bin").getPath();
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void readsTheRecordedDaysInOrderSkippingGaps(TestContext context) {
+    RateHistory.open(vertx, file, context.asyncAssertSuccess(history -> {
+      append(context, history, rates(MONDAY, 1.10));
+      append(context, history, rates(MONDAY.plusDays(4), 1.14));
+      append(context, history, rates(MONDAY.plusDays(1), 1.11));
+      // a later snapshot of the same day replaces the earlier one
+      append(context, history, rates(MONDAY.plusDays(1), 1.12));
+
+      context.assertEquals(Arrays.asList(MONDAY + "=1.1", MONDAY.plusDays(1) + "=1.12", MONDAY.plusDays(4) + "=1.14"),
+        points(history, MONDAY.minusDays(10), MONDAY.plusDays(10)));
+      context.assertEquals(Arrays.asList(MONDAY.plusDays(1) + "=1.12"),
+        points(history, MONDAY.plusDays(1), MONDAY.plusDays(3)));
+      context.assertEquals(Currency.EUR, history.latestBase());
+
+      RateStats stats = history.stats(Currency.USD, MONDAY, MONDAY.plusDays(4));
+      context.assertEquals(3, stats.getCount());
+      context.assertEquals(1.10, stats.getMin());
+      context.assertEquals(1.14, stats.getMax());
+    }));
+  }
+
+  @Test
+  public void refusesDaysBeforeTheFirstOne(TestContext context) {
+    RateHistory.open(vertx, file, context.asyncAssertSuccess(history -> {
+      append(context, history, rates(MONDAY, 1.10));
+      try {
+        context.assertFalse(history.append(rates(MONDAY.minusDays(1), 1.09)));
+        context.assertFalse(history.append(rates(null, 1.09)));
+      } catch (Exception e) {
+        context.fail(e);
+      }
+      context.assertEquals(1, points(history, LocalDate.MIN, LocalDate.MAX).size());
+    }));
+  }
+
+  @Test
+  public void answersNothingForRangesOutsideOfTheRecordedDays(TestContext context) {
+    RateHistory.open(vertx, file, context.asyncAssertSuccess(history -> {
+      context.assertTrue(points(history, LocalDate.MIN, LocalDate.MAX).isEmpty());
+      append(context, history, rates(MONDAY, 1.10));
+
+      context.assertTrue(points(history, LocalDate.of(999_999_999, 1, 1), LocalDate.MAX).isEmpty());
+      context.assertTrue(points(history, LocalDate.MIN, LocalDate.of(-999_999_999, 1, 1)).isEmpty());
+      context.assertTrue(points(history, MONDAY.plusDays(1), MONDAY.plusDays(400)).isEmpty());
+      context.assertTrue(points(history, MONDAY, MONDAY.minusDays(1)).isEmpty());
+      context.assertEquals(1, points(history, LocalDate.MIN, LocalDate.MAX).size());
+    }));
+  }
+
+  @Test
+  public void growsPastTheInitialMapping(TestContext context) {
+    RateHistory.open(vertx, file, context.asyncAssertSuccess(history -> {
+      for (int day = 0; day < 800; day += 7) {
+        append(context, history, rates(MONDAY.plusDays(day), 1 + day / 1000.0));
+      }
+      List<String> points = points(history, MONDAY, MONDAY.plusDays(800));
+      context.assertEquals(115, points.size());
+      context.assertEquals(MONDAY.plusDays(798) + "=1.798", points.get(114));
+    }));
+  }
+
+  @Test
+  public void closesTheFileWithTheLastUserAndReopensIt(TestContext context) {
+    RateHistory.open(vertx, file, context.asyncAssertSuccess(first ->
+      RateHistory.open(vertx, file, context.asyncAssertSuccess(second -> {
+        context.assertTrue(first == second, "one instance per file");
+        append(context, first, rates(MONDAY, 1.10));
+        first.close(vertx, context.asyncAssertSuccess(closed -> {
+          append(context, second, rates(MONDAY.plusDays(1), 1.11));
+          second.close(vertx, context.asyncAssertSuccess(allClosed -> {
+            try {
+              second.append(rates(MONDAY.plusDays(2), 1.12));
+              context.fail("appended to a closed history");
+            } catch (ClosedChannelException expected) {
+              // closed with its last user
+            } catch (Exception e) {
+              context.fail(e);
+            }
+            RateHistory.open(vertx, file, context.asyncAssertSuccess(reopened -> {
+              context.assertFalse(reopened == second);
+              context.assertEquals(Arrays.asList(MONDAY + "=1.1", MONDAY.plusDays(1) + "=1.11"),
+                points(reopened, MONDAY, MONDAY.plusDays(2)));
+              reopened.close(vertx, context.asyncAssertSuccess());
+            }));
+          }));
+        }));
+      }))));
+  }
+
+  private static void append(TestContext context, RateHistory history, Rates rates) {
+    try {
+      context.assertTrue(history.append(rates));
+    } catch (Exception e) {
+      context.fail(e);
+    }
+  }
+
+  private static List<String> points(RateHistory history, LocalDate from, LocalDate to) {
+    List<String> points = new ArrayList<>();
+    history.forEach(Currency.USD, from, to, (day, rate) -> points.add(LocalDate.ofEpochDay(day) + "=" + rate));
+    return points;
+  }
+
+  private static Rates rates(LocalDate date, double usd) {
+    double[] values = new double[Currency.count()];
+    Arrays.fill(values, Double.NaN);
+    values[Currency.USD.ordinal()] = usd;
+    return new Rates(Currency.EUR, date, values);
+  }
+}
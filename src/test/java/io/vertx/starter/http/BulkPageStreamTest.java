@@ -0,0 +1,126 @@
+package io.vertx.starter.http;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.starter.database.services.WikiDatabaseService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RunWith(VertxUnitRunner.class)
+public class BulkPageStreamTest {
+  private static final int BATCH_SIZE = 2;
+
+  private Vertx vertx;
+  private HttpServer server;
+  private WebClient client;
+  private final List<String> calls = new ArrayList<>();
+
+  @Before
+  public void setUp(TestContext context) {
+    vertx = Vertx.vertx();
+    WikiDatabaseService dbService = stubService();
+    Router router = Router.router(vertx);
+    router.post("/bulk").handler(routingContext -> new BulkPageStream(dbService, BATCH_SIZE, routingContext).start());
+    server = vertx.createHttpServer().requestHandler(router);
+    server.listen(0, context.asyncAssertSuccess());
+    client = WebClient.create(vertx);
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void flushesTheLastPartialBatchAtTheEndOfTheStream(TestContext context) {
+    post(context, "{\"title\":\"a\"}\n{\"title\":\"b\"}\n{\"title\":\"c\"}\n", lines -> {
+      context.assertEquals(Arrays.asList("save a,b", "save c"), calls);
+      context.assertEquals(Arrays.asList("a", "b", "c"), titles(lines));
+    });
+  }
+
+  @Test
+  public void readsAFinalLineWithoutTrailingNewline(TestContext context) {
+    post(context, "{\"title\":\"a\"}\n{\"title\":\"b\",\"delete\":true}", lines -> {
+      context.assertEquals(Arrays.asList("save a", "delete b"), calls);
+      context.assertEquals(Arrays.asList("a", "b"), titles(lines));
+    });
+  }
+
+  @Test
+  public void endsAnEmptyStreamWithoutCalls(TestContext context) {
+    post(context, "", lines -> {
+      context.assertTrue(calls.isEmpty());
+      context.assertTrue(lines.isEmpty());
+    });
+  }
+
+  @Test
+  public void reportsInvalidLinesAndGoesOn(TestContext context) {
+    post(context, "{\"title\":\"a\"}\nnot json\n\n{\"title\":\"b\"}\n", lines -> {
+      context.assertEquals(Arrays.asList("save a", "save b"), calls);
+      context.assertEquals(new JsonObject().put("line", 2).put("error", "invalid JSON"), lines.get(1));
+      context.assertEquals(Arrays.asList("a", null, "b"), titles(lines));
+    });
+  }
+
+  private void post(TestContext context, String body, Handler<List<JsonObject>> check) {
+    Async async = context.async();
+    client.post(server.actualPort(), "localhost", "/bulk").sendBuffer(Buffer.buffer(body), context.asyncAssertSuccess(response -> {
+      context.assertEquals(200, response.statusCode());
+      String text = response.bodyAsString() == null ? "" : response.bodyAsString();
+      check.handle(Arrays.stream(text.split("\n"))
+        .filter(line -> !line.isEmpty())
+        .map(JsonObject::new)
+        .collect(Collectors.toList()));
+      async.complete();
+    }));
+  }
+
+  private static List<String> titles(List<JsonObject> lines) {
+    return lines.stream().map(line -> line.getString("title")).collect(Collectors.toList());
+  }
+
+  /**
+   * Service answering the batch calls with one result per page, and recording them.
+   */
+  @SuppressWarnings("unchecked")
+  private WikiDatabaseService stubService() {
+    return (WikiDatabaseService) Proxy.newProxyInstance(getClass().getClassLoader(),
+      new Class<?>[]{WikiDatabaseService.class}, (proxy, method, args) -> {
+        String kind = method.getName().equals("savePages") ? "save" : method.getName().equals("deletePages") ? "delete" : null;
+        if (kind == null) {
+          throw new UnsupportedOperationException(method.getName());
+        }
+        JsonArray pages = ((JsonObject) args[0]).getJsonArray("pages");
+        JsonArray results = new JsonArray();
+        List<String> titles = new ArrayList<>();
+        pages.forEach(page -> {
+          titles.add(((JsonObject) page).getString("title"));
+          results.add(new JsonObject().put("title", ((JsonObject) page).getString("title")).put("status", kind));
+        });
+        calls.add(kind + " " + String.join(",", titles));
+        ((Handler<AsyncResult<JsonArray>>) args[1]).handle(Future.succeededFuture(results));
+        return null;
+      });
+  }
+}
@@ -0,0 +1,119 @@
+package io.vertx.starter.http;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.handler.BodyHandler;
+import io.vertx.starter.models.Currency;
+import io.vertx.starter.models.Rates;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+@RunWith(VertxUnitRunner.class)
+public class ConversionApiTest {
+  private Vertx vertx;
+  private HttpServer server;
+  private WebClient client;
+  private ConversionApi conversionApi;
+
+  @Before
+  public void setUp(TestContext context) {
+    vertx = Vertx.vertx();
+    double[] values = new double[Currency.count()];
+    Arrays.fill(values, Double.NaN);
+    values[Currency.USD.ordinal()] = 1.1;
+    values[Currency.GBP.ordinal()] = 0.0;
+    conversionApi = new ConversionApi(new Rates(Currency.EUR, LocalDate.of(2019, 12, 13), values));
+
+    Router router = Router.router(vertx);
+    router.get("/convert").handler(routingContext -> conversionApi.convertHandler(routingContext));
+    router.post().handler(BodyHandler.create());
+    router.post("/convert").handler(routingContext -> conversionApi.batchConvertHandler(routingContext));
+    server = vertx.createHttpServer().requestHandler(router);
+    server.listen(0, context.asyncAssertSuccess());
+    client = WebClient.create(vertx);
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void convertsAnAmount(TestContext context) {
+    get(context, "/convert?from=EUR&to=USD&amount=10", response -> {
+      context.assertEquals(200, response.statusCode());
+      JsonObject result = response.bodyAsJsonObject();
+      context.assertInRange(11.0, result.getDouble("result"), 1e-9);
+      context.assertEquals(1.1, result.getDouble("rate"));
+      context.assertEquals("2019-12-13", result.getString("date"));
+    });
+  }
+
+  @Test
+  public void refusesNonFiniteAmounts(TestContext context) {
+    for (String amount : new String[]{"NaN", "Infinity", "-Infinity", "ten"}) {
+      get(context, "/convert?from=EUR&to=USD&amount=" + amount, response -> {
+        context.assertEquals(400, response.statusCode());
+        context.assertEquals("amount must be a number", response.bodyAsJsonObject().getString("error"));
+      });
+    }
+  }
+
+  @Test
+  public void refusesResultsOverflowingADouble(TestContext context) {
+    get(context, "/convert?from=EUR&to=USD&amount=" + Double.MAX_VALUE, response -> {
+      context.assertEquals(400, response.statusCode());
+      context.assertEquals("amount too large to convert", response.bodyAsJsonObject().getString("error"));
+    });
+  }
+
+  @Test
+  public void hasNoRateForACurrencyQuotedAtZero(TestContext context) {
+    get(context, "/convert?from=USD&to=GBP", response -> {
+      context.assertEquals(400, response.statusCode());
+      context.assertEquals("no rate for USD to GBP", response.bodyAsJsonObject().getString("error"));
+    });
+  }
+
+  @Test
+  public void answersEveryBatchItemInOrder(TestContext context) {
+    JsonArray batch = new JsonArray()
+      .add(new JsonObject().put("from", "EUR").put("to", "USD").put("amount", 2))
+      .add(new JsonObject().put("from", "EUR").put("to", "USD").put("amount", Double.MAX_VALUE))
+      .add("not an object")
+      .add(new JsonObject().put("from", "XXX").put("to", "USD"));
+    client.post(server.actualPort(), "localhost", "/convert").sendJson(batch, context.asyncAssertSuccess(response -> {
+      context.assertEquals(200, response.statusCode());
+      JsonArray results = response.bodyAsJsonArray();
+      context.assertEquals(4, results.size());
+      context.assertInRange(2.2, results.getJsonObject(0).getDouble("result"), 1e-9);
+      context.assertEquals("amount too large to convert", results.getJsonObject(1).getString("error"));
+      context.assertEquals("expected an object", results.getJsonObject(2).getString("error"));
+      context.assertEquals("unknown currency XXX", results.getJsonObject(3).getString("error"));
+    }));
+  }
+
+  @Test
+  public void answersUnavailableBeforeTheFirstRates(TestContext context) {
+    conversionApi.update(null);
+    get(context, "/convert?from=EUR&to=USD", response -> context.assertEquals(503, response.statusCode()));
+  }
+
+  private void get(TestContext context, String uri, Handler<HttpResponse<Buffer>> check) {
+    client.get(server.actualPort(), "localhost", uri).send(context.asyncAssertSuccess(check));
+  }
+}
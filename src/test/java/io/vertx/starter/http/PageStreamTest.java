@@ -0,0 +1,122 @@
+package io.vertx.starter.http;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.serviceproxy.ServiceException;
+import io.vertx.starter.database.models.Page;
+import io.vertx.starter.database.services.WikiDatabaseService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(VertxUnitRunner.class)
+public class PageStreamTest {
+  private static final int CHUNK_SIZE = 4;
+  private static final String TEMPLATE = "<html>" + PageStream.HTML_MARKER + "<hr>" + PageStream.MARKDOWN_MARKER + "</html>";
+  // pairs straddling the chunk boundaries at 4 and 8
+  private static final String HTML = "<p>\ud83d\ude00\ud83c\udf6e\ud83d\ude00x</p>";
+  private static final String MARKDOWN = "abc\ud83d\ude00de\u00e9\ud83c\udf6e";
+
+  private Vertx vertx;
+  private HttpServer server;
+  private WebClient client;
+  private final List<String> reads = new ArrayList<>();
+  /**
+   * The chunk read, by position in {@link #reads}, from which the service no longer has the version.
+   */
+  private int goneFrom = Integer.MAX_VALUE;
+  private boolean unrendered;
+
+  @Before
+  public void setUp(TestContext context) {
+    vertx = Vertx.vertx();
+    WikiDatabaseService dbService = stubService();
+    Page page = new Page().setId(1).setName("Big").setVersion(3).setUpdated(1_576_000_000_000L);
+    Router router = Router.router(vertx);
+    router.get("/page").handler(routingContext -> new PageStream(dbService, CHUNK_SIZE, routingContext, page)
+      .start(TEMPLATE, () -> routingContext.response().end("whole page")));
+    server = vertx.createHttpServer().requestHandler(router);
+    server.listen(0, context.asyncAssertSuccess());
+    client = WebClient.create(vertx);
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void neverSplitsASurrogatePair(TestContext context) {
+    client.get(server.actualPort(), "localhost", "/page").send(context.asyncAssertSuccess(response -> {
+      context.assertEquals(200, response.statusCode());
+      context.assertEquals("\"1-3\"", response.getHeader("ETag"));
+      // decoded strictly: a split pair would have been written as '?'
+      context.assertEquals("<html>" + HTML + "<hr>" + MARKDOWN + "</html>",
+        new String(response.body().getBytes(), StandardCharsets.UTF_8));
+      context.assertFalse(response.bodyAsString().contains("?"));
+      context.assertTrue(reads.contains("html 3"), "the chunk after a held back high surrogate starts with it: " + reads);
+    }));
+  }
+
+  @Test
+  public void loadsThePageWholeWhenItsVersionIsGoneBeforeTheFirstChunk(TestContext context) {
+    goneFrom = 0;
+    client.get(server.actualPort(), "localhost", "/page").send(context.asyncAssertSuccess(response -> {
+      context.assertEquals(200, response.statusCode());
+      context.assertEquals("whole page", response.bodyAsString());
+    }));
+  }
+
+  @Test
+  public void loadsThePageWholeWhenItsHtmlIsNotRendered(TestContext context) {
+    unrendered = true;
+    client.get(server.actualPort(), "localhost", "/page").send(context.asyncAssertSuccess(response ->
+      context.assertEquals("whole page", response.bodyAsString())));
+  }
+
+  @Test
+  public void cutsTheResponseShortWhenItsVersionIsGoneLater(TestContext context) {
+    goneFrom = 2;
+    client.get(server.actualPort(), "localhost", "/page").send(context.asyncAssertFailure());
+  }
+
+  /**
+   * Service answering chunk reads of {@link #HTML} and {@link #MARKDOWN}, and recording them.
+   */
+  @SuppressWarnings("unchecked")
+  private WikiDatabaseService stubService() {
+    return (WikiDatabaseService) Proxy.newProxyInstance(getClass().getClassLoader(),
+      new Class<?>[]{WikiDatabaseService.class}, (proxy, method, args) -> {
+        if (!method.getName().equals("fetchPageChunk")) {
+          throw new UnsupportedOperationException(method.getName());
+        }
+        JsonObject request = (JsonObject) args[0];
+        Handler<AsyncResult<String>> handler = (Handler<AsyncResult<String>>) args[1];
+        String part = request.getString("part");
+        int offset = request.getInteger("offset");
+        reads.add(part + " " + offset);
+        if (reads.size() > goneFrom) {
+          handler.handle(Future.failedFuture(new ServiceException(404, "No version 3 of page Big")));
+          return null;
+        }
+        String content = "html".equals(part) ? (unrendered ? null : HTML) : MARKDOWN;
+        handler.handle(Future.succeededFuture(content == null ? null
+          : content.substring(Math.min(offset, content.length()), Math.min(offset + request.getInteger("length"), content.length()))));
+        return null;
+      });
+  }
+}
@@ -0,0 +1,51 @@
+package io.vertx.starter.http;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseCompressionTest {
+
+  @Test
+  public void acceptsListedGzip() {
+    assertTrue(ResponseCompression.acceptsGzip("gzip"));
+    assertTrue(ResponseCompression.acceptsGzip("deflate, GZIP"));
+    assertTrue(ResponseCompression.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+  }
+
+  @Test
+  public void refusesMissingOrUnlistedGzip() {
+    assertFalse(ResponseCompression.acceptsGzip((String) null));
+    assertFalse(ResponseCompression.acceptsGzip(""));
+    assertFalse(ResponseCompression.acceptsGzip("deflate, br"));
+    assertFalse(ResponseCompression.acceptsGzip("identity"));
+  }
+
+  @Test
+  public void refusesGzipWithZeroQuality() {
+    assertFalse(ResponseCompression.acceptsGzip("gzip;q=0"));
+    assertFalse(ResponseCompression.acceptsGzip("gzip; q=0.000"));
+    assertFalse(ResponseCompression.acceptsGzip("gzip;level=1;q=0"));
+  }
+
+  @Test
+  public void acceptsWildcardWhenGzipIsNotListed() {
+    assertTrue(ResponseCompression.acceptsGzip("*"));
+    assertTrue(ResponseCompression.acceptsGzip("br, *;q=0.1"));
+    assertFalse(ResponseCompression.acceptsGzip("*;q=0"));
+  }
+
+  @Test
+  public void explicitGzipTakesPrecedenceOverWildcard() {
+    assertTrue(ResponseCompression.acceptsGzip("*;q=0, gzip"));
+    assertTrue(ResponseCompression.acceptsGzip("gzip;q=0.5, *;q=0"));
+    assertFalse(ResponseCompression.acceptsGzip("gzip;q=0, *"));
+    assertFalse(ResponseCompression.acceptsGzip("*, gzip;q=0"));
+  }
+
+  @Test
+  public void unreadableQualityRefusesTheCoding() {
+    assertFalse(ResponseCompression.acceptsGzip("gzip;q=high"));
+  }
+}
@@ -0,0 +1,45 @@
+package io.vertx.starter.http;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.templ.freemarker.FreeMarkerTemplateEngine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RunWith(VertxUnitRunner.class)
+public class TemplateWarmUpTest {
+  private Vertx vertx;
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test
+  public void listsEveryTemplate(TestContext context) {
+    File directory = new File(getClass().getClassLoader().getResource("templates").getFile());
+    List<String> templates = Arrays.stream(directory.list((dir, name) -> name.endsWith(".ftl")))
+      .sorted()
+      .map(name -> "templates/" + name)
+      .collect(Collectors.toList());
+    context.assertEquals(templates, TemplateWarmUp.TEMPLATES);
+  }
+
+  @Test
+  public void rendersEveryTemplate(TestContext context) {
+    new TemplateWarmUp(vertx, FreeMarkerTemplateEngine.create(vertx), 2).run(context.asyncAssertSuccess());
+  }
+}
@@ -0,0 +1,57 @@
+package io.vertx.starter.models;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CrossRatesTest {
+  private static final LocalDate DATE = LocalDate.of(2019, 12, 13);
+
+  @Test
+  public void crossesTwoQuotesThroughTheBase() {
+    CrossRates crossRates = CrossRates.of(rates(Currency.EUR, Currency.USD, 1.1, Currency.GBP, 0.85));
+
+    assertEquals(1.1, crossRates.getRate(Currency.EUR, Currency.USD), 1e-12);
+    assertEquals(1 / 0.85, crossRates.getRate(Currency.GBP, Currency.EUR), 1e-12);
+    assertEquals(1.1 / 0.85, crossRates.getRate(Currency.GBP, Currency.USD), 1e-12);
+    assertEquals(11.0, crossRates.convert(Currency.EUR, Currency.USD, 10), 1e-12);
+    assertEquals(1.0, crossRates.getRate(Currency.USD, Currency.USD), 0);
+    assertEquals(DATE, crossRates.getDate());
+  }
+
+  @Test
+  public void hasNoRateForACurrencyWithoutQuote() {
+    CrossRates crossRates = CrossRates.of(rates(Currency.EUR, Currency.USD, 1.1));
+
+    assertTrue(Double.isNaN(crossRates.getRate(Currency.USD, Currency.GBP)));
+    assertTrue(Double.isNaN(crossRates.getRate(Currency.GBP, Currency.EUR)));
+  }
+
+  @Test
+  public void refusesZeroNegativeAndInfiniteQuotes() {
+    CrossRates crossRates = CrossRates.of(rates(Currency.EUR,
+      Currency.USD, 0.0, Currency.GBP, -1.0, Currency.JPY, Double.POSITIVE_INFINITY, Currency.CHF, 1.08));
+
+    for (Currency broken : new Currency[]{Currency.USD, Currency.GBP, Currency.JPY}) {
+      assertTrue(broken.name(), Double.isNaN(crossRates.getRate(broken, Currency.CHF)));
+      assertTrue(broken.name(), Double.isNaN(crossRates.getRate(Currency.CHF, broken)));
+    }
+    assertEquals(1.08, crossRates.getRate(Currency.EUR, Currency.CHF), 1e-12);
+  }
+
+  /**
+   * @param quotes pairs of a currency and its rate against {@code base}
+   */
+  private static Rates rates(Currency base, Object... quotes) {
+    double[] values = new double[Currency.count()];
+    Arrays.fill(values, Double.NaN);
+    for (int i = 0; i < quotes.length; i += 2) {
+      values[((Currency) quotes[i]).ordinal()] = (Double) quotes[i + 1];
+    }
+    return new Rates(base, DATE, values);
+  }
+}
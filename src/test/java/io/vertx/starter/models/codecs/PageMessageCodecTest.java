@@ -0,0 +1,74 @@
+package io.vertx.starter.models.codecs;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.starter.database.models.Page;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PageMessageCodecTest {
+  private final PageMessageCodec codec = new PageMessageCodec();
+
+  @Test
+  public void roundTripsEveryField() {
+    Page page = new Page()
+      .setId(42)
+      .setName("Cr\u00e8me br\u00fbl\u00e9e \ud83c\udf6e")
+      .setMarkdown("# Title\n\nSome *text*")
+      .setHtml("<h1>Title</h1>\n<p>Some <em>text</em></p>\n")
+      .setVersion(7)
+      .setUpdated(1_576_000_000_000L)
+      .setSize(1234)
+      .setNewPage(true);
+
+    Page decoded = roundTrip(page);
+
+    assertEquals(42, decoded.getId());
+    assertEquals(page.getName(), decoded.getName());
+    assertEquals(page.getMarkdown(), decoded.getMarkdown());
+    assertEquals(page.getHtml(), decoded.getHtml());
+    assertEquals(7, decoded.getVersion());
+    assertEquals(1_576_000_000_000L, decoded.getUpdated());
+    assertEquals(1234, decoded.getSize());
+    assertTrue(decoded.isNewPage());
+  }
+
+  @Test
+  public void keepsNullAndEmptyStringsApart() {
+    Page decoded = roundTrip(new Page().setName("").setMarkdown(null).setHtml(""));
+
+    assertEquals("", decoded.getName());
+    assertNull(decoded.getMarkdown());
+    assertEquals("", decoded.getHtml());
+    assertFalse(decoded.isNewPage());
+  }
+
+  @Test
+  public void decodesFromItsPositionInALargerBuffer() {
+    Buffer buffer = Buffer.buffer().appendString("header");
+    codec.encodeToWire(buffer, new Page().setId(1).setName("first"));
+    int second = buffer.length();
+    codec.encodeToWire(buffer, new Page().setId(2).setName("second"));
+    buffer.appendString("trailer");
+
+    assertEquals("first", codec.decodeFromWire(6, buffer).getName());
+    assertEquals(2, codec.decodeFromWire(second, buffer).getId());
+    assertEquals("second", codec.decodeFromWire(second, buffer).getName());
+  }
+
+  @Test
+  public void localDeliveryKeepsTheInstance() {
+    Page page = new Page().setName("local");
+    assertSame(page, codec.transform(page));
+  }
+
+  private Page roundTrip(Page page) {
+    Buffer buffer = Buffer.buffer();
+    codec.encodeToWire(buffer, page);
+    return codec.decodeFromWire(0, buffer);
+  }
+}
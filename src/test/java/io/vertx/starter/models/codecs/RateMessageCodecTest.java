@@ -0,0 +1,94 @@
+package io.vertx.starter.models.codecs;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.starter.models.Currency;
+import io.vertx.starter.models.Rates;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RateMessageCodecTest {
+  private final RateMessageCodec codec = new RateMessageCodec();
+
+  @Test
+  public void roundTripsBaseDateAndRates() {
+    double[] values = new double[Currency.count()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = 1 + i / 10.0;
+    }
+    values[Currency.ISK.ordinal()] = Double.NaN;
+    Rates rates = new Rates(Currency.EUR, LocalDate.of(2019, 12, 13), values);
+
+    Rates decoded = roundTrip(rates);
+
+    assertEquals(Currency.EUR, decoded.getBase());
+    assertEquals(LocalDate.of(2019, 12, 13), decoded.getDate());
+    for (Currency currency : Currency.values()) {
+      assertEquals(rates.getRate(currency), decoded.getRate(currency), 0);
+    }
+    assertTrue(Double.isNaN(decoded.getRate(Currency.ISK)));
+  }
+
+  @Test
+  public void roundTripsMissingBaseAndDate() {
+    Rates decoded = roundTrip(new Rates(null, null, new double[Currency.count()]));
+
+    assertNull(decoded.getBase());
+    assertNull(decoded.getDate());
+  }
+
+  @Test
+  public void fillsCurrenciesUnknownToTheSenderWithNaN() {
+    Buffer buffer = Buffer.buffer()
+      .appendByte((byte) Currency.EUR.ordinal())
+      .appendLong(LocalDate.of(2020, 1, 1).toEpochDay())
+      .appendShort((short) 2)
+      .appendDouble(1.5)
+      .appendDouble(2.5);
+
+    Rates decoded = codec.decodeFromWire(0, buffer);
+
+    assertEquals(1.5, decoded.getRate(0), 0);
+    assertEquals(2.5, decoded.getRate(1), 0);
+    for (int i = 2; i < Currency.count(); i++) {
+      assertTrue(Double.isNaN(decoded.getRate(i)));
+    }
+  }
+
+  @Test
+  public void dropsCurrenciesUnknownToTheReceiver() {
+    double[] values = new double[Currency.count() + 2];
+    Arrays.fill(values, 3.0);
+    Buffer buffer = Buffer.buffer()
+      .appendByte((byte) (Currency.count() + 1))
+      .appendLong(0)
+      .appendShort((short) values.length);
+    for (double value : values) {
+      buffer.appendDouble(value);
+    }
+
+    Rates decoded = codec.decodeFromWire(0, buffer);
+
+    assertNull("a base unknown to the receiver", decoded.getBase());
+    assertEquals(LocalDate.ofEpochDay(0), decoded.getDate());
+    assertEquals(3.0, decoded.getRate(Currency.count() - 1), 0);
+  }
+
+  @Test
+  public void localDeliveryKeepsTheInstance() {
+    Rates rates = new Rates(Currency.USD, null, new double[Currency.count()]);
+    assertSame(rates, codec.transform(rates));
+  }
+
+  private Rates roundTrip(Rates rates) {
+    Buffer buffer = Buffer.buffer().appendString("prefix");
+    codec.encodeToWire(buffer, rates);
+    return codec.decodeFromWire(6, buffer);
+  }
+}
@@ -0,0 +1,172 @@
+package io.vertx.starter.search;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.jdbc.JDBCClient;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.starter.database.SqlLoader;
+import io.vertx.starter.database.enums.SqlQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+@RunWith(VertxUnitRunner.class)
+public class PersistentSearchIndexTest {
+  /**
+   * Journal records after which the index is compacted.
+   */
+  private static final int COMPACTION_THRESHOLD = 1000;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Vertx vertx;
+  private Context context;
+  private String url;
+  private Map<SqlQuery, String> sqlQueries;
+  private JDBCClient dbClient;
+
+  @Before
+  public void setUp() throws Exception {
+    vertx = Vertx.vertx();
+    // the index is confined to one event loop, as in the database verticle
+    context = vertx.getOrCreateContext();
+    url = "jdbc:hsqldb:mem:" + UUID.randomUUID();
+    sqlQueries = SqlLoader.loadSqlQueries(new JsonObject());
+    try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+      connection.createStatement().execute(sqlQueries.get(SqlQuery.CREATE_PAGES_TABLE));
+    }
+    dbClient = JDBCClient.createNonShared(vertx, new JsonObject()
+      .put("url", url)
+      .put("driver_class", "org.hsqldb.jdbcDriver"));
+  }
+
+  @After
+  public void tearDown(TestContext testContext) {
+    dbClient.close();
+    vertx.close(testContext.asyncAssertSuccess());
+  }
+
+  @Test
+  public void reopensFromItsSnapshotAndJournal(TestContext testContext) {
+    Async async = testContext.async();
+    // the table stays empty: pages can only come back from the files
+    writeAndClose(testContext, 0, index -> {
+      put(index, 1, "apple banana");
+      put(index, 2, "banana cherry");
+      put(index, 3, "cherry damson");
+      index.remove(2);
+      put(index, 3, "damson elder");
+    }, () -> open(testContext, 2, index -> {
+      testContext.assertEquals(1, index.search("banana", 10).size());
+      testContext.assertEquals(0, index.search("cherry", 10).size());
+      testContext.assertEquals(3, index.search("elder", 10).getJsonObject(0).getInteger("id"));
+      async.complete();
+    }));
+  }
+
+  @Test
+  public void ignoresARecordCutShortAtTheEndOfTheJournal(TestContext testContext) {
+    Async async = testContext.async();
+    writeAndClose(testContext, 0, index -> put(index, 1, "apple"), () -> {
+      try {
+        byte[] record = SearchIndex.putRecord(2, "Page 2", Tokenizer.termFrequencies("banana")).getBytes();
+        Files.write(Paths.get(folder.getRoot().getPath(), "index.journal"), Arrays.copyOf(record, 9),
+          StandardOpenOption.APPEND);
+      } catch (Exception e) {
+        testContext.fail(e);
+      }
+      open(testContext, 1, index -> {
+        testContext.assertEquals(1, index.search("apple", 10).size());
+        testContext.assertEquals(0, index.search("banana", 10).size());
+        async.complete();
+      });
+    });
+  }
+
+  @Test
+  public void keepsUpdatesArrivingDuringACompaction(TestContext testContext) {
+    int pages = COMPACTION_THRESHOLD + 50;
+    Async async = testContext.async();
+    writeAndClose(testContext, 0, index -> {
+      // the last ones are held back while the snapshot is written, then go to the new journal
+      for (int id = 1; id <= pages; id++) {
+        put(index, id, "common term" + id);
+      }
+    }, () -> open(testContext, pages, index -> {
+      testContext.assertEquals(pages, index.search("common", 2 * pages).size());
+      testContext.assertEquals(pages, index.search("term" + pages, 10).getJsonObject(0).getInteger("id"));
+      testContext.assertTrue(Files.exists(Paths.get(folder.getRoot().getPath(), "index.snapshot")));
+      async.complete();
+    }));
+  }
+
+  @Test
+  public void rebuildsFromTheDatabaseWhenThePageCountDiffers(TestContext testContext) throws Exception {
+    Async async = testContext.async();
+    writeAndClose(testContext, 0, index -> put(index, 1, "apple"), () -> {
+      try (Connection connection = DriverManager.getConnection(url, "sa", "");
+           PreparedStatement insert = connection.prepareStatement("insert into Pages (Name, Content) values (?, ?)")) {
+        for (int i = 0; i < 3; i++) {
+          insert.setString(1, "Kiwi " + i);
+          insert.setString(2, "kiwi fruit");
+          insert.addBatch();
+        }
+        insert.executeBatch();
+      } catch (Exception e) {
+        testContext.fail(e);
+      }
+      open(testContext, 3, index -> vertx.setPeriodic(20, timer -> {
+        // the rebuild runs in the background
+        if (index.search("kiwi", 10).size() == 3) {
+          vertx.cancelTimer(timer);
+          testContext.assertEquals(0, index.search("apple", 10).size());
+          async.complete();
+        }
+      }));
+    });
+  }
+
+  /**
+   * Opens an index over the empty folder, applies {@code updates} once the rebuild from the database has written the
+   * first snapshot, and closes it.
+   */
+  private void writeAndClose(TestContext testContext, int expectedPages, Handler<PersistentSearchIndex> updates,
+                             Runnable closed) {
+    open(testContext, expectedPages, index -> vertx.setPeriodic(20, timer -> {
+      if (Files.exists(Paths.get(folder.getRoot().getPath(), "index.snapshot"))) {
+        vertx.cancelTimer(timer);
+        updates.handle(index);
+        index.close(testContext.asyncAssertSuccess(v -> closed.run()));
+      }
+    }));
+  }
+
+  private void open(TestContext testContext, int expectedPages, Handler<PersistentSearchIndex> opened) {
+    context.runOnContext(v -> {
+      PersistentSearchIndex index = new PersistentSearchIndex(vertx, folder.getRoot().getPath());
+      index.open(dbClient, sqlQueries, expectedPages, testContext.asyncAssertSuccess(o -> opened.handle(index)));
+    });
+  }
+
+  private static void put(PersistentSearchIndex index, int pageId, String content) {
+    index.put(pageId, "Page " + pageId, Tokenizer.termFrequencies(content));
+  }
+}
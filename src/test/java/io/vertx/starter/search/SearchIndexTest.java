@@ -0,0 +1,173 @@
+package io.vertx.starter.search;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SearchIndexTest {
+  private static final String[] VOCABULARY = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel"};
+  private static final int LIMIT = 1000;
+
+  private final Random random = new Random(42);
+  private final Map<Integer, Map<String, Integer>> model = new TreeMap<>();
+  private final SearchIndex index = new SearchIndex();
+
+  @Test
+  public void matchesABruteForceModelThroughPutsAndRemoves() {
+    for (int step = 0; step < 2000; step++) {
+      int pageId = random.nextInt(60);
+      if (random.nextInt(4) == 0) {
+        index.remove(pageId);
+        model.remove(pageId);
+      } else {
+        put(pageId, randomFrequencies());
+      }
+      if (step % 50 == 0) {
+        assertMatchesModel(index);
+      }
+    }
+    assertMatchesModel(index);
+  }
+
+  @Test
+  public void restoresItsSnapshot() {
+    for (int pageId = 0; pageId < 40; pageId++) {
+      put(pageId, randomFrequencies());
+    }
+    for (int pageId = 0; pageId < 40; pageId += 3) {
+      index.remove(pageId);
+      model.remove(pageId);
+    }
+
+    SearchIndex restored = new SearchIndex();
+    restored.restore(index.snapshot());
+
+    assertMatchesModel(restored);
+  }
+
+  @Test
+  public void documentsKeepTheStateTheyWereTakenIn() {
+    put(1, frequencies("alpha", 2));
+    put(2, frequencies("bravo", 1));
+    SearchIndex.Documents documents = index.documents();
+    Map<Integer, Map<String, Integer>> taken = new TreeMap<>(model);
+
+    put(1, frequencies("charlie", 1));
+    index.remove(2);
+    model.remove(2);
+
+    SearchIndex restored = new SearchIndex();
+    restored.restore(documents.snapshot());
+    model.clear();
+    model.putAll(taken);
+    assertMatchesModel(restored);
+  }
+
+  @Test
+  public void replayIgnoresATruncatedLastRecord() {
+    Buffer journal = Buffer.buffer()
+      .appendBuffer(SearchIndex.putRecord(1, "Page 1", frequencies("alpha", 1)))
+      .appendBuffer(SearchIndex.putRecord(2, "Page 2", frequencies("bravo", 2)))
+      .appendBuffer(SearchIndex.removeRecord(1));
+    Buffer last = SearchIndex.putRecord(3, "Page 3", frequencies("charlie", 3));
+    journal.appendBuffer(last.getBuffer(0, last.length() - 3));
+
+    assertEquals(3, index.replay(journal));
+
+    model.put(2, frequencies("bravo", 2));
+    assertMatchesModel(index);
+    assertFalse(index.contains(3));
+  }
+
+  @Test
+  public void replayingRecordsTwiceChangesNothing() {
+    Buffer journal = Buffer.buffer()
+      .appendBuffer(SearchIndex.putRecord(1, "Page 1", frequencies("alpha", 1)))
+      .appendBuffer(SearchIndex.putRecord(1, "Page 1", frequencies("bravo", 1)));
+
+    index.replay(journal);
+    index.replay(journal);
+
+    model.put(1, frequencies("bravo", 1));
+    assertMatchesModel(index);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void refusesWhatIsNotASnapshot() {
+    index.restore(Buffer.buffer().appendInt(1).appendInt(2).appendInt(0));
+  }
+
+  private void put(int pageId, Map<String, Integer> frequencies) {
+    index.put(pageId, "Page " + pageId, frequencies);
+    model.put(pageId, frequencies);
+  }
+
+  private Map<String, Integer> randomFrequencies() {
+    Map<String, Integer> frequencies = new HashMap<>();
+    int terms = 1 + random.nextInt(4);
+    for (int i = 0; i < terms; i++) {
+      frequencies.put(VOCABULARY[random.nextInt(VOCABULARY.length)], 1 + random.nextInt(5));
+    }
+    return frequencies;
+  }
+
+  private static Map<String, Integer> frequencies(String term, int frequency) {
+    Map<String, Integer> frequencies = new HashMap<>();
+    frequencies.put(term, frequency);
+    return frequencies;
+  }
+
+  /**
+   * Every term finds exactly the pages of the model holding it, with the scores of an index built from the model in
+   * one go, which never had a posting moved by a removal.
+   */
+  private void assertMatchesModel(SearchIndex actual) {
+    SearchIndex fresh = new SearchIndex();
+    model.forEach((pageId, frequencies) -> fresh.put(pageId, "Page " + pageId, frequencies));
+    assertEquals(model.size(), actual.size());
+    for (String term : VOCABULARY) {
+      Set<Integer> expected = new HashSet<>();
+      model.forEach((pageId, frequencies) -> {
+        if (frequencies.containsKey(term)) {
+          expected.add(pageId);
+        }
+      });
+      Map<Integer, Float> scores = scores(actual.search(term, LIMIT));
+      assertEquals(term, expected, scores.keySet());
+      assertScores(term, scores(fresh.search(term, LIMIT)), scores);
+    }
+    String query = VOCABULARY[0] + " " + VOCABULARY[1];
+    assertScores(query, scores(fresh.search(query, LIMIT)), scores(actual.search(query, LIMIT)));
+  }
+
+  private static void assertScores(String query, Map<Integer, Float> expected, Map<Integer, Float> actual) {
+    assertEquals(query, expected.keySet(), actual.keySet());
+    expected.forEach((pageId, score) -> assertEquals(query + " on " + pageId, score, actual.get(pageId), 1e-4));
+  }
+
+  private static Map<Integer, Float> scores(JsonArray results) {
+    Map<Integer, Float> scores = new HashMap<>();
+    float previous = Float.MAX_VALUE;
+    for (int i = 0; i < results.size(); i++) {
+      JsonObject result = results.getJsonObject(i);
+      float score = result.getFloat("score");
+      assertTrue("best match first", score <= previous);
+      assertEquals("Page " + result.getInteger("id"), result.getString("name"));
+      scores.put(result.getInteger("id"), score);
+      previous = score;
+    }
+    return scores;
+  }
+}
@@ -0,0 +1,145 @@
+package io.vertx.starter.verticles;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.starter.models.Currency;
+import io.vertx.starter.models.Rates;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.vertx.starter.common.Constants.EXCHANGE_RATE_ADDRESS;
+import static io.vertx.starter.common.Constants.EXCHANGE_RATE_LATEST_KEY;
+import static io.vertx.starter.common.Constants.EXCHANGE_RATE_MAP;
+
+@RunWith(VertxUnitRunner.class)
+public class ExchangeRateVerticleTest {
+  private static final JsonObject API_RATES = new JsonObject()
+    .put("base", "BGN")
+    .put("date", "2019-12-13")
+    .put("rates", new JsonObject().put("EUR", 0.5113).put("USD", 0.5694));
+  /**
+   * Some slack for timers firing early by a few milliseconds.
+   */
+  private static final long SLACK = 100;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Vertx vertx;
+  private File snapshotFile;
+  private final List<Long> requestTimes = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    vertx = Vertx.vertx();
+    snapshotFile = new File(folder.getRoot(), "rates/exchange-rates.json");
+  }
+
+  @After
+  public void tearDown(TestContext context) {
+    vertx.close(context.asyncAssertSuccess());
+  }
+
+  @Test(timeout = 15000)
+  public void retriesWithADoublingDelayThenRefreshesAtTheInterval(TestContext context) {
+    AtomicInteger failures = new AtomicInteger(2);
+    Async published = context.async();
+    Async refreshedAgain = context.async();
+    vertx.eventBus().<Rates>consumer(EXCHANGE_RATE_ADDRESS, message -> {
+      context.assertEquals(0.5113, message.body().getRate(Currency.EUR));
+      if (!published.isCompleted()) {
+        published.complete();
+      }
+    });
+
+    startApi(context, request -> {
+      requestTimes.add(System.currentTimeMillis());
+      if (requestTimes.size() == 4) {
+        refreshedAgain.complete();
+      }
+      if (failures.getAndDecrement() > 0) {
+        request.response().setStatusCode(500).end();
+      } else {
+        request.response().putHeader("Content-Type", "application/json").end(API_RATES.encode());
+      }
+    }, port -> deploy(context, port));
+
+    published.await();
+    refreshedAgain.await();
+    // two failures: 1s then 2s, capped by the refresh interval; then a success and the refresh interval
+    context.assertTrue(requestTimes.get(1) - requestTimes.get(0) >= 1000 - SLACK);
+    context.assertTrue(requestTimes.get(2) - requestTimes.get(1) >= 2000 - SLACK);
+    context.assertTrue(requestTimes.get(3) - requestTimes.get(2) >= 2000 - SLACK);
+
+    Rates latest = (Rates) vertx.sharedData().getLocalMap(EXCHANGE_RATE_MAP).get(EXCHANGE_RATE_LATEST_KEY);
+    context.assertEquals(Currency.BGN, latest.getBase());
+    JsonObject snapshot = new JsonObject(readSnapshot(context));
+    context.assertEquals(0.5694, snapshot.getJsonObject("rates").getJsonObject("rates").getDouble("USD"));
+    context.assertFalse(new File(snapshotFile.getPath() + ".tmp").exists());
+  }
+
+  @Test(timeout = 15000)
+  public void startsFromTheSnapshotWithoutWaitingForTheApi(TestContext context) throws Exception {
+    snapshotFile.getParentFile().mkdirs();
+    Files.write(snapshotFile.toPath(), new JsonObject()
+      .put("fetched", System.currentTimeMillis())
+      .put("rates", API_RATES)
+      .toBuffer().getBytes());
+
+    // the API never answers
+    startApi(context, request -> requestTimes.add(System.currentTimeMillis()), port -> {
+      Async deployed = context.async();
+      vertx.deployVerticle(new ExchangeRateVerticle(), options(port), context.asyncAssertSuccess(id -> {
+        Rates latest = (Rates) vertx.sharedData().getLocalMap(EXCHANGE_RATE_MAP).get(EXCHANGE_RATE_LATEST_KEY);
+        context.assertNotNull(latest);
+        context.assertEquals(0.5113, latest.getRate(Currency.EUR));
+        deployed.complete();
+      }));
+    });
+  }
+
+  private void startApi(TestContext context, Handler<HttpServerRequest> handler,
+                        Handler<Integer> started) {
+    HttpServer server = vertx.createHttpServer().requestHandler(handler);
+    server.listen(0, context.asyncAssertSuccess(listening -> started.handle(listening.actualPort())));
+  }
+
+  private void deploy(TestContext context, int port) {
+    vertx.deployVerticle(new ExchangeRateVerticle(), options(port), context.asyncAssertSuccess());
+  }
+
+  private DeploymentOptions options(int port) {
+    return new DeploymentOptions().setConfig(new JsonObject()
+      .put("exchange_rate.url", "http://localhost:" + port + "/latest")
+      .put("exchange_rate.snapshot_file", snapshotFile.getPath())
+      .put("exchange_rate.history_file", new File(folder.getRoot(), "history.bin").getPath())
+      .put("exchange_rate.retry_delay_seconds", 1)
+      .put("exchange_rate.refresh_interval_seconds", 2));
+  }
+
+  private String readSnapshot(TestContext context) {
+    try {
+      return new String(Files.readAllBytes(snapshotFile.toPath()), "UTF-8");
+    } catch (Exception e) {
+      context.fail(e);
+      return null;
+    }
+  }
+}